@@ -78,6 +78,58 @@ public interface LogEventBuilder {
         return this;
     }
 
+    /**
+     * Add a key-value pair of contextual information in LogEventBuilder, kept as a long without boxing and written
+     * as a JSON number. Int, short and byte values widen to this overload. Implementations which don't override it
+     * get the boxed value through {@link #kv(String, Object)}.
+     *
+     * @param key   a unique key
+     * @param value value of the key
+     * @return the instance of LogEventBuilder
+     */
+    default LogEventBuilder kv(String key, long value) {
+        return kv(key, (Object) value);
+    }
+
+    /**
+     * Add a key-value pair of contextual information in LogEventBuilder, logged as the character itself rather than
+     * widened to {@link #kv(String, long)}. Implementations which don't override it get the boxed value through
+     * {@link #kv(String, Object)}.
+     *
+     * @param key   a unique key
+     * @param value value of the key
+     * @return the instance of LogEventBuilder
+     */
+    default LogEventBuilder kv(String key, char value) {
+        return kv(key, (Object) value);
+    }
+
+    /**
+     * Add a key-value pair of contextual information in LogEventBuilder, kept as a double without boxing and written
+     * as a JSON number. Float values widen to this overload. Implementations which don't override it get the boxed
+     * value through {@link #kv(String, Object)}.
+     *
+     * @param key   a unique key
+     * @param value value of the key
+     * @return the instance of LogEventBuilder
+     */
+    default LogEventBuilder kv(String key, double value) {
+        return kv(key, (Object) value);
+    }
+
+    /**
+     * Add a key-value pair of contextual information in LogEventBuilder, kept as a boolean without boxing and written
+     * as a JSON boolean. Implementations which don't override it get the boxed value through
+     * {@link #kv(String, Object)}.
+     *
+     * @param key   a unique key
+     * @param value value of the key
+     * @return the instance of LogEventBuilder
+     */
+    default LogEventBuilder kv(String key, boolean value) {
+        return kv(key, (Object) value);
+    }
+
     /**
      * Log the event.
      */
@@ -0,0 +1,166 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.examples;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.config.LogConfig;
+import com.aws.greengrass.logging.impl.config.PersistenceConfig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the throughput of several processes logging to the same file, and checks what they wrote: every event
+ * should be found exactly once across the active and rolled files, on a line of its own, and rolled files should be
+ * about the max file size, rather than rolled early by a process unaware of what the others wrote. It runs
+ * {@value #WRITERS} writer processes, first with the file not shared, as several processes pointing at the same
+ * directory do by default, then in shared mode, e.g. {@code java SharedFileBenchmark [events per writer] [directory]}.
+ * Files are small so that they roll many times during a run.
+ */
+public final class SharedFileBenchmark {
+    private static final int WRITERS = 4;
+    private static final int DEFAULT_EVENTS = 200_000;
+    private static final int FILE_SIZE_KB = 1024;
+    private static final String WRITER_ARG = "writer";
+    private static final String PADDING = "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx";
+    private static final Pattern EVENT = Pattern.compile(" bench (\\d+) (\\d+) (x*)");
+
+    private SharedFileBenchmark() {
+    }
+
+    /**
+     * Run the benchmark, or one writer process of it.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && WRITER_ARG.equals(args[0])) {
+            write(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EVENTS;
+        Path root = args.length > 1 ? new File(args[1]).toPath() : Files.createTempDirectory("shared-file-benchmark");
+        System.out.printf("%d writers, %d events each, %d KB files, in %s%n", WRITERS, events, FILE_SIZE_KB, root);
+        for (boolean shared : new boolean[]{false, true}) {
+            Path directory = root.resolve(shared ? "shared" : "unshared");
+            long nanos = run(directory, shared, events);
+            check(directory, shared, events, nanos);
+        }
+    }
+
+    /**
+     * Start the writer processes, let them all write once they are ready, and return the time until the last one
+     * finished.
+     */
+    private static long run(Path directory, boolean shared, int events) throws IOException, InterruptedException {
+        String ext = LogConfig.LOG_FILE_EXTENSION;
+        List<Process> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                    "-cp", System.getProperty("java.class.path"),
+                    "-D" + ext + PersistenceConfig.STORAGE_TYPE_SUFFIX + "=FILE",
+                    "-D" + ext + PersistenceConfig.DIRECTORY_PATH_SUFFIX + "=" + directory,
+                    "-D" + ext + PersistenceConfig.TOTAL_FILE_SIZE_SUFFIX + "=" + FILE_SIZE_KB,
+                    "-D" + ext + PersistenceConfig.TOTAL_STORE_SIZE_SUFFIX + "=" + Integer.MAX_VALUE,
+                    "-D" + ext + PersistenceConfig.SHARED_FILE_SUFFIX + "=" + shared,
+                    SharedFileBenchmark.class.getName(), WRITER_ARG, String.valueOf(i), String.valueOf(events))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        List<BufferedReader> outputs = new ArrayList<>();
+        for (Process writer : writers) {
+            BufferedReader output = new BufferedReader(
+                    new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8));
+            // Ready once logging is set up
+            output.readLine();
+            outputs.add(output);
+        }
+        long start = System.nanoTime();
+        for (Process writer : writers) {
+            OutputStream input = writer.getOutputStream();
+            input.write('\n');
+            input.flush();
+        }
+        for (int i = 0; i < WRITERS; i++) {
+            outputs.get(i).readLine();
+            writers.get(i).waitFor();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void write(int writer, int events) throws IOException {
+        Logger logger = LogManager.getLogger(SharedFileBenchmark.class);
+        logger.atInfo().log("warm up");
+        System.out.println("ready");
+        System.out.flush();
+        if (System.in.read() < 0) {
+            return;
+        }
+        for (int i = 0; i < events; i++) {
+            logger.atInfo().log("bench {} {} {}", writer, i, PADDING);
+        }
+        System.out.println("done");
+        System.out.flush();
+    }
+
+    /**
+     * Read back every file of the store, counting the events found whole, missing, or found more than once, and the
+     * lines which are not a whole event.
+     */
+    private static void check(Path directory, boolean shared, int events, long nanos) throws IOException {
+        BitSet[] found = new BitSet[WRITERS];
+        for (int i = 0; i < WRITERS; i++) {
+            found[i] = new BitSet(events);
+        }
+        long duplicated = 0;
+        long torn = 0;
+        int files = 0;
+        int rolledEarly = 0;
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "*." + LogConfig.LOG_FILE_EXTENSION)) {
+            for (Path log : logs) {
+                files++;
+                if (String.valueOf(log.getFileName()).contains("_")
+                        && Files.size(log) < FILE_SIZE_KB * 1024L / 2) {
+                    rolledEarly++;
+                }
+                for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+                    Matcher matcher = EVENT.matcher(line);
+                    if (!matcher.find()) {
+                        torn += line.contains("warm up") ? 0 : 1;
+                        continue;
+                    }
+                    int writer = Integer.parseInt(matcher.group(1));
+                    int seq = Integer.parseInt(matcher.group(2));
+                    if (matcher.group(3).length() != PADDING.length() || matcher.find()) {
+                        torn++;
+                    } else if (found[writer].get(seq)) {
+                        duplicated++;
+                    } else {
+                        found[writer].set(seq);
+                    }
+                }
+            }
+        }
+        long whole = 0;
+        for (BitSet writer : found) {
+            whole += writer.cardinality();
+        }
+        long total = (long) WRITERS * events;
+        System.out.printf("%-8s %6.0f ms %8.0f events/s %4d files %4d rolled early %6d missing %6d duplicated "
+                        + "%6d torn lines%n", shared ? "shared" : "unshared", nanos / 1e6, total / (nanos / 1e9), files,
+                rolledEarly, total - whole, duplicated, torn);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.examples;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures what logging costs a process at boot: the time and the bytes allocated by the main thread until a logger
+ * exists, until its first event is written and until the first metric is written. Every phase only happens once per
+ * JVM, so run it in a fresh JVM each time, with the store and format to measure set as system properties, e.g.
+ * {@code java -Dlog.store=FILE -Dlog.fmt=JSON StartupBenchmark}.
+ */
+public final class StartupBenchmark {
+    private static long startNanos;
+    private static long startBytes;
+
+    private StartupBenchmark() {
+    }
+
+    /**
+     * Run the benchmark, printing the cumulative time and allocation after each phase.
+     */
+    public static void main(String[] args) {
+        startNanos = System.nanoTime();
+        startBytes = allocatedBytes();
+
+        Logger logger = LogManager.getLogger(StartupBenchmark.class);
+        report("getLogger");
+
+        logger.atInfo().kv("phase", "first").log("First log event");
+        report("first log event");
+
+        logger.atInfo().kv("phase", "second").log("Second log event");
+        report("second log event");
+
+        try (MetricFactory factory = new MetricFactory("StartupBenchmark")) {
+            factory.putMetricData(new Metric("Startup", "FirstMetric", TelemetryUnit.Count,
+                    TelemetryAggregation.Sum), 1);
+            report("first metric");
+        }
+    }
+
+    private static void report(String phase) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocatedBytes() - startBytes;
+        System.out.printf("%-20s %8.2f ms %10d KB allocated%n", phase, nanos / 1e6, bytes / 1024);
+    }
+
+    /**
+     * Get the bytes allocated by the current thread so far, or 0 if the JVM can't tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Contexts of a log event, keeping long, double and boolean values as primitives so that adding them boxes nothing.
+ *
+ * <p>Keys and values are held in arrays and looked up by a linear scan, as an event has few contexts. As a {@link Map}
+ * of strings, values are converted to text only when read, the way {@link String#valueOf} does. JSON writes
+ * primitives as native numbers and booleans, and the TEXT layout appends them without converting them first, see
+ * {@link #appendTo(StringBuilder)}.
+ *
+ * <p>Contexts are read in the order a {@link java.util.HashMap} of them iterates, which is the order they have always
+ * been written in: by hash bucket, then in insertion order for keys in the same bucket. Reading sorts into an array
+ * of its own, so that once logged, the map can be read from several threads at once, as the HashMap could.
+ */
+public final class ContextMap extends AbstractMap<String, String> {
+    private static final byte STRING = 0;
+    private static final byte OBJECT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    // Initial capacity and load factor of a HashMap
+    private static final int HASH_CAPACITY = 16;
+    private static final float HASH_LOAD_FACTOR = 0.75f;
+
+    private String[] keys;
+    private byte[] types;
+    // String or Object values
+    private Object[] objects;
+    // Long, double bits or boolean as 0 or 1
+    private long[] primitives;
+    private int size;
+
+    /**
+     * Create an empty map.
+     *
+     * @param capacity number of contexts to make room for
+     */
+    public ContextMap(int capacity) {
+        super();
+        int length = Math.max(capacity, 1);
+        keys = new String[length];
+        types = new byte[length];
+        objects = new Object[length];
+        primitives = new long[length];
+    }
+
+    /**
+     * Create a copy of a map.
+     *
+     * @param other map to copy
+     */
+    public ContextMap(ContextMap other) {
+        super();
+        keys = Arrays.copyOf(other.keys, other.keys.length);
+        types = Arrays.copyOf(other.types, other.types.length);
+        objects = Arrays.copyOf(other.objects, other.objects.length);
+        primitives = Arrays.copyOf(other.primitives, other.primitives.length);
+        size = other.size;
+    }
+
+    /**
+     * Add a value to convert to a string by {@link #resolve(Function)}.
+     */
+    void putObject(String key, Object value) {
+        int i = slot(key);
+        types[i] = OBJECT;
+        objects[i] = value;
+    }
+
+    /**
+     * Convert the values added by {@link #putObject(String, Object)} to strings.
+     */
+    void resolve(Function<Object, String> toString) {
+        for (int i = 0; i < size; i++) {
+            if (types[i] == OBJECT) {
+                types[i] = STRING;
+                objects[i] = toString.apply(objects[i]);
+            }
+        }
+    }
+
+    /**
+     * Add a long value.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void putLong(String key, long value) {
+        int i = slot(key);
+        types[i] = LONG;
+        objects[i] = null;
+        primitives[i] = value;
+    }
+
+    /**
+     * Add a double value.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void putDouble(String key, double value) {
+        int i = slot(key);
+        types[i] = DOUBLE;
+        objects[i] = null;
+        primitives[i] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Add a boolean value.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void putBoolean(String key, boolean value) {
+        int i = slot(key);
+        types[i] = BOOLEAN;
+        objects[i] = null;
+        primitives[i] = value ? 1 : 0;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        int existing = indexOf(key);
+        String previous = existing < 0 ? null : valueAt(existing);
+        int i = existing < 0 ? slot(key) : existing;
+        types[i] = STRING;
+        objects[i] = value;
+        return previous;
+    }
+
+    @Override
+    public String get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : valueAt(i);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private final int[] indexes = order();
+                    private int next;
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < indexes.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= indexes.length) {
+                            throw new NoSuchElementException();
+                        }
+                        last = indexes[next++];
+                        return new SimpleImmutableEntry<>(keys[last], valueAt(last));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        removeAt(last);
+                        // The entries after the removed one moved down
+                        for (int n = next; n < indexes.length; n++) {
+                            if (indexes[n] > last) {
+                                indexes[n]--;
+                            }
+                        }
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Append the contexts as {@link AbstractMap#toString()} would, without converting primitives to strings first.
+     *
+     * @param out buffer to append to
+     */
+    public void appendTo(StringBuilder out) {
+        int[] indexes = order();
+        out.append('{');
+        for (int n = 0; n < size; n++) {
+            if (n > 0) {
+                out.append(", ");
+            }
+            int i = indexes[n];
+            out.append(keys[i]).append('=');
+            switch (types[i]) {
+                case LONG:
+                    out.append(primitives[i]);
+                    break;
+                case DOUBLE:
+                    out.append(Double.longBitsToDouble(primitives[i]));
+                    break;
+                case BOOLEAN:
+                    out.append(primitives[i] != 0);
+                    break;
+                default:
+                    out.append(objects[i]);
+            }
+        }
+        out.append('}');
+    }
+
+    /**
+     * Write the contexts as a JSON object, primitives as native numbers and booleans.
+     */
+    void writeTo(JsonGenerator generator) throws IOException {
+        int[] indexes = order();
+        generator.writeStartObject();
+        for (int n = 0; n < size; n++) {
+            int i = indexes[n];
+            generator.writeFieldName(keys[i]);
+            switch (types[i]) {
+                case LONG:
+                    generator.writeNumber(primitives[i]);
+                    break;
+                case DOUBLE:
+                    generator.writeNumber(Double.longBitsToDouble(primitives[i]));
+                    break;
+                case BOOLEAN:
+                    generator.writeBoolean(primitives[i] != 0);
+                    break;
+                default:
+                    generator.writeString(valueAt(i));
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private String valueAt(int i) {
+        switch (types[i]) {
+            case LONG:
+                return Long.toString(primitives[i]);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(primitives[i]));
+            case BOOLEAN:
+                return Boolean.toString(primitives[i] != 0);
+            default:
+                return objects[i] == null ? null : objects[i].toString();
+        }
+    }
+
+    /**
+     * Get the indexes of the contexts in the order a HashMap of them iterates, sorting them by bucket, for the
+     * capacity the HashMap would have grown to, and keeping insertion order within a bucket.
+     */
+    private int[] order() {
+        int[] order = new int[size];
+        int capacity = HASH_CAPACITY;
+        while (size > capacity * HASH_LOAD_FACTOR) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < size; i++) {
+            int bucket = bucket(keys[i], capacity);
+            int j = i;
+            while (j > 0 && bucket(keys[order[j - 1]], capacity) > bucket) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    private static int bucket(String key, int capacity) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the index of the key, adding it if missing.
+     */
+    private int slot(String key) {
+        int i = indexOf(key);
+        if (i >= 0) {
+            return i;
+        }
+        if (size == keys.length) {
+            int length = size * 2;
+            keys = Arrays.copyOf(keys, length);
+            types = Arrays.copyOf(types, length);
+            objects = Arrays.copyOf(objects, length);
+            primitives = Arrays.copyOf(primitives, length);
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    private void removeAt(int i) {
+        int moved = size - i - 1;
+        System.arraycopy(keys, i + 1, keys, i, moved);
+        System.arraycopy(types, i + 1, types, i, moved);
+        System.arraycopy(objects, i + 1, objects, i, moved);
+        System.arraycopy(primitives, i + 1, primitives, i, moved);
+        size--;
+        keys[size] = null;
+        objects[size] = null;
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import org.slf4j.event.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer of the most recent log events at every level, kept in a memory-mapped file so that it survives the
+ * process crashing.
+ *
+ * <p>The recorder is enabled by setting the {@value #EVENTS_KEY} system property to the number of events to keep.
+ * It then records every event, including those below the level of its logger, so that the TRACE and DEBUG events
+ * leading up to a failure can be looked at afterwards. {@link LogManager} writes the recorded events to the root log
+ * store on {@link LogManager#dumpFlightRecorder()}, on the first event after a restart for the events recorded by the
+ * previous process, and when an ERROR is logged. Dumps for errors are written by a background thread, so the
+ * recorded events end up after the error in the log, and are at most one per {@value #ERROR_DUMP_INTERVAL_KEY}
+ * milliseconds; events not written by a skipped dump are left for the next one, unless overwritten in the meantime.
+ *
+ * <p>Each event takes a fixed slot of {@value #EVENT_BYTES_KEY} bytes, so recording is a sequence increment and a
+ * few writes into the mapped file. Strings are truncated to fit the slot, and the cause of an event is only kept as
+ * its {@link Throwable#toString()}, in the {@value #CAUSE_KEY} context. Events below the level of their logger are
+ * written straight into their slot, see {@link RecordingEventBuilder}. The slot starts with its sequence number,
+ * which is cleared while the slot is written. Events survive a crash of the process since the operating system owns
+ * the mapped pages; on power loss, only what it had written back to the device is kept.
+ */
+public final class FlightRecorder implements Closeable {
+    public static final String EVENTS_KEY = "log.flightRecorder.events";
+    public static final String EVENT_BYTES_KEY = "log.flightRecorder.eventBytes";
+    public static final String ERROR_DUMP_INTERVAL_KEY = "log.flightRecorder.errorDumpIntervalMs";
+    public static final boolean ENABLED = Integer.getInteger(EVENTS_KEY, 0) > 0;
+    public static final String CAUSE_KEY = "cause";
+    static final int DEFAULT_EVENT_BYTES = 512;
+    static final long DEFAULT_ERROR_DUMP_INTERVAL_MILLIS = 10_000;
+    private static final int MIN_EVENT_BYTES = 64;
+    private static final int MAGIC = 0x47474652;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // Slot layout: sequence + 1 (0 while empty or being written), timestamp, level, then length-prefixed fields
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int LEVEL_OFFSET = 16;
+    private static final int FIELDS_OFFSET = 17;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final Level[] LEVELS = Level.values();
+
+    private final MappedByteBuffer buffer;
+    private final int events;
+    private final int eventBytes;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<GreengrassLogMessage> recovered;
+    private long drained;
+    private volatile boolean closed;
+    // Time of the last dump claimed for an error, none yet while unset
+    private final AtomicLong lastErrorDump = new AtomicLong();
+    private volatile boolean errorDumped;
+
+    private FlightRecorder(MappedByteBuffer buffer, int events, int eventBytes, List<GreengrassLogMessage> recovered) {
+        this.buffer = buffer;
+        this.events = events;
+        this.eventBytes = eventBytes;
+        this.recovered = recovered;
+    }
+
+    /**
+     * Map the recorder file, creating it if needed. Events recorded in it by a previous process with the same layout
+     * are read into {@link #getRecovered()} before the file is cleared.
+     *
+     * @param file       recorder file
+     * @param events     number of events to keep
+     * @param eventBytes bytes per event
+     * @return the recorder
+     * @throws IOException              if the file cannot be mapped
+     * @throws IllegalArgumentException if events is not positive or eventBytes is too small
+     */
+    public static FlightRecorder open(Path file, int events, int eventBytes) throws IOException {
+        if (events <= 0 || eventBytes < MIN_EVENT_BYTES) {
+            throw new IllegalArgumentException(
+                    "Flight recorder needs a positive number of events of at least " + MIN_EVENT_BYTES + " bytes");
+        }
+        long size = HEADER_BYTES + (long) events * eventBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Flight recorder cannot be larger than 2 GB");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        MappedByteBuffer buffer;
+        boolean sameLayout;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            sameLayout = channel.size() == size;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        sameLayout = sameLayout && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                && buffer.getInt(8) == events && buffer.getInt(12) == eventBytes;
+        List<GreengrassLogMessage> recovered = Collections.emptyList();
+        if (sameLayout) {
+            FlightRecorder previous = new FlightRecorder(buffer, events, eventBytes, recovered);
+            recovered = previous.read(0, Long.MAX_VALUE);
+        }
+        for (int slot = 0; slot < events; slot++) {
+            buffer.putLong(HEADER_BYTES + slot * eventBytes, 0);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, events);
+        buffer.putInt(12, eventBytes);
+        return new FlightRecorder(buffer, events, eventBytes, recovered);
+    }
+
+    /**
+     * Get the events the file held when it was opened, oldest first.
+     *
+     * @return recovered events
+     */
+    public List<GreengrassLogMessage> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Record an event, overwriting the oldest one once the ring is full.
+     *
+     * @param message the event
+     */
+    public void record(GreengrassLogMessage message) {
+        record(message.getTimestamp(), Level.valueOf(message.getLevel()), message.getLoggerName(),
+                message.getThread(), message.getEventType(), message.getMessage(), message.getCause(),
+                message.getContexts());
+    }
+
+    /**
+     * Record an event from its fields, without a {@link GreengrassLogMessage} holding them.
+     */
+    void record(long timestamp, Level level, String loggerName, String thread, String eventType, String message,
+                Throwable cause, Map<String, String> contexts) {
+        if (closed) {
+            return;
+        }
+        long seq = sequence.getAndIncrement();
+        int base = HEADER_BYTES + (int) (seq % events) * eventBytes;
+        final int end = base + eventBytes;
+        buffer.putLong(base, 0);
+        buffer.putLong(base + TIMESTAMP_OFFSET, timestamp);
+        buffer.put(base + LEVEL_OFFSET, (byte) level.ordinal());
+        int pos = base + FIELDS_OFFSET;
+        pos = putString(pos, end, loggerName);
+        pos = putString(pos, end, thread);
+        pos = putString(pos, end, eventType);
+        pos = putString(pos, end, message);
+        if (pos + 2 <= end) {
+            final int countPos = pos;
+            int count = 0;
+            pos += 2;
+            if (cause != null) {
+                pos = putString(pos, end, CAUSE_KEY);
+                pos = putString(pos, end, cause.toString());
+                count++;
+            }
+            if (contexts != null) {
+                for (Map.Entry<String, String> entry : contexts.entrySet()) {
+                    if (pos + 4 > end) {
+                        break;
+                    }
+                    pos = putString(pos, end, entry.getKey());
+                    pos = putString(pos, end, entry.getValue());
+                    count++;
+                }
+            }
+            buffer.putShort(countPos, (short) count);
+        }
+        buffer.putLong(base, seq + 1);
+    }
+
+    /**
+     * Get the events recorded since the previous call, oldest first. Events overwritten in the meantime are lost.
+     *
+     * @return recorded events
+     */
+    public List<GreengrassLogMessage> drain() {
+        return drain(sequence.get());
+    }
+
+    /**
+     * Get the events recorded since the previous call and before the given position, oldest first.
+     *
+     * @param position position up to which to drain, see {@link #claimErrorDump(long, long)}
+     * @return recorded events
+     */
+    synchronized List<GreengrassLogMessage> drain(long position) {
+        if (position <= drained) {
+            return Collections.emptyList();
+        }
+        List<GreengrassLogMessage> drainedEvents = read(drained, position);
+        drained = position;
+        return drainedEvents;
+    }
+
+    /**
+     * Claim a dump for an error, unless one was claimed less than the given interval ago.
+     *
+     * @param nowNanos      current {@link System#nanoTime()}
+     * @param intervalNanos minimum time between dumps for errors
+     * @return the position of the next event, to drain the events recorded so far with {@link #drain(long)}, or -1 if
+     *     the dump is skipped
+     */
+    long claimErrorDump(long nowNanos, long intervalNanos) {
+        long last = lastErrorDump.get();
+        if (errorDumped && nowNanos - last < intervalNanos || !lastErrorDump.compareAndSet(last, nowNanos)) {
+            return -1;
+        }
+        errorDumped = true;
+        return sequence.get();
+    }
+
+    /**
+     * Stop recording. The file keeps the recorded events for the next process.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        buffer.force();
+    }
+
+    /**
+     * Read the events with sequence numbers in the given range which are still in the ring.
+     */
+    private List<GreengrassLogMessage> read(long from, long to) {
+        List<long[]> slots = new ArrayList<>();
+        for (int slot = 0; slot < events; slot++) {
+            long seq = buffer.getLong(HEADER_BYTES + slot * eventBytes) - 1;
+            if (seq >= from && seq < to) {
+                slots.add(new long[]{seq, slot});
+            }
+        }
+        slots.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<GreengrassLogMessage> messages = new ArrayList<>(slots.size());
+        for (long[] slot : slots) {
+            int base = HEADER_BYTES + (int) slot[1] * eventBytes;
+            GreengrassLogMessage message = readSlot(base, base + eventBytes);
+            // Skip the slot if a writer has been reusing it while it was read
+            if (message != null && buffer.getLong(base) - 1 == slot[0]) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    private GreengrassLogMessage readSlot(int base, int end) {
+        int level = buffer.get(base + LEVEL_OFFSET);
+        if (level < 0 || level >= LEVELS.length) {
+            return null;
+        }
+        GreengrassLogMessage message = new GreengrassLogMessage();
+        message.setTimestamp(buffer.getLong(base + TIMESTAMP_OFFSET));
+        message.setLevel(LEVELS[level].toString());
+        int[] pos = {base + FIELDS_OFFSET};
+        message.setLoggerName(getString(pos, end));
+        message.setThread(getString(pos, end));
+        message.setEventType(getString(pos, end));
+        message.setMessage(getString(pos, end));
+        Map<String, String> contexts = new HashMap<>();
+        if (pos[0] + 2 <= end) {
+            int count = buffer.getShort(pos[0]) & 0xFFFF;
+            pos[0] += 2;
+            for (int i = 0; i < count && pos[0] + 4 <= end; i++) {
+                contexts.put(getString(pos, end), getString(pos, end));
+            }
+        }
+        message.setContexts(contexts);
+        return message;
+    }
+
+    /**
+     * Write a string as its UTF-8 length and bytes, truncated to the space left in the slot.
+     *
+     * @return position after the string
+     */
+    private int putString(int pos, int end, String value) {
+        if (pos + 2 > end) {
+            return pos;
+        }
+        if (value == null) {
+            buffer.putShort(pos, (short) NULL_LENGTH);
+            return pos + 2;
+        }
+        int start = pos + 2;
+        int limit = Math.min(end, start + NULL_LENGTH - 1);
+        int out = start;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (out + 1 > limit) {
+                    break;
+                }
+                buffer.put(out++, (byte) c);
+            } else if (c < 0x800) {
+                if (out + 2 > limit) {
+                    break;
+                }
+                buffer.put(out++, (byte) (0xC0 | c >> 6));
+                buffer.put(out++, (byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                if (out + 4 > limit) {
+                    break;
+                }
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put(out++, (byte) (0xF0 | cp >> 18));
+                buffer.put(out++, (byte) (0x80 | cp >> 12 & 0x3F));
+                buffer.put(out++, (byte) (0x80 | cp >> 6 & 0x3F));
+                buffer.put(out++, (byte) (0x80 | cp & 0x3F));
+            } else {
+                if (out + 3 > limit) {
+                    break;
+                }
+                buffer.put(out++, (byte) (0xE0 | c >> 12));
+                buffer.put(out++, (byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put(out++, (byte) (0x80 | c & 0x3F));
+            }
+        }
+        buffer.putShort(pos, (short) (out - start));
+        return out;
+    }
+
+    private String getString(int[] pos, int end) {
+        if (pos[0] + 2 > end) {
+            return null;
+        }
+        int length = buffer.getShort(pos[0]) & 0xFFFF;
+        pos[0] += 2;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        length = Math.min(length, end - pos[0]);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(pos[0] + i);
+        }
+        pos[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -5,6 +5,7 @@
 
 package com.aws.greengrass.logging.impl;
 
+import com.aws.greengrass.logging.impl.config.TextLayout;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -20,14 +21,8 @@ import lombok.NoArgsConstructor;
 import org.slf4j.event.Level;
 
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Data
 @NoArgsConstructor
@@ -42,15 +37,6 @@ public class GreengrassLogMessage {
     @EqualsAndHashCode.Exclude
     private Throwable cause;
 
-    @JsonIgnore
-    private static final ObjectMapper OBJECT_MAPPER =
-            new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
-                    .registerModule(new SimpleModule().addSerializer(new CustomThrowableSerializer(Throwable.class)));
-    @JsonIgnore
-    // Use ThreadLocal because SDFs are not threadsafe
-    private static final ThreadLocal<DateTimeFormatter> sdf = ThreadLocal.withInitial(
-            () -> DateTimeFormatter.ISO_INSTANT);
-
     /**
      * Constructor for structured log message.
      *
@@ -74,43 +60,13 @@ public class GreengrassLogMessage {
     }
 
     /**
-     * Get basic formatted message containing only the message and context.
+     * Get fully formatted message including all fields, laid out by {@link TextLayout#DEFAULT}.
      *
      * @return String
      */
     @JsonIgnore
-    private String getFormattedMessage() {
-        return Stream.of(eventType, message, contexts).filter(Objects::nonNull).map(Object::toString)
-                .filter((x) -> !x.isEmpty()).collect(Collectors.joining(". "));
-    }
-
-    /**
-     * Get fully formatted message including all fields.
-     *
-     * @return String
-     */
-    @JsonIgnore
-    @SuppressWarnings("checkstyle:emptycatchblock")
     public String getTextMessage() {
-        StringBuilder msg = new StringBuilder(sdf.get().format(Instant.ofEpochMilli(timestamp)));
-        // Equivalent to String.format("%s [%s] (%s) %s: %s", SDF, level, thread, loggerName, formattedMessage)
-        msg.append(" [").append(level).append("] (")
-                .append(thread).append(") ")
-                .append(loggerName).append(": ")
-                .append(getFormattedMessage());
-
-        if (cause == null) {
-            return msg.toString();
-        }
-
-        try (StringWriter sw = new StringWriter(); PrintWriter pw = new PrintWriter(sw)) {
-            cause.printStackTrace(pw);
-            msg.append(System.lineSeparator()).append(sw.toString());
-            return msg.toString();
-        } catch (IOException ignore) {
-            // Not possible
-        }
-        return msg.toString();
+        return TextLayout.DEFAULT.format(this);
     }
 
     /**
@@ -121,12 +77,22 @@ public class GreengrassLogMessage {
     @JsonIgnore
     public String getJSONMessage() {
         try {
-            return OBJECT_MAPPER.writeValueAsString(this);
+            return MapperHolder.OBJECT_MAPPER.writeValueAsString(this);
         } catch (JsonProcessingException e) {
             return "{\"error\": \"" + new String(JsonStringEncoder.getInstance().quoteAsString(e.getMessage())) + "\"}";
         }
     }
 
+    /**
+     * Holds the mapper so that it is only built when the first message is serialized as JSON.
+     */
+    private static final class MapperHolder {
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .registerModule(new SimpleModule().addSerializer(new CustomThrowableSerializer(Throwable.class))
+                        .addSerializer(new ContextMapSerializer()));
+    }
+
     private static class CustomThrowableSerializer extends StdSerializer<Throwable> {
         private static final long serialVersionUID = 1L;  // required by spotbugs
 
@@ -145,4 +111,21 @@ public class GreengrassLogMessage {
             jsonGenerator.writeEndObject();
         }
     }
+
+    /**
+     * Writes long, double and boolean contexts as native JSON values rather than strings.
+     */
+    private static class ContextMapSerializer extends StdSerializer<ContextMap> {
+        private static final long serialVersionUID = 1L;  // required by spotbugs
+
+        protected ContextMapSerializer() {
+            super(ContextMap.class);
+        }
+
+        @Override
+        public void serialize(ContextMap contexts, JsonGenerator jsonGenerator, SerializerProvider serializerProvider)
+                throws IOException {
+            contexts.writeTo(jsonGenerator);
+        }
+    }
 }
@@ -10,10 +10,8 @@ import org.slf4j.event.Level;
 import org.slf4j.helpers.MessageFormatter;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -23,7 +21,9 @@ public class LogEventBuilderImpl implements LogEventBuilder {
     private final Level level;
     private Throwable cause;
     private String eventType;
-    private final Map<String, Object> eventContextData = new ConcurrentHashMap<>();
+    private ContextMap eventContextData;
+    // Set once the contexts are in a logged message, so that later ones are added to a copy
+    private boolean contextsLogged;
     private final transient Slf4jLogAdapter logger;
 
     /**
@@ -36,7 +36,9 @@ public class LogEventBuilderImpl implements LogEventBuilder {
     public LogEventBuilderImpl(Slf4jLogAdapter logger, Level level, Map<String, Object> loggerContextData) {
         this.logger = logger;
         this.level = level;
-        eventContextData.putAll(loggerContextData);
+        // Room for a few more contexts added to the event
+        this.eventContextData = new ContextMap(loggerContextData.size() + 4);
+        loggerContextData.forEach(eventContextData::putObject);
     }
 
     @Override
@@ -66,9 +68,33 @@ public class LogEventBuilderImpl implements LogEventBuilder {
         return addKeyValue(key, value);
     }
 
+    @Override
+    public LogEventBuilder kv(String key, long value) {
+        contexts().putLong(key, value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, char value) {
+        contexts().put(key, String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, double value) {
+        contexts().putDouble(key, value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, boolean value) {
+        contexts().putBoolean(key, value);
+        return this;
+    }
+
     @Override
     public LogEventBuilder addKeyValue(String key, Object value) {
-        this.eventContextData.put(key, value == null ? "null" : value);
+        contexts().putObject(key, value == null ? "null" : value);
         return this;
     }
 
@@ -79,13 +105,13 @@ public class LogEventBuilderImpl implements LogEventBuilder {
 
     @Override
     public void log(Object arg) {
-        // Convert context to string, then log it out
-        Map<String, String> contextMap = new HashMap<>();
-        eventContextData.forEach((k, v) -> contextMap.put(k, convertToString(v)));
+        // Convert object contexts to string, keeping primitives as they are, then log it out
+        eventContextData.resolve(LogEventBuilderImpl::convertToString);
 
         GreengrassLogMessage message =
-                new GreengrassLogMessage(logger.getName(), level, eventType, convertToString(arg), contextMap,
+                new GreengrassLogMessage(logger.getName(), level, eventType, convertToString(arg), eventContextData,
                         cause);
+        contextsLogged = true;
         logger.logMessage(message);
     }
 
@@ -99,7 +125,18 @@ public class LogEventBuilderImpl implements LogEventBuilder {
         log(MessageFormatter.arrayFormat(fmt, args, null).getMessage());
     }
 
-    private static String convertToString(Object o) {
+    private ContextMap contexts() {
+        if (contextsLogged) {
+            eventContextData = new ContextMap(eventContextData);
+            contextsLogged = false;
+        }
+        return eventContextData;
+    }
+
+    /**
+     * Convert a message or context value to a string, calling it first if it is a {@link Supplier}.
+     */
+    static String convertToString(Object o) {
         // If it is a function which we can call to get a result, then call it and use the output of the function
         if (o instanceof Supplier) {
             return convertToString(((Supplier) o).get());
@@ -5,9 +5,12 @@
 
 package com.aws.greengrass.logging.impl;
 
+import com.aws.greengrass.logging.impl.config.DiskQuota;
 import com.aws.greengrass.logging.impl.config.LogConfig;
+import com.aws.greengrass.logging.impl.config.LogConfigFileWatcher;
 import com.aws.greengrass.logging.impl.config.LogFormat;
 import com.aws.greengrass.logging.impl.config.LogStore;
+import com.aws.greengrass.logging.impl.config.LoggerLevelRules;
 import com.aws.greengrass.logging.impl.config.PersistenceConfig;
 import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
 import com.aws.greengrass.telemetry.impl.config.TelemetryConfig;
@@ -15,12 +18,18 @@ import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.event.Level;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.aws.greengrass.logging.impl.config.LogConfig.LOGS_DIRECTORY;
 import static com.aws.greengrass.logging.impl.config.LogConfig.LOG_FILE_EXTENSION;
@@ -41,7 +50,114 @@ public class LogManager {
     @Getter
     private static final Map<String, LogConfig> logConfigurations = new ConcurrentHashMap<>();
     @Getter
-    private static final TelemetryConfig telemetryConfig = TelemetryConfig.getInstance();
+    private static final DiskQuota diskQuota = DiskQuota.getInstance();
+    @Getter
+    private static volatile LoggerLevelRules levelRules = LoggerLevelRules.fromSystemProperties();
+    // The rules set through the API or the system property, and the rules of the watched file applied over them
+    private static final Object levelRulesLock = new Object();
+    private static LoggerLevelRules baseLevelRules = levelRules;
+    private static LoggerLevelRules configFileLevelRules = LoggerLevelRules.EMPTY;
+    private static LogConfigFileWatcher configFileWatcher;
+    private static volatile FlightRecorder flightRecorder;
+    private static final long ERROR_DUMP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(
+            FlightRecorder.ERROR_DUMP_INTERVAL_KEY, FlightRecorder.DEFAULT_ERROR_DUMP_INTERVAL_MILLIS));
+    private static boolean flightRecorderOpened;
+
+    static {
+        String configFile = System.getProperty(LogConfigFileWatcher.CONFIG_FILE_KEY);
+        if (configFile != null && !configFile.trim().isEmpty()) {
+            try {
+                watchConfigFile(Paths.get(PersistenceConfig.deTilde(configFile.trim())));
+            } catch (IOException e) {
+                getLogger(LogManager.class).atError().kv("file", configFile).setCause(e)
+                        .log("Unable to watch logging configuration file");
+            }
+        }
+    }
+
+    /**
+     * Get the telemetry configuration, which is created on first use rather than with the logging configuration.
+     *
+     * @return the telemetry configuration
+     */
+    public static TelemetryConfig getTelemetryConfig() {
+        return TelemetryConfig.getInstance();
+    }
+
+    /**
+     * Get the flight recorder, mapping its file in the root log store directory on first use. Events the previous
+     * process recorded are written to the root log store at that point.
+     *
+     * @return the recorder, or null if it isn't enabled or its file cannot be mapped
+     */
+    static FlightRecorder getFlightRecorder() {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder != null || !FlightRecorder.ENABLED) {
+            return recorder;
+        }
+        synchronized (LogManager.class) {
+            if (flightRecorderOpened) {
+                return flightRecorder;
+            }
+            flightRecorderOpened = true;
+            Path file = rootLogConfiguration.getStoreDirectory()
+                    .resolve(rootLogConfiguration.getFileName() + ".flight");
+            try {
+                recorder = FlightRecorder.open(file, Integer.getInteger(FlightRecorder.EVENTS_KEY),
+                        Integer.getInteger(FlightRecorder.EVENT_BYTES_KEY, FlightRecorder.DEFAULT_EVENT_BYTES));
+            } catch (IOException | IllegalArgumentException e) {
+                getLogger(FlightRecorder.class).atWarn().kv("file", file).setCause(e)
+                        .log("Unable to start the flight recorder");
+                return null;
+            }
+            flightRecorder = recorder;
+        }
+        writeRecordedEvents(recorder.getRecovered(), "previous run");
+        return recorder;
+    }
+
+    /**
+     * Write the events recorded since the previous dump to the root log store, at their recorded level regardless of
+     * the configured level. Does nothing unless the flight recorder is enabled.
+     */
+    public static void dumpFlightRecorder() {
+        dumpFlightRecorder("requested");
+    }
+
+    static void dumpFlightRecorder(String reason) {
+        FlightRecorder recorder = getFlightRecorder();
+        if (recorder != null) {
+            writeRecordedEvents(recorder.drain(), reason);
+        }
+    }
+
+    /**
+     * Write the events recorded so far to the root log store from a background thread, as an ERROR is being logged,
+     * unless that was done less than {@value FlightRecorder#ERROR_DUMP_INTERVAL_KEY} milliseconds ago.
+     */
+    static void dumpFlightRecorderForError() {
+        FlightRecorder recorder = getFlightRecorder();
+        if (recorder == null) {
+            return;
+        }
+        long position = recorder.claimErrorDump(System.nanoTime(), ERROR_DUMP_INTERVAL_NANOS);
+        if (position >= 0) {
+            FlightRecorderDumper.EXECUTOR.execute(() -> writeRecordedEvents(recorder.drain(position), "error"));
+        }
+    }
+
+    private static void writeRecordedEvents(List<GreengrassLogMessage> events, String reason) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Slf4jLogAdapter out = (Slf4jLogAdapter) getLogger(FlightRecorder.class);
+        Map<String, String> context = new HashMap<>();
+        context.put("reason", reason);
+        context.put("events", Integer.toString(events.size()));
+        out.logRecorded(new GreengrassLogMessage(out.getName(), Level.WARN, "flight-recorder-dump",
+                "Writing recorded events", context, null));
+        events.forEach(out::logRecorded);
+    }
 
     /**
      * Return an appropriate {@link com.aws.greengrass.logging.api.Logger} instance as specified by the name parameter.
@@ -91,6 +207,7 @@ public class LogManager {
      */
     public static com.aws.greengrass.logging.api.Logger getTelemetryLogger(String name) {
         return telemetryLoggerMap.computeIfAbsent(name, n -> {
+            TelemetryConfig telemetryConfig = getTelemetryConfig();
             Logger logger = telemetryConfig.getLogger(name);
             telemetryConfig.telemetryLoggerNamesSet.add(name);
             return new Slf4jLogAdapter(logger, telemetryConfig);
@@ -118,6 +235,67 @@ public class LogManager {
     }
 
 
+    /**
+     * Replace the logger-name prefix level rules. Loggers re-resolve their rule level lazily on their next level
+     * check, so the update takes effect without reconfiguring any appenders. The rules of a watched configuration
+     * file, see {@link #watchConfigFile(Path)}, still take precedence for the prefixes they name.
+     *
+     * @param rules new rules; null clears all rules
+     */
+    public static void setLevelRules(LoggerLevelRules rules) {
+        synchronized (levelRulesLock) {
+            baseLevelRules = rules == null ? LoggerLevelRules.EMPTY : rules;
+            levelRules = baseLevelRules.overriddenBy(configFileLevelRules);
+        }
+    }
+
+    /**
+     * Replace the logger-name prefix level rules.
+     *
+     * @param rules comma separated rules such as {@code "software.amazon.awssdk=WARN, io.netty=ERROR"}
+     * @throws IllegalArgumentException if the rules cannot be parsed
+     */
+    public static void setLevelRules(String rules) {
+        setLevelRules(LoggerLevelRules.parse(rules));
+    }
+
+    /**
+     * Replace the level rules of the watched configuration file, which apply over the rules set with
+     * {@link #setLevelRules(LoggerLevelRules)}. A prefix no longer in the file goes back to its rule from there.
+     *
+     * @param rules rules of the file; null clears them
+     */
+    public static void setConfigFileLevelRules(LoggerLevelRules rules) {
+        synchronized (levelRulesLock) {
+            configFileLevelRules = rules == null ? LoggerLevelRules.EMPTY : rules;
+            levelRules = baseLevelRules.overriddenBy(configFileLevelRules);
+        }
+    }
+
+    /**
+     * Load logging configuration from the given file and keep applying it whenever the file changes. Any file
+     * previously being watched is no longer watched.
+     *
+     * @param configFile path of a JSON or properties file, see {@link LogConfigFileWatcher}
+     * @throws IOException if the file's directory cannot be watched
+     */
+    public static synchronized void watchConfigFile(Path configFile) throws IOException {
+        stopWatchingConfigFile();
+        configFileWatcher = LogConfigFileWatcher.start(configFile, LogConfigFileWatcher.DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Stop watching the logging configuration file, keeping the configuration applied from it.
+     *
+     * @throws IOException if closing the watch service fails
+     */
+    public static synchronized void stopWatchingConfigFile() throws IOException {
+        if (configFileWatcher != null) {
+            configFileWatcher.close();
+            configFileWatcher = null;
+        }
+    }
+
     /**
      * Changes the logger config root path to new path .
      *
@@ -220,7 +398,7 @@ public class LogManager {
                 logConfig.startContext();
             }
             // Reconfigure the telemetry logger as well.
-            telemetryConfig.reconfigure(logConfigUpdate, storePath);
+            getTelemetryConfig().reconfigure(logConfigUpdate, storePath);
         } else {
             // Set dynamically configurable options
             setLogConfig(rootLogConfiguration, logConfigUpdate);
@@ -230,6 +408,43 @@ public class LogManager {
         }
     }
 
+    /**
+     * Reconfigure a single logger configuration, leaving every other logger untouched. The name {@code ROOT}
+     * addresses the root configuration, other names address loggers created with their own configuration through
+     * {@link #getLogger(String, LogConfigUpdate)}.
+     *
+     * @param name            name of the logger whose configuration is updated
+     * @param logConfigUpdate partial configuration; null fields are left unchanged
+     * @return true if a configuration with the given name exists
+     */
+    public static boolean reconfigureLogger(String name, LogConfigUpdate logConfigUpdate) {
+        LogConfig logConfig = LogConfigFileWatcher.ROOT_LOGGER_KEY.equals(name) ? rootLogConfiguration
+                : logConfigurations.get(name);
+        if (logConfig == null) {
+            return false;
+        }
+        Path storePath = logConfig.getStoreDirectory();
+        if (logConfigUpdate.getOutputDirectory() != null && !logConfigUpdate.getOutputDirectory().trim().isEmpty()) {
+            storePath = Paths.get(logConfigUpdate.getOutputDirectory());
+        }
+        boolean reconfiguringFileOptions = !Objects.equals(logConfig.getStoreDirectory(), storePath)
+                || changed(logConfigUpdate.getFileSizeKB(), logConfig.getFileSizeKB())
+                || changed(logConfigUpdate.getTotalLogsSizeKB(), logConfig.getTotalLogStoreSizeKB())
+                || changed(logConfigUpdate.getOutputType(), logConfig.getStore());
+        if (reconfiguringFileOptions) {
+            logConfig.closeContext();
+            logConfig.reconfigure(logConfigUpdate, storePath);
+            logConfig.startContext();
+        } else {
+            setLogConfig(logConfig, logConfigUpdate);
+        }
+        return true;
+    }
+
+    private static boolean changed(Object update, Object current) {
+        return update != null && !update.equals(current);
+    }
+
     private static void setLogConfig(LogConfig log, LogConfigUpdate configUpdate) {
         if (configUpdate.getLevel() != null) {
             log.setLevel(configUpdate.getLevel());
@@ -238,4 +453,15 @@ public class LogManager {
             log.setFormat(configUpdate.getFormat());
         }
     }
+
+    /**
+     * Holds the thread writing the dumps for errors, so that it is only started by the first one.
+     */
+    private static final class FlightRecorderDumper {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "gg-flight-recorder-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
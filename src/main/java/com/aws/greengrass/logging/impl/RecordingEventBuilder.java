@@ -0,0 +1,175 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import com.aws.greengrass.logging.api.LogEventBuilder;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Builder of events below the level of their logger, which only go to the {@link FlightRecorder}.
+ *
+ * <p>Each thread reuses one builder, and its contexts, for all such events, and {@link #log(Object)} writes the event
+ * straight into its slot of the recorder, so recording an event creates no builder and no
+ * {@link GreengrassLogMessage}. The builder of a thread is only reused once its event is logged. An event started
+ * while the builder is busy, such as from the {@code toString} of a context, or after an event that was never
+ * logged, gets a new builder which the thread reuses from then on.
+ *
+ * <p>As with {@link LogEventBuilderImpl}, a builder keeps its event once logged, and can be logged again, with
+ * anything added since. Adding to it after it is logged makes it busy again, so that the next event of the thread
+ * doesn't reuse it. A builder kept without being touched after it is logged is reused by the next event of the thread
+ * though, and must not be logged again after that.
+ */
+final class RecordingEventBuilder implements LogEventBuilder {
+    private static final ThreadLocal<RecordingEventBuilder> BUILDERS = ThreadLocal.withInitial(
+            RecordingEventBuilder::new);
+
+    private final ContextMap contexts = new ContextMap(8);
+    private FlightRecorder recorder;
+    private String loggerName;
+    private Level level;
+    private Throwable cause;
+    private String eventType;
+    // Started or added to since it was last logged
+    private boolean busy;
+
+    /**
+     * Start recording an event.
+     *
+     * @param logger        logger of the event
+     * @param level         level of the event
+     * @param parentContext contexts of the parent logger, or null
+     * @param context       contexts of the logger
+     * @return the builder of the thread
+     */
+    static RecordingEventBuilder start(Slf4jLogAdapter logger, Level level, Map<String, Object> parentContext,
+                                       Map<String, Object> context) {
+        return start(LogManager.getFlightRecorder(), logger.getName(), level, parentContext, context);
+    }
+
+    /**
+     * Start recording an event into the given recorder.
+     */
+    static RecordingEventBuilder start(FlightRecorder recorder, String loggerName, Level level,
+                                       Map<String, Object> parentContext, Map<String, Object> context) {
+        RecordingEventBuilder builder = BUILDERS.get();
+        if (builder.busy) {
+            builder = new RecordingEventBuilder();
+            BUILDERS.set(builder);
+        } else {
+            builder.contexts.clear();
+            builder.cause = null;
+            builder.eventType = null;
+        }
+        builder.busy = true;
+        builder.recorder = recorder;
+        builder.loggerName = loggerName;
+        builder.level = level;
+        if (parentContext != null) {
+            parentContext.forEach(builder.contexts::putObject);
+        }
+        context.forEach(builder.contexts::putObject);
+        return builder;
+    }
+
+    @Override
+    public LogEventBuilder cause(Throwable cause) {
+        return setCause(cause);
+    }
+
+    @Override
+    public LogEventBuilder setCause(Throwable cause) {
+        busy = true;
+        this.cause = cause;
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder event(String type) {
+        return setEventType(type);
+    }
+
+    @Override
+    public LogEventBuilder setEventType(String type) {
+        busy = true;
+        this.eventType = type;
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, Object value) {
+        return addKeyValue(key, value);
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, long value) {
+        busy = true;
+        contexts.putLong(key, value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, char value) {
+        busy = true;
+        contexts.put(key, String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, double value) {
+        busy = true;
+        contexts.putDouble(key, value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder kv(String key, boolean value) {
+        busy = true;
+        contexts.putBoolean(key, value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder addKeyValue(String key, Object value) {
+        busy = true;
+        contexts.putObject(key, value == null ? "null" : value);
+        return this;
+    }
+
+    @Override
+    public void log() {
+        log("");
+    }
+
+    @Override
+    public void log(Object arg) {
+        busy = true;
+        try {
+            contexts.resolve(LogEventBuilderImpl::convertToString);
+            if (recorder != null) {
+                recorder.record(System.currentTimeMillis(), level, loggerName, Thread.currentThread().getName(),
+                        eventType, LogEventBuilderImpl.convertToString(arg), cause, contexts);
+            }
+        } finally {
+            // The thread may reuse it from now on
+            busy = false;
+        }
+    }
+
+    @Override
+    public void log(String fmt, Object... args) {
+        // If the cause wasn't set, try setting it from the last vararg if it is a Throwable
+        if (cause == null && args.length > 0 && args[args.length - 1] instanceof Throwable) {
+            busy = true;
+            cause = (Throwable) args[args.length - 1];
+            args = Arrays.copyOfRange(args, 0, args.length - 1);
+        }
+        log(MessageFormatter.arrayFormat(fmt, args, null).getMessage());
+    }
+}
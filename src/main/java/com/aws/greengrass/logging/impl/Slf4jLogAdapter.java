@@ -5,10 +5,13 @@
 
 package com.aws.greengrass.logging.impl;
 
+import ch.qos.logback.classic.spi.LoggingEvent;
 import com.aws.greengrass.logging.api.LogEventBuilder;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.config.LogFormat;
+import com.aws.greengrass.logging.impl.config.LoggerLevelRules;
 import com.aws.greengrass.logging.impl.config.PersistenceConfig;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
 import org.slf4j.event.Level;
 
 import java.util.Collections;
@@ -31,6 +34,8 @@ public class Slf4jLogAdapter implements Logger {
     private final Map<String, Object> loggerContextData = new ConcurrentHashMap<>();
     private final PersistenceConfig config;
     private Level individualLevel = null;
+    private volatile ResolvedRuleLevel ruleLevel = ResolvedRuleLevel.UNRESOLVED;
+    private final LoggingInstrumentation.LoggerCounters counters;
 
     /**
      * Create a {@link Logger} instance based on the given {@link org.slf4j.Logger} instance.
@@ -47,6 +52,7 @@ public class Slf4jLogAdapter implements Logger {
         this.name = logger.getName();
         this.config = config;
         this.parentLogger = slf4jLogAdapter;
+        this.counters = LoggingInstrumentation.ENABLED ? LoggingInstrumentation.loggerCounters(name) : null;
     }
 
     public static void addGlobalListener(Consumer<GreengrassLogMessage> l) {
@@ -149,7 +155,11 @@ public class Slf4jLogAdapter implements Logger {
     }
 
     private LogEventBuilder atLevel(final Level logLevel, final String eventType, final Throwable cause) {
-        if (isLogLevelEnabled(logLevel)) {
+        boolean enabled = isLogLevelEnabled(logLevel);
+        if (!enabled && LoggingInstrumentation.ENABLED) {
+            counters.recordSuppressed();
+        }
+        if (enabled) {
             Map<String, Object> context;
             if (parentLogger == null) {
                 context = loggerContextData;
@@ -158,8 +168,13 @@ public class Slf4jLogAdapter implements Logger {
                 context.putAll(loggerContextData);
             }
 
-            return new LogEventBuilderImpl(this, logLevel, Collections.unmodifiableMap(context)).setCause(cause)
-                    .setEventType(eventType);
+            return new LogEventBuilderImpl(this, logLevel, Collections.unmodifiableMap(context))
+                    .setCause(cause).setEventType(eventType);
+        }
+        if (FlightRecorder.ENABLED) {
+            return RecordingEventBuilder.start(this, logLevel,
+                    parentLogger == null ? null : parentLogger.loggerContextData, loggerContextData)
+                    .setCause(cause).setEventType(eventType);
         }
         return LogEventBuilder.NOOP;
     }
@@ -190,19 +205,42 @@ public class Slf4jLogAdapter implements Logger {
     }
 
     private boolean isLogLevelEnabled(final Level logLevel) {
-        Level runningLevel = config.getLevel();
+        Level runningLevel;
         if (individualLevel != null) {
             runningLevel = individualLevel;
         } else if (parentLogger != null) {
             return parentLogger.isLogLevelEnabled(logLevel);
+        } else {
+            runningLevel = getRuleLevel();
+            if (runningLevel == null) {
+                runningLevel = config.getLevel();
+            }
         }
         return runningLevel.toInt() <= logLevel.toInt();
     }
 
+    /**
+     * Get the level of the most specific prefix rule for this logger. The lookup is only repeated when the rule set
+     * in {@link LogManager} has been replaced.
+     *
+     * @return rule level, or null if no rule applies
+     */
+    private Level getRuleLevel() {
+        LoggerLevelRules rules = LogManager.getLevelRules();
+        ResolvedRuleLevel resolved = ruleLevel;
+        if (resolved.rules != rules) {
+            resolved = new ResolvedRuleLevel(rules, rules.getLevel(name));
+            ruleLevel = resolved;
+        }
+        return resolved.level;
+    }
+
     @Override
     public void trace(String message, Object... args) {
         if (isTraceEnabled()) {
             this.log(Level.TRACE, message, args);
+        } else {
+            suppressed(Level.TRACE, message, args);
         }
     }
 
@@ -210,6 +248,8 @@ public class Slf4jLogAdapter implements Logger {
     public void debug(String message, Object... args) {
         if (isDebugEnabled()) {
             this.log(Level.DEBUG, message, args);
+        } else {
+            suppressed(Level.DEBUG, message, args);
         }
     }
 
@@ -217,6 +257,8 @@ public class Slf4jLogAdapter implements Logger {
     public void info(String message, Object... args) {
         if (isInfoEnabled()) {
             this.log(Level.INFO, message, args);
+        } else {
+            suppressed(Level.INFO, message, args);
         }
     }
 
@@ -224,6 +266,8 @@ public class Slf4jLogAdapter implements Logger {
     public void warn(String message, Object... args) {
         if (isWarnEnabled()) {
             this.log(Level.WARN, message, args);
+        } else {
+            suppressed(Level.WARN, message, args);
         }
     }
 
@@ -231,6 +275,8 @@ public class Slf4jLogAdapter implements Logger {
     public void error(String message, Object... args) {
         if (isErrorEnabled()) {
             this.log(Level.ERROR, message, args);
+        } else {
+            suppressed(Level.ERROR, message, args);
         }
     }
 
@@ -252,16 +298,36 @@ public class Slf4jLogAdapter implements Logger {
         new LogEventBuilderImpl(this, level, Collections.unmodifiableMap(loggerContextData)).log(msg, args);
     }
 
+    private void suppressed(Level level, String msg, Object... args) {
+        if (LoggingInstrumentation.ENABLED) {
+            counters.recordSuppressed();
+        }
+        if (FlightRecorder.ENABLED) {
+            RecordingEventBuilder.start(this, level, null, loggerContextData).log(msg, args);
+        }
+    }
+
     private String serialize(GreengrassLogMessage message) {
-        switch (config.getFormat()) {
+        if (LoggingInstrumentation.ENABLED) {
+            LogFormat format = config.getFormat();
+            long start = System.nanoTime();
+            String serialized = serialize(message, format);
+            LoggingInstrumentation.serialization(format).record(System.nanoTime() - start);
+            return serialized;
+        }
+        return serialize(message, config.getFormat());
+    }
+
+    private String serialize(GreengrassLogMessage message, LogFormat format) {
+        switch (format) {
             case TEXT:
-                return message.getTextMessage();
+                return config.getTextLayout().format(message);
             case JSON:
                 return message.getJSONMessage();
             case RAW:
                 return message.getMessage();
             default:
-                return "ERROR Unknown LogFormat " + config.getFormat();
+                return "ERROR Unknown LogFormat " + format;
         }
     }
 
@@ -271,9 +337,25 @@ public class Slf4jLogAdapter implements Logger {
      * @param m the message to be logged
      */
     void logMessage(GreengrassLogMessage m) {
-        listeners.forEach(l -> l.accept(m));
+        Level level = Level.valueOf(m.getLevel());
+        if (LoggingInstrumentation.ENABLED) {
+            long start = System.nanoTime();
+            listeners.forEach(l -> l.accept(m));
+            LoggingInstrumentation.listenerDispatch().record(System.nanoTime() - start);
+            counters.recordEvent(level);
+        } else {
+            listeners.forEach(l -> l.accept(m));
+        }
+        config.initialize();
         String message = serialize(m);
-        switch (Level.valueOf(m.getLevel())) {
+        if (FlightRecorder.ENABLED) {
+            if (level == Level.ERROR) {
+                // Write what led up to the error, in the background
+                LogManager.dumpFlightRecorderForError();
+            }
+            recordMessage(m);
+        }
+        switch (level) {
             case ERROR:
                 logger.error(message);
                 break;
@@ -293,6 +375,35 @@ public class Slf4jLogAdapter implements Logger {
         }
     }
 
+    /**
+     * Record a logged message in the flight recorder.
+     *
+     * @param m the message to be recorded
+     */
+    private void recordMessage(GreengrassLogMessage m) {
+        FlightRecorder recorder = LogManager.getFlightRecorder();
+        if (recorder != null) {
+            recorder.record(m);
+        }
+    }
+
+    /**
+     * Write a message from the flight recorder with its recorded level and time, bypassing the level of this logger
+     * and the listeners, which have seen it already.
+     *
+     * @param m the recorded message
+     */
+    void logRecorded(GreengrassLogMessage m) {
+        config.initialize();
+        if (logger instanceof ch.qos.logback.classic.Logger) {
+            ch.qos.logback.classic.Logger target = (ch.qos.logback.classic.Logger) logger;
+            LoggingEvent event = new LoggingEvent(Slf4jLogAdapter.class.getName(), target,
+                    ch.qos.logback.classic.Level.toLevel(m.getLevel()), serialize(m), null, null);
+            event.setTimeStamp(m.getTimestamp());
+            target.callAppenders(event);
+        }
+    }
+
     org.slf4j.Logger getLogger() {
         return this.logger;
     }
@@ -300,4 +411,18 @@ public class Slf4jLogAdapter implements Logger {
     void setLogger(org.slf4j.Logger logger) {
         this.logger = logger;
     }
+
+    /**
+     * Rule level resolved against a specific rule set, published as one immutable pair.
+     */
+    private static class ResolvedRuleLevel {
+        private static final ResolvedRuleLevel UNRESOLVED = new ResolvedRuleLevel(null, null);
+        private final LoggerLevelRules rules;
+        private final Level level;
+
+        ResolvedRuleLevel(LoggerLevelRules rules, Level level) {
+            this.rules = rules;
+            this.level = level;
+        }
+    }
 }
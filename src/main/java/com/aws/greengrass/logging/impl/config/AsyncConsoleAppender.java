@@ -0,0 +1,236 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Console appender for {@link LogStore#CONSOLE_ASYNC} which never makes the logging thread wait for a slow stdout,
+ * such as a pipe to journald.
+ *
+ * <p>Logging threads only encode the event and add it to a bounded lock-free queue. One writer thread copies queued
+ * events into a direct buffer and writes each batch to the stdout file descriptor's {@link FileChannel}, bypassing
+ * {@link System#out}. When the queue is full, events below ERROR are dropped and counted, see
+ * {@link #getDroppedCount()}. ERROR events are always queued, and the logging thread then blocks until they are
+ * written, so that the error is on the console before, for example, the process exits. This is the one case where a
+ * slow stdout does hold up a logging thread: each ERROR event waits for everything queued before it, for up to
+ * {@link #ERROR_FLUSH_TIMEOUT_MILLIS}. The wait is skipped, or cut short, once the appender is stopping, as stopping
+ * writes everything queued, or when the writer thread is no longer running.
+ */
+public class AsyncConsoleAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    public static final long ERROR_FLUSH_TIMEOUT_MILLIS = 1000;
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // How often a logging thread waiting for an ERROR event checks whether the writer is still going to write it
+    private static final long ERROR_WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+    // Never closed, closing it would close the process stdout
+    private static final FileChannel STDOUT = new FileOutputStream(FileDescriptor.out).getChannel();
+
+    private final int capacity;
+    private final WritableByteChannel channel;
+    // Holds byte[] of encoded events, or a Flush for ERROR events
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private Encoder<ILoggingEvent> encoder;
+    private Thread writer;
+    private Thread shutdownHook;
+    private volatile boolean stopping;
+
+    public AsyncConsoleAppender() {
+        this(DEFAULT_QUEUE_CAPACITY, STDOUT);
+    }
+
+    AsyncConsoleAppender(int capacity, WritableByteChannel channel) {
+        super();
+        this.capacity = capacity;
+        this.channel = channel;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named \"" + name + "\".");
+            return;
+        }
+        stopping = false;
+        writer = new Thread(this::run, "gg-console-writer");
+        writer.setDaemon(true);
+        writer.start();
+        shutdownHook = new Thread(this::stop, "gg-console-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] bytes = encoder.encode(event);
+        if (event.getLevel().isGreaterOrEqual(Level.ERROR)) {
+            Flush flush = new Flush(bytes);
+            size.incrementAndGet();
+            queue.add(flush);
+            Thread writerThread = writer;
+            LockSupport.unpark(writerThread);
+            if (!flush.await(() -> !stopping && writerThread.isAlive())) {
+                addWarn("Console did not take an ERROR event within " + ERROR_FLUSH_TIMEOUT_MILLIS + " ms");
+            }
+            return;
+        }
+        int n = size.getAndIncrement();
+        if (n >= capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            LoggingInstrumentation.recordDropped(LogStore.CONSOLE_ASYNC.name(), 1);
+            return;
+        }
+        queue.add(bytes);
+        if (n == 0) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        stopping = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (true) {
+            boolean stop = stopping;
+            Object item;
+            while ((item = queue.poll()) != null) {
+                size.decrementAndGet();
+                byte[] bytes = item instanceof Flush ? ((Flush) item).bytes : (byte[]) item;
+                if (bytes.length > buffer.remaining()) {
+                    write(buffer);
+                }
+                if (bytes.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+                if (item instanceof Flush) {
+                    write(buffer);
+                    ((Flush) item).written.countDown();
+                }
+            }
+            write(buffer);
+            if (stop) {
+                return;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Write out the batch collected in the buffer and clear it.
+     */
+    private void write(ByteBuffer buffer) {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            addError("Failed to write to the console", e);
+        }
+    }
+
+    private static final class Flush {
+        private final byte[] bytes;
+        private final CountDownLatch written = new CountDownLatch(1);
+
+        Flush(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Wait for the event to be written, while the writer may still write it.
+         *
+         * @return false if the wait timed out or was interrupted
+         */
+        boolean await(BooleanSupplier writing) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ERROR_FLUSH_TIMEOUT_MILLIS);
+            try {
+                while (writing.getAsBoolean()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    if (written.await(Math.min(remaining, ERROR_WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS)) {
+                        return true;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Disk budget shared by every file store of {@link LogConfig} and
+ * {@link com.aws.greengrass.telemetry.impl.config.TelemetryConfig}, on top of the total size each store enforces on
+ * its own.
+ *
+ * <p>Usage is tracked incrementally: each store counts the bytes encoded into its active file and reports every
+ * rollover, so the rolled files are only listed once, in the background when the store is registered. Whenever the
+ * total exceeds {@link #getTotalQuotaKB()}, or the usable space of the rolling store's file system falls below
+ * {@link #getMinFreeSpaceKB()}, rolled files are deleted until it no longer does: lowest {@link DiskQuotaPriority}
+ * first, and oldest first within a priority. Active files are never deleted. Either limit is disabled when not
+ * positive, which is the default.
+ *
+ * <p>The files to evict are picked while holding the lock of the quota, and deleted after releasing it through the
+ * {@link ManifestRollingPolicy} of their store, which removes them from its manifest under its own lock.
+ */
+public final class DiskQuota {
+    public static final String TOTAL_QUOTA_KEY = "log.totalDiskQuotaKB";
+    public static final String MIN_FREE_SPACE_KEY = "log.minFreeDiskSpaceKB";
+    private static final long KB = 1024;
+    private static final Comparator<RolledFile> EVICTION_ORDER = Comparator
+            .comparing((RolledFile f) -> f.priority)
+            .thenComparingLong(f -> f.lastModified)
+            .thenComparing(f -> f.path);
+    private static final DiskQuota INSTANCE = new DiskQuota(Long.getLong(TOTAL_QUOTA_KEY, 0),
+            Long.getLong(MIN_FREE_SPACE_KEY, 0), ForkJoinPool.commonPool());
+
+    @Getter
+    private volatile long totalQuotaKB;
+    @Getter
+    private volatile long minFreeSpaceKB;
+    private final Set<Store> stores = ConcurrentHashMap.newKeySet();
+    private final Map<Path, RolledFile> rolledFiles = new HashMap<>();
+    private final TreeSet<RolledFile> evictionOrder = new TreeSet<>(EVICTION_ORDER);
+    private long rolledBytes;
+    private final LongAdder evicted = new LongAdder();
+    private final Executor scanExecutor;
+
+    DiskQuota(long totalQuotaKB, long minFreeSpaceKB, Executor scanExecutor) {
+        this.totalQuotaKB = totalQuotaKB;
+        this.minFreeSpaceKB = minFreeSpaceKB;
+        this.scanExecutor = scanExecutor;
+    }
+
+    public static DiskQuota getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Change the disk budget of all stores together, evicting rolled files right away if it is exceeded.
+     *
+     * @param totalQuotaKB budget in KB; not positive to disable it
+     */
+    public void setTotalQuotaKB(long totalQuotaKB) {
+        this.totalQuotaKB = totalQuotaKB;
+        evict(pickEvictions(null));
+    }
+
+    /**
+     * Change the usable space to keep free on the file system of the stores. It is checked on every rollover.
+     *
+     * @param minFreeSpaceKB free space in KB; not positive to disable it
+     */
+    public void setMinFreeSpaceKB(long minFreeSpaceKB) {
+        this.minFreeSpaceKB = minFreeSpaceKB;
+    }
+
+    /**
+     * Create a store, which counts towards the quota once registered.
+     *
+     * @param activeFile   file being written
+     * @param directory    directory of the rolled files
+     * @param rolledPrefix file name prefix of the rolled files
+     * @param rolledSuffix file name suffix of the rolled files
+     * @param priority     eviction priority of the rolled files
+     * @return the store
+     */
+    public Store newStore(Path activeFile, Path directory, String rolledPrefix, String rolledSuffix,
+                          DiskQuotaPriority priority) {
+        return new Store(activeFile, directory, rolledPrefix, rolledSuffix, priority);
+    }
+
+    /**
+     * Get the bytes used by all registered active files and all rolled files not yet evicted.
+     *
+     * @return used bytes
+     */
+    public synchronized long getUsedBytes() {
+        long used = rolledBytes;
+        for (Store store : stores) {
+            used += store.activeBytes.sum();
+        }
+        return used;
+    }
+
+    /**
+     * Get the number of rolled files deleted to enforce the quota.
+     *
+     * @return number of evicted files
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    private void register(Store store) {
+        store.activeBytes.reset();
+        store.activeBytes.add(size(store.activeFile));
+        stores.add(store);
+        // Listing the directory is left to the background so that it doesn't delay the first event of the store
+        scanExecutor.execute(() -> scan(store));
+    }
+
+    private void scan(Store store) {
+        synchronized (this) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(store.directory,
+                    p -> store.isRolledFile(String.valueOf(p.getFileName())))) {
+                for (Path file : files) {
+                    track(file, store);
+                }
+            } catch (IOException e) {
+                // Nothing rolled yet
+            }
+        }
+        evict(pickEvictions(store.directory));
+    }
+
+    private void rolled(Store store, Path file) {
+        synchronized (this) {
+            store.activeBytes.reset();
+            track(file, store);
+        }
+        evict(pickEvictions(store.directory));
+    }
+
+    private void track(Path file, Store store) {
+        Path path = file.toAbsolutePath();
+        RolledFile tracked = rolledFiles.get(path);
+        if (tracked != null) {
+            // Evict through the latest policy of the store
+            tracked.store = store;
+            return;
+        }
+        if (!Files.exists(path)) {
+            // Already deleted by the size cap of the store
+            return;
+        }
+        RolledFile rolled = new RolledFile(path, store, size(path), path.toFile().lastModified());
+        rolledFiles.put(path, rolled);
+        evictionOrder.add(rolled);
+        rolledBytes += rolled.size;
+    }
+
+    private synchronized void deleted(Path file) {
+        RolledFile tracked = rolledFiles.remove(file.toAbsolutePath());
+        if (tracked != null) {
+            evictionOrder.remove(tracked);
+            rolledBytes -= tracked.size;
+        }
+    }
+
+    /**
+     * Stop tracking the rolled files to evict for the budget and the free space floor to both be met.
+     *
+     * @param directory directory whose file system must keep the free space, or null to skip that check
+     * @return the files to delete
+     */
+    private synchronized List<RolledFile> pickEvictions(Path directory) {
+        List<RolledFile> picked = new ArrayList<>();
+        long freed = 0;
+        while (!evictionOrder.isEmpty() && (overQuota() || lowOnSpace(directory, freed))) {
+            RolledFile oldest = evictionOrder.pollFirst();
+            rolledFiles.remove(oldest.path);
+            rolledBytes -= oldest.size;
+            freed += oldest.size;
+            picked.add(oldest);
+        }
+        return picked;
+    }
+
+    private void evict(List<RolledFile> files) {
+        for (RolledFile file : files) {
+            ManifestRollingPolicy<?> policy = file.store.policy;
+            try {
+                // The store's own size cap may have deleted it already
+                if (policy == null ? Files.deleteIfExists(file.path) : policy.evict(file.path)) {
+                    evicted.increment();
+                }
+            } catch (IOException e) {
+                // Stop tracking it, it would otherwise block every later eviction
+            }
+        }
+    }
+
+    private boolean overQuota() {
+        long quota = totalQuotaKB;
+        return quota > 0 && getUsedBytes() > quota * KB;
+    }
+
+    /**
+     * Check the free space floor, counting the bytes of the files picked to be deleted as free already.
+     */
+    private boolean lowOnSpace(Path directory, long freed) {
+        long floor = minFreeSpaceKB;
+        if (floor <= 0 || directory == null) {
+            return false;
+        }
+        File dir = directory.toFile();
+        return dir.isDirectory() && dir.getUsableSpace() + freed < floor * KB;
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static final class RolledFile {
+        private final Path path;
+        private final DiskQuotaPriority priority;
+        private final long size;
+        private final long lastModified;
+        // Store of the latest policy rolling it
+        private Store store;
+
+        RolledFile(Path path, Store store, long size, long lastModified) {
+            this.path = path;
+            this.priority = store.priority;
+            this.store = store;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * One file store counting towards the quota, registered while its rolling policy is started.
+     */
+    public final class Store {
+        private final Path activeFile;
+        private final Path directory;
+        private final String rolledPrefix;
+        private final String rolledSuffix;
+        private final DiskQuotaPriority priority;
+        private final LongAdder activeBytes = new LongAdder();
+        private volatile ManifestRollingPolicy<?> policy;
+
+        private Store(Path activeFile, Path directory, String rolledPrefix, String rolledSuffix,
+                      DiskQuotaPriority priority) {
+            this.activeFile = activeFile;
+            this.directory = directory;
+            this.rolledPrefix = rolledPrefix;
+            this.rolledSuffix = rolledSuffix;
+            this.priority = priority;
+        }
+
+        /**
+         * Count bytes written to the active file.
+         *
+         * @param bytes number of bytes
+         */
+        public void written(long bytes) {
+            activeBytes.add(bytes);
+        }
+
+        /**
+         * Evict the rolled files of the store through its policy, which keeps its manifest up to date.
+         */
+        void setPolicy(ManifestRollingPolicy<?> policy) {
+            this.policy = policy;
+        }
+
+        /**
+         * Start counting the store, including the rolled files already in its directory.
+         */
+        public void register() {
+            DiskQuota.this.register(this);
+        }
+
+        /**
+         * Stop counting the active file. Rolled files stay counted until they are evicted.
+         */
+        public void unregister() {
+            stores.remove(this);
+        }
+
+        /**
+         * Count the file the active file has just been rolled into, and evict files if the quota is now exceeded.
+         *
+         * @param file the rolled file
+         */
+        public void rolled(Path file) {
+            DiskQuota.this.rolled(this, file);
+        }
+
+        /**
+         * Stop counting a rolled file which the store deleted itself, such as to stay within its own total size.
+         *
+         * @param file the deleted file
+         */
+        public void deleted(Path file) {
+            DiskQuota.this.deleted(file);
+        }
+
+        boolean isRolledFile(String name) {
+            // Rolled files continue with the date, which tells them apart from stores whose name extends this one
+            return name.startsWith(rolledPrefix) && name.endsWith(rolledSuffix)
+                    && name.length() > rolledPrefix.length() && Character.isDigit(name.charAt(rolledPrefix.length()));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+/**
+ * Order in which the {@link DiskQuota} evicts the rolled files of stores. All rolled files of a lower priority are
+ * evicted before any of a higher priority.
+ */
+public enum DiskQuotaPriority {
+    /**
+     * Telemetry stores.
+     */
+    LOW,
+    /**
+     * Log stores of components.
+     */
+    NORMAL,
+    /**
+     * The root log store.
+     */
+    HIGH
+}
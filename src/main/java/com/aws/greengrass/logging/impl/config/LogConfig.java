@@ -9,7 +9,6 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.Getter;
 import org.slf4j.event.Level;
 import org.slf4j.impl.StaticMDCBinder;
@@ -22,6 +21,7 @@ public class LogConfig extends PersistenceConfig {
     public static final String LOGS_DIRECTORY = "logs";
     public static final String LOG_FILE_EXTENSION = "log";
     private final LoggerContext context = new LoggerContext();
+    private volatile boolean initialized;
 
     private static final LogConfig ROOT_LOG_CONFIG = new LogConfig();
 
@@ -33,15 +33,30 @@ public class LogConfig extends PersistenceConfig {
     }
 
     /**
-     * Get default logging configuration from system properties.
+     * Get default logging configuration from system properties. The appenders are only created by
+     * {@link #initialize()}.
      */
-    @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
     protected LogConfig() {
         super(LOG_FILE_EXTENSION, LOGS_DIRECTORY);
         // Must set an MDC adapter for 1.3.8+. https://github.com/qos-ch/logback/issues/709
         context.setMDCAdapter(StaticMDCBinder.SINGLETON.getMDCA());
-        reconfigure(context.getLogger(Logger.ROOT_LOGGER_NAME));
-        startContext();
+    }
+
+    /**
+     * Attach the appenders and start the logger context, unless already done. This happens when the first event is
+     * written, so that loading the logging classes opens no files and starts no threads.
+     */
+    @Override
+    public void initialize() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconfigure(context.getLogger(Logger.ROOT_LOGGER_NAME));
+                    startContext();
+                    initialized = true;
+                }
+            }
+        }
     }
 
     /**
@@ -54,6 +69,7 @@ public class LogConfig extends PersistenceConfig {
         LogConfigUpdate configUpdate = fillNullFieldsFromRootConfig(configOverrides);
         LogConfig newConfig = new LogConfig();
         newConfig.format = configUpdate.getFormat();
+        newConfig.textLayout = getRootLogConfig().getTextLayout();
         newConfig.store = configUpdate.getOutputType();
         newConfig.fileSizeKB = configUpdate.getFileSizeKB();
         newConfig.totalLogStoreSizeKB = configUpdate.getTotalLogsSizeKB();
@@ -67,7 +83,6 @@ public class LogConfig extends PersistenceConfig {
         newConfig.storeName =
                 newConfig.storeDirectory.resolve(configUpdate.getFileName()).toAbsolutePath().toString();
         newConfig.level = configUpdate.getLevel();
-        newConfig.reconfigure(newConfig.context.getLogger(Logger.ROOT_LOGGER_NAME));
         return newConfig;
     }
 
@@ -106,6 +121,11 @@ public class LogConfig extends PersistenceConfig {
         return newConfigUpdate.build();
     }
 
+    @Override
+    protected DiskQuotaPriority getQuotaPriority() {
+        return this == ROOT_LOG_CONFIG ? DiskQuotaPriority.HIGH : DiskQuotaPriority.NORMAL;
+    }
+
     public Logger getLogger(String name) {
         return context.getLogger(name);
     }
@@ -131,9 +151,12 @@ public class LogConfig extends PersistenceConfig {
         this.fileName = DEFAULT_STORE_NAME;
         this.level = Level.valueOf(DEFAULT_LOG_LEVEL);
         this.format = LogFormat.valueOf(DEFAULT_DATA_FORMAT);
+        this.textLayout = TextLayout.DEFAULT;
         this.store = LogStore.valueOf(DEFAULT_STORAGE_TYPE);
         this.storeDirectory = getRootStorePath().resolve(LOGS_DIRECTORY);
         this.fileSizeKB = DEFAULT_MAX_FILE_SIZE_IN_KB;
         this.totalLogStoreSizeKB = DEFAULT_MAX_SIZE_IN_KB;
+        this.rolloverMinutes = DEFAULT_ROLLOVER_MINUTES;
+        this.sharedFile = false;
     }
 }
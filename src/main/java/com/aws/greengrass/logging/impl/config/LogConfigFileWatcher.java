@@ -0,0 +1,284 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.event.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches an optional logging configuration file and applies changes to it without restarting.
+ *
+ * <p>The file maps logger names to {@link LogConfigUpdate} fields ({@code level}, {@code format},
+ * {@code outputType}, {@code outputDirectory}, {@code fileSizeKB}, {@code totalLogsSizeKB}). Files ending in
+ * {@code .json} contain an object of logger name to an object of fields, any other file is read as properties with
+ * {@code <loggerName>.<field>=<value>} keys. The name {@value #ROOT_LOGGER_KEY} addresses the root configuration.
+ *
+ * <p>Levels of loggers which don't have their own {@link LogConfig} become prefix rules, published together as one
+ * {@link LoggerLevelRules} set over the rules set through {@link LogManager#setLevelRules(LoggerLevelRules)} or
+ * {@value LoggerLevelRules#LEVEL_RULES_KEY}, which apply again once the file no longer names their prefix. Other
+ * fields of such loggers have no config to go to, and are ignored with a warning. Entries for the root config or for
+ * loggers created with their own config are applied to that single config, over the settings it had before the file
+ * first changed it, and only when the entry changed since the previous load. Removing an entry, or a field of it,
+ * restores those settings.
+ */
+public final class LogConfigFileWatcher implements Closeable {
+    public static final String CONFIG_FILE_KEY = "log.configFile";
+    public static final String ROOT_LOGGER_KEY = "ROOT";
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Logger logger = LogManager.getLogger(LogConfigFileWatcher.class);
+
+    private final Path file;
+    private final Path fileName;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread watcherThread;
+    private volatile boolean closed;
+    // Settings applied to the configs named in the file, and the settings they had before
+    private Map<String, LogConfigUpdate> applied = Collections.emptyMap();
+    private final Map<String, LogConfigUpdate> originals = new HashMap<>();
+
+    private LogConfigFileWatcher(Path file, long debounceMillis) throws IOException {
+        this.file = file.toAbsolutePath();
+        Path directory = this.file.getParent();
+        Path name = this.file.getFileName();
+        if (directory == null || name == null) {
+            throw new IllegalArgumentException("Logging configuration must be a file: " + file);
+        }
+        this.fileName = name;
+        this.debounceMillis = debounceMillis;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcherThread = new Thread(this::watch, "gg-log-config-watcher");
+        this.watcherThread.setDaemon(true);
+    }
+
+    /**
+     * Load the configuration file and start watching it for changes on a daemon thread.
+     *
+     * @param file           path of the configuration file; its directory must exist
+     * @param debounceMillis quiet period after the last change event before the file is re-read
+     * @return the running watcher, close it to stop watching
+     * @throws IOException if the directory cannot be watched
+     */
+    public static LogConfigFileWatcher start(Path file, long debounceMillis) throws IOException {
+        LogConfigFileWatcher watcher = new LogConfigFileWatcher(file, debounceMillis);
+        watcher.reload();
+        watcher.watcherThread.start();
+        return watcher;
+    }
+
+    /**
+     * Re-read the file and apply whatever changed since the previous load. Invalid files are reported and ignored,
+     * leaving the previous configuration in place.
+     */
+    public synchronized void reload() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Map<String, LogConfigUpdate> updates;
+        try {
+            updates = parse(file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.atWarn().kv("file", file).setCause(e).log("Ignoring invalid logging configuration file");
+            return;
+        }
+
+        Map<String, Level> levelRules = new LinkedHashMap<>();
+        Map<String, LogConfigUpdate> targets = new LinkedHashMap<>();
+        updates.forEach((name, update) -> {
+            PersistenceConfig config = ownConfig(name);
+            if (config != null) {
+                targets.put(name, overlay(originals.computeIfAbsent(name, n -> snapshot(config)), update));
+                return;
+            }
+            if (update.getLevel() != null) {
+                levelRules.put(name, update.getLevel());
+            }
+            if (!update.equals(LogConfigUpdate.builder().level(update.getLevel()).build())) {
+                logger.atWarn().kv("file", file).kv("logger", name).kv("update", update)
+                        .log("Ignoring fields other than the level of a logger without its own configuration");
+            }
+        });
+        LogManager.setConfigFileLevelRules(new LoggerLevelRules(levelRules));
+
+        Map<String, LogConfigUpdate> previous = applied;
+        previous.keySet().forEach(name -> {
+            if (!targets.containsKey(name)) {
+                LogManager.reconfigureLogger(name, originals.remove(name));
+            }
+        });
+        targets.forEach((name, target) -> {
+            if (!Objects.equals(previous.get(name), target)) {
+                LogManager.reconfigureLogger(name, target);
+            }
+        });
+        applied = targets;
+    }
+
+    private static PersistenceConfig ownConfig(String name) {
+        return ROOT_LOGGER_KEY.equals(name) ? LogManager.getRootLogConfiguration()
+                : LogManager.getLogConfigurations().get(name);
+    }
+
+    private static LogConfigUpdate snapshot(PersistenceConfig config) {
+        // The file never sets the file name
+        return new LogConfigUpdate(config).toBuilder().fileName(null).build();
+    }
+
+    /**
+     * Get the settings with the fields set by the update replaced.
+     */
+    private static LogConfigUpdate overlay(LogConfigUpdate settings, LogConfigUpdate update) {
+        LogConfigUpdate.LogConfigUpdateBuilder builder = settings.toBuilder();
+        if (update.getLevel() != null) {
+            builder.level(update.getLevel());
+        }
+        if (update.getFormat() != null) {
+            builder.format(update.getFormat());
+        }
+        if (update.getOutputType() != null) {
+            builder.outputType(update.getOutputType());
+        }
+        if (update.getOutputDirectory() != null) {
+            builder.outputDirectory(update.getOutputDirectory());
+        }
+        if (update.getFileSizeKB() != null) {
+            builder.fileSizeKB(update.getFileSizeKB());
+        }
+        if (update.getTotalLogsSizeKB() != null) {
+            builder.totalLogsSizeKB(update.getTotalLogsSizeKB());
+        }
+        return builder.build();
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                boolean changed = drain(watchService.take());
+                // Debounce: keep collecting events until the file has been quiet for the whole period
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if (changed && !closed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (StandardWatchEventKinds.OVERFLOW.equals(event.kind())
+                    || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Parse a configuration file into per-logger updates.
+     *
+     * @param file the file to parse
+     * @return map of logger name to the update for that logger
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a field has an invalid value
+     */
+    static Map<String, LogConfigUpdate> parse(Path file) throws IOException {
+        Map<String, Map<String, String>> fields = new LinkedHashMap<>();
+        if (String.valueOf(file.getFileName()).endsWith(".json")) {
+            JsonNode tree = OBJECT_MAPPER.readTree(file.toFile());
+            Iterator<Map.Entry<String, JsonNode>> loggers = tree.fields();
+            while (loggers.hasNext()) {
+                Map.Entry<String, JsonNode> entry = loggers.next();
+                Map<String, String> loggerFields = fields.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+                entry.getValue().fields().forEachRemaining(f -> loggerFields.put(f.getKey(), f.getValue().asText()));
+            }
+        } else {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                int dot = key.lastIndexOf('.');
+                if (dot <= 0) {
+                    throw new IllegalArgumentException("Invalid logging configuration key: " + key);
+                }
+                fields.computeIfAbsent(key.substring(0, dot), k -> new HashMap<>())
+                        .put(key.substring(dot + 1), properties.getProperty(key).trim());
+            }
+        }
+
+        Map<String, LogConfigUpdate> updates = new LinkedHashMap<>();
+        fields.forEach((name, loggerFields) -> updates.put(name, toUpdate(loggerFields)));
+        return updates;
+    }
+
+    private static LogConfigUpdate toUpdate(Map<String, String> fields) {
+        LogConfigUpdate.LogConfigUpdateBuilder builder = LogConfigUpdate.builder();
+        fields.forEach((field, value) -> {
+            switch (field) {
+                case "level":
+                    builder.level(Level.valueOf(value.toUpperCase()));
+                    break;
+                case "format":
+                    builder.format(LogFormat.valueOf(value.toUpperCase()));
+                    break;
+                case "outputType":
+                    builder.outputType(LogStore.valueOf(value.toUpperCase()));
+                    break;
+                case "outputDirectory":
+                    builder.outputDirectory(value);
+                    break;
+                case "fileSizeKB":
+                    builder.fileSizeKB(Long.parseLong(value));
+                    break;
+                case "totalLogsSizeKB":
+                    builder.totalLogsSizeKB(Long.parseLong(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported logging configuration field: " + field);
+            }
+        });
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        watcherThread.interrupt();
+    }
+}
@@ -6,5 +6,13 @@
 package com.aws.greengrass.logging.impl.config;
 
 public enum LogStore {
-    FILE, CONSOLE
+    FILE, CONSOLE,
+    /**
+     * Console output written in batches by a background thread, see {@link AsyncConsoleAppender}.
+     */
+    CONSOLE_ASYNC,
+    /**
+     * Events streamed to a syslog daemon or TCP collector, see {@link NetworkAppender}.
+     */
+    NETWORK
 }
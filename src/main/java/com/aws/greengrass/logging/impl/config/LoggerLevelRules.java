@@ -0,0 +1,161 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import org.slf4j.event.Level;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of logger-name prefix rules, e.g. {@code software.amazon.awssdk=WARN, io.netty=ERROR}.
+ *
+ * <p>Rules are stored in a trie keyed by the dot separated segments of the logger name, so the most specific
+ * matching rule for a name is found in a single walk over the name. A rule for {@code a.b} matches the loggers
+ * {@code a.b} and {@code a.b.c}, but not {@code a.bc}.
+ */
+public final class LoggerLevelRules {
+    public static final String LEVEL_RULES_KEY = "log.levelRules";
+    public static final LoggerLevelRules EMPTY = new LoggerLevelRules(Collections.emptyMap());
+
+    private final Node root = new Node();
+    private final Map<String, Level> rules;
+
+    /**
+     * Create a rule set from a map of logger name prefix to level.
+     *
+     * @param rules map of logger name prefix to the level which applies to it and to its descendants
+     */
+    public LoggerLevelRules(Map<String, Level> rules) {
+        Map<String, Level> copy = new LinkedHashMap<>();
+        rules.forEach((prefix, level) -> {
+            if (prefix == null || level == null) {
+                return;
+            }
+            String trimmed = prefix.trim();
+            copy.put(trimmed, level);
+            root.insert(trimmed, level);
+        });
+        this.rules = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Parse rules from a comma separated list of {@code prefix=LEVEL} pairs.
+     *
+     * @param spec rule specification, for example {@code "software.amazon.awssdk=WARN, io.netty=ERROR"}
+     * @return the parsed rules
+     * @throws IllegalArgumentException if a pair is malformed or names an unknown level
+     */
+    public static LoggerLevelRules parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Level> rules = new LinkedHashMap<>();
+        for (String pair : spec.split(",")) {
+            if (pair.trim().isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Invalid logger level rule: " + pair.trim());
+            }
+            rules.put(pair.substring(0, eq).trim(), Level.valueOf(pair.substring(eq + 1).trim().toUpperCase()));
+        }
+        return new LoggerLevelRules(rules);
+    }
+
+    /**
+     * Read the initial rules from the {@value #LEVEL_RULES_KEY} system property.
+     *
+     * @return rules from the system property, or {@link #EMPTY} if it is unset or invalid
+     */
+    public static LoggerLevelRules fromSystemProperties() {
+        try {
+            return parse(System.getProperty(LEVEL_RULES_KEY));
+        } catch (IllegalArgumentException e) {
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Find the level of the most specific rule matching the logger name.
+     *
+     * @param loggerName name of the logger
+     * @return level of the most specific matching rule, or null if no rule matches
+     */
+    public Level getLevel(String loggerName) {
+        if (loggerName == null) {
+            return root.level;
+        }
+        Node node = root;
+        Level match = root.level;
+        int start = 0;
+        int len = loggerName.length();
+        while (start <= len) {
+            int end = loggerName.indexOf('.', start);
+            if (end < 0) {
+                end = len;
+            }
+            node = node.children.get(loggerName.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.level != null) {
+                match = node.level;
+            }
+            start = end + 1;
+        }
+        return match;
+    }
+
+    /**
+     * Create a rule set with the rules of this set and the given rules, which replace those for the same prefix.
+     *
+     * @param overrides rules which take precedence
+     * @return the merged rules
+     */
+    public LoggerLevelRules overriddenBy(LoggerLevelRules overrides) {
+        if (overrides.isEmpty()) {
+            return this;
+        }
+        Map<String, Level> merged = new LinkedHashMap<>(rules);
+        merged.putAll(overrides.rules);
+        return new LoggerLevelRules(merged);
+    }
+
+    public Map<String, Level> getRules() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return rules.toString();
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Level level;
+
+        void insert(String prefix, Level level) {
+            // An empty prefix is a catch-all rule stored at the root
+            if (prefix.isEmpty()) {
+                this.level = level;
+                return;
+            }
+            Node node = this;
+            for (String segment : prefix.split("\\.")) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            node.level = level;
+        }
+    }
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.rolling.RollingPolicy;
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.TriggeringPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Size and time based rolling policy which knows the size of the active file from the bytes encoded into it, rather
+ * than by checking the file, and keeps a manifest of its rolled files.
+ *
+ * <p>The active file rolls on the first event after it has reached the maximum file size, or after the time period
+ * it was written in has ended. Periods are a number of minutes aligned to local midnight. The end of the current
+ * period is computed once per period, so the time check costs a clock read per event. Rolled files are named
+ * {@code <fileName>_yyyy_MM_dd_HH_<index>.<extension>} after the hour their period starts in, the index counting
+ * up within the hour.
+ *
+ * <p>The manifest {@code <fileName>.<extension>.manifest} lists the rolled files oldest first, one line of period
+ * start, index and size per file. Retention works from it alone: the oldest files are deleted while all rolled files
+ * together exceed the total size cap, or while they are from more than max history periods ago. The directory is
+ * only listed when there is no manifest yet, to create it.
+ *
+ * <p>In shared mode, several processes write the same active file, see {@link SharedFileAppender}, and coordinate
+ * rollovers through the lock file {@code <fileName>.<extension>.lock}. Its first bytes are mapped in memory and hold
+ * a generation counting the rollovers of the store. A rollover happens while holding a {@link FileLock} on the lock
+ * file: when the generation is still the one of the file this process opened, it rolls the file, updates the
+ * manifest read again from disk, and bumps the generation. Otherwise another process rolled first, and this one only
+ * moves on to the new active file. Each event compares the mapped generation to its own, which costs no system
+ * call, and triggers such a move when another process rolled. As the bytes encoded by this process are only part of
+ * the active file, its actual size is checked again after every {@link #SHARED_SIZE_CHECK_BYTES} encoded, or less
+ * for small files. Events written by other processes just before they notice a rollover end up in the rolled file,
+ * after its size was recorded in the manifest.
+ *
+ * @param <E> event type
+ */
+public class ManifestRollingPolicy<E> extends ContextAwareBase implements RollingPolicy, TriggeringPolicy<E> {
+    public static final String MANIFEST_SUFFIX = ".manifest";
+    public static final String LOCK_SUFFIX = ".lock";
+    public static final long SHARED_SIZE_CHECK_BYTES = 16 * 1024;
+    private static final int GENERATION_BYTES = 8;
+    private static final DateTimeFormatter LABEL_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy_MM_dd_HH").parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0).toFormatter();
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private FileAppender<?> parent;
+    private Path directory;
+    private String fileName;
+    private String extension;
+    private long maxFileSize;
+    private long totalSizeCap;
+    private int maxHistory;
+    private int rolloverMinutes = PersistenceConfig.DEFAULT_ROLLOVER_MINUTES;
+    private DiskQuota.Store quotaStore;
+    private boolean shared;
+    private LongSupplier clock = System::currentTimeMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final LongAdder activeBytes = new LongAdder();
+    // Oldest first
+    private final Deque<RolledFile> rolledFiles = new ArrayDeque<>();
+    private long rolledBytes;
+    private Path manifest;
+    private long periodStart;
+    private long periodEnd;
+    private String periodLabel;
+    private int nextIndex;
+    private volatile boolean started;
+    // Shared mode only
+    private FileChannel lockChannel;
+    private MappedByteBuffer generation;
+    private long openedGeneration;
+    private long nextSizeCheck;
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public void setTotalSizeCap(long totalSizeCap) {
+        this.totalSizeCap = totalSizeCap;
+    }
+
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    public void setRolloverMinutes(int rolloverMinutes) {
+        this.rolloverMinutes = rolloverMinutes;
+    }
+
+    /**
+     * Count the store towards a disk quota, which evicts rolled files through this policy.
+     *
+     * @param quotaStore the store of this policy in the quota
+     */
+    public void setQuotaStore(DiskQuota.Store quotaStore) {
+        this.quotaStore = quotaStore;
+        quotaStore.setPolicy(this);
+    }
+
+    /**
+     * Coordinate rollovers with other processes writing the same active file.
+     *
+     * @param shared true if several processes write the active file
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Count bytes encoded into the active file.
+     *
+     * @param bytes number of bytes
+     */
+    public void written(long bytes) {
+        activeBytes.add(bytes);
+        if (quotaStore != null) {
+            quotaStore.written(bytes);
+        }
+    }
+
+    /**
+     * Get the rolled files listed in the manifest of a store, oldest first, without listing its directory.
+     *
+     * @param directory directory of the store
+     * @param fileName  file name of the store, without extension
+     * @param extension file extension of the store
+     * @return the rolled files, or an empty list if the store has no manifest
+     * @throws IOException if the manifest exists but cannot be read
+     */
+    public static List<Path> readRolledFiles(Path directory, String fileName, String extension) throws IOException {
+        Path manifest = directory.resolve(fileName + "." + extension + MANIFEST_SUFFIX);
+        if (!Files.exists(manifest)) {
+            return Collections.emptyList();
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        List<Path> files = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                String label = LABEL_FORMAT.format(Instant.ofEpochMilli(Long.parseLong(fields[0])).atZone(zone));
+                files.add(directory.resolve(fileName + "_" + label + "_" + Integer.parseInt(fields[1]) + "."
+                        + extension));
+            } catch (NumberFormatException e) {
+                // Line being appended
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public void setParent(FileAppender<?> appender) {
+        this.parent = appender;
+    }
+
+    @Override
+    public String getActiveFileName() {
+        return parent.rawFileProperty();
+    }
+
+    @Override
+    public CompressionMode getCompressionMode() {
+        return CompressionMode.NONE;
+    }
+
+    @Override
+    public void start() {
+        if (parent == null || directory == null || fileName == null || extension == null || maxFileSize <= 0
+                || rolloverMinutes <= 0) {
+            addError("Rolling policy of " + fileName + " is not fully configured");
+            return;
+        }
+        if (shared) {
+            Path lockFile = directory.resolve(fileName + "." + extension + LOCK_SUFFIX);
+            try {
+                Files.createDirectories(directory);
+                lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                generation = lockChannel.map(FileChannel.MapMode.READ_WRITE, 0, GENERATION_BYTES);
+                FileLock lock = lockChannel.lock();
+                try {
+                    openedGeneration = generation.getLong(0);
+                    initialize();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                addError("Failed to open " + lockFile, e);
+                closeLockChannel();
+                return;
+            }
+        } else {
+            initialize();
+        }
+        started = true;
+        if (quotaStore != null) {
+            quotaStore.register();
+        }
+    }
+
+    private synchronized void initialize() {
+        manifest = directory.resolve(fileName + "." + extension + MANIFEST_SUFFIX);
+        activeBytes.reset();
+        long activeSize = new File(getActiveFileName()).length();
+        activeBytes.add(activeSize);
+        nextSizeCheck = activeSize + sizeCheckBytes();
+        rolledFiles.clear();
+        rolledBytes = 0;
+        if (Files.exists(manifest)) {
+            readManifest();
+        } else {
+            listRolledFiles();
+            writeManifest();
+        }
+        startPeriod(clock.getAsLong());
+        if (applyRetention()) {
+            writeManifest();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (quotaStore != null) {
+            quotaStore.unregister();
+        }
+        closeLockChannel();
+        started = false;
+    }
+
+    private void closeLockChannel() {
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                addWarn("Failed to close the lock file of " + fileName, e);
+            }
+            lockChannel = null;
+        }
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isTriggeringEvent(File activeFile, E event) {
+        if (shared) {
+            if (generation.getLong(0) != openedGeneration) {
+                // Rolled by another process, move on to the new active file
+                return true;
+            }
+            if (activeBytes.sum() >= nextSizeCheck) {
+                refreshActiveBytes(activeFile.length());
+            }
+        }
+        if (activeBytes.sum() >= maxFileSize) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        if (now < periodEnd) {
+            return false;
+        }
+        if (activeBytes.sum() == 0) {
+            // Nothing was written in the period, there is nothing to roll
+            synchronized (this) {
+                startPeriod(now);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void rollover() throws RolloverFailure {
+        long start = System.nanoTime();
+        try {
+            Path rolled;
+            synchronized (this) {
+                rolled = shared ? rolloverShared() : roll();
+            }
+            // Outside of the lock, as the quota may evict files of this store through it
+            if (rolled != null && quotaStore != null) {
+                quotaStore.rolled(rolled);
+            }
+        } finally {
+            if (LoggingInstrumentation.ENABLED) {
+                LoggingInstrumentation.rollover().record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Roll the active file unless another process did since this one opened it, while holding the lock file.
+     *
+     * @return the rolled file, or null if another process rolled
+     */
+    private Path rolloverShared() throws RolloverFailure {
+        try {
+            FileLock lock = lockChannel.lock();
+            try {
+                reloadManifest();
+                nextIndex = Math.max(nextIndex, nextIndex(periodLabel));
+                long current = generation.getLong(0);
+                Path rolled = null;
+                if (current == openedGeneration) {
+                    rolled = roll();
+                    current++;
+                    generation.putLong(0, current);
+                } else {
+                    long now = clock.getAsLong();
+                    if (now >= periodEnd) {
+                        startPeriod(now);
+                    }
+                }
+                openedGeneration = current;
+                // Other processes may have written to the new active file already
+                refreshActiveBytes(new File(getActiveFileName()).length());
+                return rolled;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new RolloverFailure("Failed to lock the lock file of " + fileName, e);
+        }
+    }
+
+    private Path roll() throws RolloverFailure {
+        Path active = Paths.get(getActiveFileName());
+        RolledFile rolled;
+        do {
+            rolled = new RolledFile(periodStart, periodLabel, nextIndex++, 0);
+        } while (Files.exists(rolled.path()));
+        try {
+            Files.move(active, rolled.path());
+        } catch (IOException e) {
+            throw new RolloverFailure("Failed to roll " + active + " into " + rolled.path(), e);
+        }
+        rolled = new RolledFile(periodStart, periodLabel, rolled.index, size(rolled.path()));
+        activeBytes.reset();
+        rolledFiles.addLast(rolled);
+        rolledBytes += rolled.size;
+        long now = clock.getAsLong();
+        if (now >= periodEnd) {
+            startPeriod(now);
+        }
+        if (applyRetention()) {
+            writeManifest();
+        } else {
+            appendManifest(rolled);
+        }
+        return rolled.path();
+    }
+
+    /**
+     * Delete a rolled file for the disk quota, and remove it from the manifest so that retention and the readers of
+     * the manifest no longer count it. In shared mode, this holds the lock file like a rollover.
+     *
+     * @param file the rolled file
+     * @return true if the file was deleted, false if it didn't exist
+     * @throws IOException if the file cannot be deleted or the lock file cannot be locked
+     */
+    synchronized boolean evict(Path file) throws IOException {
+        FileLock lock = shared && lockChannel != null ? lockChannel.lock() : null;
+        try {
+            if (lock != null || !started) {
+                // Other processes, or the policy which replaced this one, may have updated the manifest since
+                reloadManifest();
+            }
+            Path evicted = file.toAbsolutePath();
+            Iterator<RolledFile> files = rolledFiles.iterator();
+            while (files.hasNext()) {
+                RolledFile rolled = files.next();
+                if (rolled.path().toAbsolutePath().equals(evicted)) {
+                    files.remove();
+                    rolledBytes -= rolled.size;
+                    writeManifest();
+                    break;
+                }
+            }
+            return Files.deleteIfExists(file);
+        } finally {
+            if (lock != null) {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Compute the period containing the given time and where it ends, which is at the latest the next midnight.
+     */
+    private void startPeriod(long now) {
+        ZonedDateTime midnight = Instant.ofEpochMilli(now).atZone(zone).toLocalDate().atStartOfDay(zone);
+        long dayStart = midnight.toInstant().toEpochMilli();
+        long period = rolloverMinutes * MINUTE_MILLIS;
+        periodStart = dayStart + (now - dayStart) / period * period;
+        periodEnd = Math.min(periodStart + period, midnight.plusDays(1).toInstant().toEpochMilli());
+        String label = label(periodStart);
+        if (!label.equals(periodLabel)) {
+            periodLabel = label;
+            nextIndex = nextIndex(label);
+        }
+    }
+
+    /**
+     * Get the index following those of the rolled files of the hour with the given label.
+     */
+    private int nextIndex(String label) {
+        int index = 0;
+        for (RolledFile rolled : rolledFiles) {
+            if (label.equals(rolled.label)) {
+                index = Math.max(index, rolled.index + 1);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Count the active file from its actual size, including the bytes written by other processes.
+     */
+    private void refreshActiveBytes(long activeSize) {
+        activeBytes.reset();
+        activeBytes.add(activeSize);
+        nextSizeCheck = activeSize + sizeCheckBytes();
+    }
+
+    private long sizeCheckBytes() {
+        return Math.max(1, Math.min(SHARED_SIZE_CHECK_BYTES, maxFileSize / 16));
+    }
+
+    /**
+     * Delete the oldest rolled files while over the size cap or the max history.
+     *
+     * @return true if any file was removed from the manifest
+     */
+    private boolean applyRetention() {
+        long cutoff = maxHistory > 0 ? periodStart - (long) maxHistory * rolloverMinutes * MINUTE_MILLIS
+                : Long.MIN_VALUE;
+        boolean removed = false;
+        while (!rolledFiles.isEmpty() && (totalSizeCap > 0 && rolledBytes > totalSizeCap
+                || rolledFiles.peekFirst().periodStart < cutoff)) {
+            RolledFile oldest = rolledFiles.pollFirst();
+            rolledBytes -= oldest.size;
+            removed = true;
+            try {
+                // May already have been deleted for the disk quota
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                addWarn("Failed to delete rolled file " + oldest.path(), e);
+            }
+            if (quotaStore != null) {
+                quotaStore.deleted(oldest.path());
+            }
+        }
+        return removed;
+    }
+
+    private void reloadManifest() {
+        rolledFiles.clear();
+        rolledBytes = 0;
+        if (manifest != null && Files.exists(manifest)) {
+            readManifest();
+        }
+    }
+
+    private void readManifest() {
+        try {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(" ");
+                if (fields.length != 3) {
+                    continue;
+                }
+                long start = Long.parseLong(fields[0]);
+                RolledFile rolled = new RolledFile(start, label(start), Integer.parseInt(fields[1]),
+                        Long.parseLong(fields[2]));
+                rolledFiles.addLast(rolled);
+                rolledBytes += rolled.size;
+            }
+        } catch (IOException | NumberFormatException e) {
+            addWarn("Failed to read " + manifest + ", listing the rolled files instead", e);
+            rolledFiles.clear();
+            rolledBytes = 0;
+            listRolledFiles();
+            writeManifest();
+        }
+    }
+
+    /**
+     * Find the rolled files of the store in its directory, to create the manifest.
+     */
+    private void listRolledFiles() {
+        String prefix = fileName + "_";
+        String suffix = "." + extension;
+        List<RolledFile> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = String.valueOf(file.getFileName());
+                if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+                    continue;
+                }
+                String labelAndIndex = name.substring(prefix.length(), name.length() - suffix.length());
+                int separator = labelAndIndex.lastIndexOf('_');
+                try {
+                    String label = labelAndIndex.substring(0, Math.max(separator, 0));
+                    long start = LocalDateTime.parse(label, LABEL_FORMAT).atZone(zone).toInstant().toEpochMilli();
+                    found.add(new RolledFile(start, label, Integer.parseInt(labelAndIndex.substring(separator + 1)),
+                            size(file)));
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    // Not a rolled file of this store
+                }
+            }
+        } catch (IOException e) {
+            // No directory yet, nothing rolled
+            return;
+        }
+        found.sort(Comparator.comparingLong((RolledFile f) -> f.periodStart).thenComparingInt(f -> f.index));
+        for (RolledFile rolled : found) {
+            rolledFiles.addLast(rolled);
+            rolledBytes += rolled.size;
+        }
+    }
+
+    private void appendManifest(RolledFile rolled) {
+        try {
+            Files.write(manifest, rolled.manifestLine().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            addWarn("Failed to update " + manifest, e);
+        }
+    }
+
+    private void writeManifest() {
+        StringBuilder lines = new StringBuilder();
+        for (RolledFile rolled : rolledFiles) {
+            lines.append(rolled.manifestLine());
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temp = directory.resolve(fileName + "." + extension + MANIFEST_SUFFIX + ".tmp");
+            Files.write(temp, lines.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            addWarn("Failed to write " + manifest, e);
+        }
+    }
+
+    private String label(long periodStart) {
+        return LABEL_FORMAT.format(Instant.ofEpochMilli(periodStart).atZone(zone));
+    }
+
+    private static long size(Path file) {
+        return file.toFile().length();
+    }
+
+    private final class RolledFile {
+        private final long periodStart;
+        private final String label;
+        private final int index;
+        private final long size;
+
+        RolledFile(long periodStart, String label, int index, long size) {
+            this.periodStart = periodStart;
+            this.label = label;
+            this.index = index;
+            this.size = size;
+        }
+
+        Path path() {
+            return directory.resolve(fileName + "_" + label + "_" + index + "." + extension);
+        }
+
+        String manifestLine() {
+            return periodStart + " " + index + " " + size + "\n";
+        }
+    }
+}
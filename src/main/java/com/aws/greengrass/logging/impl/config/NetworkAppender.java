@@ -0,0 +1,477 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender for {@link LogStore#NETWORK} streaming events to a syslog daemon or any collector reading octet-counted
+ * frames over TCP (RFC 6587), so that logs can be collected without writing them to local storage.
+ *
+ * <p>Each event is framed as {@code <length> <message>}, the message being the serialized event, prefixed by an
+ * RFC 5424 header when syslog is enabled. Logging threads only frame the event and add it to a queue bounded by
+ * bytes. One writer thread copies queued frames into a direct buffer and writes each batch to a
+ * {@link SocketChannel}. When the connection fails, the writer reconnects with exponential backoff, and meanwhile
+ * moves queued frames to a spill file once the queue is half full. On reconnection, the spill file is sent before
+ * the queue, so frames keep their order. Frames which don't fit in the spill file are dropped and counted, see
+ * {@link #getDroppedCount()}. The spill file also keeps frames across a restart, as stopping the appender while
+ * disconnected spills everything queued.
+ */
+public class NetworkAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    public static final String DEFAULT_HOST = "localhost";
+    public static final int DEFAULT_PORT = 514;
+    public static final long DEFAULT_BUFFER_KB = 1024;
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+    // Facility "user"
+    private static final int FACILITY = 1;
+    private static final int SPILL_LENGTH_BYTES = 4;
+
+    private final InetSocketAddress address;
+    private final boolean syslog;
+    private final long bufferBytes;
+    private final Path spillFile;
+    private final long spillLimitBytes;
+    private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR",
+            justification = "Set before start, which requires it")
+    private Encoder<ILoggingEvent> encoder;
+    private String appName = "-";
+    private String headerSuffix;
+    private Thread writer;
+    private Thread shutdownHook;
+    private volatile boolean stopping;
+
+    // Only used by the writer thread
+    private WritableByteChannel channel;
+    private FileChannel spill;
+    private long spillReadPosition;
+
+    /**
+     * Create an appender.
+     *
+     * @param address         collector address
+     * @param syslog          true to prefix messages with an RFC 5424 header
+     * @param bufferBytes     bytes of frames to hold in memory
+     * @param spillFile       file holding frames while the collector is unreachable
+     * @param spillLimitBytes size the spill file may grow to
+     */
+    public NetworkAppender(InetSocketAddress address, boolean syslog, long bufferBytes, Path spillFile,
+                           long spillLimitBytes) {
+        super();
+        this.address = address;
+        this.syslog = syslog;
+        this.bufferBytes = bufferBytes;
+        this.spillFile = spillFile;
+        this.spillLimitBytes = spillLimitBytes;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Set the APP-NAME of the syslog header.
+     *
+     * @param appName application name, without spaces
+     */
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    /**
+     * Get the number of events dropped because neither the queue nor the spill file had room for them.
+     *
+     * @return number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named \"" + name + "\".");
+            return;
+        }
+        headerSuffix = " " + hostName() + " " + appName + " " + processId() + " - - ";
+        stopping = false;
+        writer = new Thread(this::run, "gg-network-writer");
+        writer.setDaemon(true);
+        writer.start();
+        shutdownHook = new Thread(this::stop, "gg-network-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] frame = frame(event, encoder.encode(event));
+        long queued = queuedBytes.addAndGet(frame.length);
+        if (queued > bufferBytes) {
+            queuedBytes.addAndGet(-frame.length);
+            drop();
+            return;
+        }
+        queue.add(frame);
+        if (queued == frame.length || queued > bufferBytes / 2 && queued - frame.length <= bufferBytes / 2) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        stopping = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    /**
+     * Frame an event as {@code <length> <message>}, without the line separator of the encoder.
+     */
+    private byte[] frame(ILoggingEvent event, byte[] encoded) {
+        int length = encoded.length;
+        while (length > 0 && (encoded[length - 1] == '\n' || encoded[length - 1] == '\r')) {
+            length--;
+        }
+        byte[] header = syslog ? ("<" + (FACILITY * 8 + severity(event.getLevel())) + ">1 "
+                + DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(event.getTimeStamp())) + headerSuffix)
+                .getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] prefix = ((header.length + length) + " ").getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = new byte[prefix.length + header.length + length];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(header, 0, frame, prefix.length, header.length);
+        System.arraycopy(encoded, 0, frame, prefix.length + header.length, length);
+        return frame;
+    }
+
+    private static int severity(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                return 3;
+            case Level.WARN_INT:
+                return 4;
+            case Level.INFO_INT:
+                return 6;
+            default:
+                return 7;
+        }
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        List<byte[]> batch = new ArrayList<>();
+        long backoff = MIN_BACKOFF_MILLIS;
+        long retryAt = 0;
+        boolean warned = false;
+        while (true) {
+            boolean stop = stopping;
+            if (channel == null && System.currentTimeMillis() >= retryAt) {
+                try {
+                    connect();
+                    backoff = MIN_BACKOFF_MILLIS;
+                    warned = false;
+                } catch (IOException e) {
+                    if (!warned) {
+                        addWarn("Failed to connect to " + address + ", retrying", e);
+                        warned = true;
+                    }
+                    retryAt = System.currentTimeMillis() + backoff;
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+            if (channel != null) {
+                try {
+                    sendSpilled(buffer);
+                    sendQueued(buffer, batch);
+                } catch (IOException e) {
+                    addWarn("Lost connection to " + address + ", reconnecting", e);
+                    // Unknown how much of the batch was received, so send it again
+                    batch.forEach(this::spill);
+                    batch.clear();
+                    buffer.clear();
+                    disconnect();
+                    retryAt = System.currentTimeMillis();
+                }
+            }
+            if (channel == null) {
+                spillQueued(stop ? 0 : bufferBytes / 2);
+            }
+            if (stop) {
+                disconnect();
+                closeSpill();
+                return;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+
+    private void connect() throws IOException {
+        // Resolve again on each attempt, in case the collector moved
+        channel = open(new InetSocketAddress(address.getHostString(), address.getPort()));
+    }
+
+    /**
+     * Open a connection to the collector.
+     *
+     * @param collector address of the collector
+     * @return the connected channel
+     * @throws IOException if the collector cannot be reached
+     */
+    WritableByteChannel open(InetSocketAddress collector) throws IOException {
+        SocketChannel connecting = SocketChannel.open();
+        try {
+            connecting.socket().connect(collector, CONNECT_TIMEOUT_MILLIS);
+            connecting.socket().setTcpNoDelay(true);
+        } catch (IOException e) {
+            connecting.close();
+            throw e;
+        }
+        return connecting;
+    }
+
+    private void disconnect() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Reconnecting anyway
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Send queued frames in batches of up to the buffer size.
+     */
+    private void sendQueued(ByteBuffer buffer, List<byte[]> batch) throws IOException {
+        byte[] frame;
+        while ((frame = queue.poll()) != null) {
+            queuedBytes.addAndGet(-frame.length);
+            // In the batch before any write, so that it is spilled if the connection fails
+            batch.add(frame);
+            if (frame.length > buffer.remaining()) {
+                write(buffer);
+                batch.subList(0, batch.size() - 1).clear();
+            }
+            if (frame.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(frame));
+                batch.clear();
+            } else {
+                buffer.put(frame);
+            }
+        }
+        write(buffer);
+        batch.clear();
+    }
+
+    /**
+     * Send the frames of the spill file, and empty it once they are all sent. The read position only moves past
+     * frames once they are written, so after a failure the next connection starts again at a frame boundary.
+     */
+    private void sendSpilled(ByteBuffer buffer) throws IOException {
+        if (spill == null && Files.exists(spillFile)) {
+            openSpill();
+        }
+        if (spill == null) {
+            return;
+        }
+        final long size = spill.size();
+        ByteBuffer length = ByteBuffer.allocate(SPILL_LENGTH_BYTES);
+        long batchEnd = spillReadPosition;
+        while (batchEnd < size) {
+            length.clear();
+            readFully(length, batchEnd);
+            int frameLength = length.getInt(0);
+            if (frameLength < 0 || batchEnd + SPILL_LENGTH_BYTES + frameLength > size) {
+                addWarn("Discarding corrupted end of spill file " + spillFile);
+                break;
+            }
+            if (frameLength > buffer.remaining()) {
+                write(buffer);
+                spillReadPosition = batchEnd;
+            }
+            ByteBuffer frame;
+            if (frameLength > buffer.capacity()) {
+                frame = ByteBuffer.allocate(frameLength);
+            } else {
+                frame = buffer.slice();
+                frame.limit(frameLength);
+            }
+            readFully(frame, batchEnd + SPILL_LENGTH_BYTES);
+            batchEnd += SPILL_LENGTH_BYTES + frameLength;
+            if (frameLength > buffer.capacity()) {
+                frame.flip();
+                writeFully(frame);
+                spillReadPosition = batchEnd;
+            } else {
+                buffer.position(buffer.position() + frameLength);
+            }
+        }
+        write(buffer);
+        spill.truncate(0);
+        spillReadPosition = 0;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (spill.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of " + spillFile);
+            }
+        }
+    }
+
+    /**
+     * Move queued frames to the spill file until the queue holds no more than the given bytes.
+     */
+    private void spillQueued(long keepBytes) {
+        while (queuedBytes.get() > keepBytes) {
+            byte[] frame = queue.poll();
+            if (frame == null) {
+                return;
+            }
+            queuedBytes.addAndGet(-frame.length);
+            spill(frame);
+        }
+    }
+
+    private void spill(byte[] frame) {
+        try {
+            if (spill == null) {
+                openSpill();
+            }
+            long size = spill.size();
+            if (size + SPILL_LENGTH_BYTES + frame.length > spillLimitBytes) {
+                drop();
+                return;
+            }
+            ByteBuffer record = ByteBuffer.allocate(SPILL_LENGTH_BYTES + frame.length);
+            record.putInt(frame.length).put(frame).flip();
+            while (record.hasRemaining()) {
+                spill.write(record, size + record.position());
+            }
+        } catch (IOException e) {
+            addError("Failed to spill to " + spillFile, e);
+            drop();
+        }
+    }
+
+    private void openSpill() throws IOException {
+        Path parent = spillFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        spillReadPosition = 0;
+    }
+
+    private void closeSpill() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            boolean empty = spill.size() == 0;
+            spill.close();
+            if (empty) {
+                Files.deleteIfExists(spillFile);
+            }
+        } catch (IOException e) {
+            addWarn("Failed to close " + spillFile, e);
+        }
+        spill = null;
+    }
+
+    private void drop() {
+        dropped.increment();
+        LoggingInstrumentation.recordDropped(LogStore.NETWORK.name(), 1);
+    }
+
+    /**
+     * Write out the batch collected in the buffer and clear it.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "-";
+        }
+    }
+
+    private static String processId() {
+        // "<pid>@<host>" on the JVMs we run on
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int at = name.indexOf('@');
+        return at > 0 ? name.substring(0, at) : "-";
+    }
+}
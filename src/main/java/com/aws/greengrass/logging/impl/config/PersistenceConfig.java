@@ -8,18 +8,19 @@ package com.aws.greengrass.logging.impl.config;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.encoder.EncoderBase;
 import ch.qos.logback.core.rolling.RollingFileAppender;
-import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
-import ch.qos.logback.core.util.Duration;
 import ch.qos.logback.core.util.FileSize;
 import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.event.Level;
 
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,6 +28,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * PersistenceConfig groups the persistence configuration for monitoring data.
@@ -36,6 +38,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class PersistenceConfig {
     public static final String STORAGE_TYPE_SUFFIX = ".store";
     public static final String DATA_FORMAT_SUFFIX = ".fmt";
+    public static final String TEXT_PATTERN_SUFFIX = ".fmt.pattern";
     public static final String TOTAL_STORE_SIZE_SUFFIX = ".file.sizeInKB";
     public static final String TOTAL_FILE_SIZE_SUFFIX = ".file.fileSizeInKB";
     public static final String DIRECTORY_PATH_SUFFIX = ".directory";
@@ -43,7 +46,21 @@ public class PersistenceConfig {
     public static final String APPENDER_PREFIX = "gg-";
     public static final long DEFAULT_MAX_SIZE_IN_KB = 1024 * 10L; // set 10 MB to be the default max size
     public static final int DEFAULT_MAX_FILE_SIZE_IN_KB = 1024; // set 1 MB to be the default max file size
+    public static final String ROLLOVER_MINUTES_SUFFIX = ".file.rolloverMinutes";
+    public static final String SHARED_FILE_SUFFIX = ".file.shared";
+    public static final String NETWORK_HOST_SUFFIX = ".network.host";
+    public static final String NETWORK_PORT_SUFFIX = ".network.port";
+    public static final String NETWORK_SYSLOG_SUFFIX = ".network.syslog";
+    public static final String NETWORK_BUFFER_SIZE_SUFFIX = ".network.bufferSizeInKB";
+    public static final String NETWORK_SPILL_SUFFIX = ".spill";
+    /**
+     * Never applied, see {@link #DEFAULT_ROLLOVER_MINUTES}.
+     *
+     * @deprecated files roll over every {@link #DEFAULT_ROLLOVER_MINUTES} by default
+     */
+    @Deprecated
     public static final int DEFAULT_FILE_ROLLOVER_TIME_MINS = 15; // set 15 mins.
+    public static final int DEFAULT_ROLLOVER_MINUTES = 60; // roll over every hour
     public static final String DEFAULT_STORAGE_TYPE = LogStore.CONSOLE.name();
     public static final String DEFAULT_DATA_FORMAT = LogFormat.TEXT.name();
     public static final String DEFAULT_STORE_NAME = "greengrass";
@@ -57,14 +74,18 @@ public class PersistenceConfig {
     protected Path storeDirectory;
     @Setter
     protected LogFormat format;
+    @Getter
+    protected TextLayout textLayout;
     @Setter
     protected Level level;
     protected long fileSizeKB;
     protected long totalLogStoreSizeKB;
+    protected int rolloverMinutes;
+    protected boolean sharedFile;
     protected Logger logger;
     protected String fileName;
     private final Map<String, RollingFileAppender<ILoggingEvent>> logFileAppenders = new ConcurrentHashMap<>();
-    private final Map<String, ConsoleAppender<ILoggingEvent>> logConsoleAppenders = new ConcurrentHashMap<>();
+    private final Map<String, Appender<ILoggingEvent>> logConsoleAppenders = new ConcurrentHashMap<>();
 
     /**
      * Get default PersistenceConfig from system properties.
@@ -97,6 +118,15 @@ public class PersistenceConfig {
         }
         this.format = format;
 
+        TextLayout textLayout;
+        try {
+            textLayout = TextLayout.compile(System.getProperty(extension + TEXT_PATTERN_SUFFIX,
+                    TextLayout.DEFAULT_PATTERN));
+        } catch (IllegalArgumentException e) {
+            textLayout = TextLayout.DEFAULT;
+        }
+        this.textLayout = textLayout;
+
         long totalLogStoreSizeKB;
         try {
             totalLogStoreSizeKB = Long.parseLong(System.getProperty(extension + TOTAL_STORE_SIZE_SUFFIX));
@@ -122,6 +152,8 @@ public class PersistenceConfig {
 
         this.fileSizeKB = fileSizeKB;
         this.totalLogStoreSizeKB = totalLogStoreSizeKB;
+        this.rolloverMinutes = Integer.getInteger(extension + ROLLOVER_MINUTES_SUFFIX, DEFAULT_ROLLOVER_MINUTES);
+        this.sharedFile = Boolean.getBoolean(extension + SHARED_FILE_SUFFIX);
 
         initializeStoreDirectory(extension, directory);
     }
@@ -139,6 +171,16 @@ public class PersistenceConfig {
         reconfigure();
     }
 
+    /**
+     * Change the pattern of the {@link LogFormat#TEXT} format.
+     *
+     * @param pattern pattern, see {@link TextLayout}
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public void setTextPattern(String pattern) {
+        this.textLayout = TextLayout.compile(pattern);
+    }
+
     /**
      * Change the configured store directory (only applies for file output).
      *
@@ -229,8 +271,17 @@ public class PersistenceConfig {
         return Optional.of(fileName.substring(0, pos));
     }
 
+    /**
+     * Create the appenders if that is deferred until first use. Does nothing by default.
+     */
+    public void initialize() {
+    }
+
     protected void reconfigure() {
-        reconfigure(logger);
+        // Not configured yet, the appenders are created with the current settings on first use
+        if (logger != null) {
+            reconfigure(logger);
+        }
     }
 
     protected synchronized void reconfigure(Logger loggerToConfigure) {
@@ -280,13 +331,15 @@ public class PersistenceConfig {
                 a.stop();
             }
         });
-        if (LogStore.CONSOLE.equals(store)) {
-            final ConsoleAppender<ILoggingEvent> originalAppender =
+        if (LogStore.CONSOLE.equals(store) || LogStore.CONSOLE_ASYNC.equals(store) || LogStore.NETWORK.equals(store)) {
+            final Appender<ILoggingEvent> originalAppender =
                     logConsoleAppenders.getOrDefault(loggerToConfigure.getName(), null);
             final RollingFileAppender<ILoggingEvent> fileAppender =
                     logFileAppenders.getOrDefault(loggerToConfigure.getName(), null);
-            final ConsoleAppender<ILoggingEvent> newConsoleAppender =
-                    getAppenderForConsole(loggerToConfigure, APPENDER_PREFIX + "console");
+            final Appender<ILoggingEvent> newConsoleAppender = LogStore.NETWORK.equals(store)
+                    ? getAppenderForNetwork(loggerToConfigure, APPENDER_PREFIX + "network", fileName,
+                    totalLogStoreSizeKB)
+                    : getAppenderForConsole(loggerToConfigure, APPENDER_PREFIX + "console");
             newConsoleAppender.start();
             // Add the replacement
             loggerToConfigure.addAppender(newConsoleAppender);
@@ -305,7 +358,7 @@ public class PersistenceConfig {
         } else if (LogStore.FILE.equals(store)) {
             final RollingFileAppender<ILoggingEvent> originalAppender =
                     logFileAppenders.getOrDefault(loggerToConfigure.getName(), null);
-            final ConsoleAppender<ILoggingEvent> consoleAppender =
+            final Appender<ILoggingEvent> consoleAppender =
                     logConsoleAppenders.getOrDefault(loggerToConfigure.getName(), null);
             final RollingFileAppender<ILoggingEvent> newLogFileAppender = getAppenderForFile(loggerToConfigure,
                     APPENDER_PREFIX + loggerToConfigure.getName(),
@@ -334,35 +387,47 @@ public class PersistenceConfig {
     protected RollingFileAppender<ILoggingEvent> getAppenderForFile(Logger loggerToConfigure, String appenderName,
                                                                     String loggerStoreName, long totalLogStoreSizeKB,
                                                                     long fileSizeKB, String fileName) {
+        return getAppenderForFile(loggerToConfigure, appenderName, loggerStoreName, storeDirectory,
+                totalLogStoreSizeKB, fileSizeKB, fileName);
+    }
+
+    /**
+     * Create a rolling file appender whose rolled files are kept in the given directory, independently of the store
+     * directory of this config. The appender is not started.
+     */
+    protected RollingFileAppender<ILoggingEvent> getAppenderForFile(Logger loggerToConfigure, String appenderName,
+                                                                    String loggerStoreName, Path storeDirectory,
+                                                                    long totalLogStoreSizeKB, long fileSizeKB,
+                                                                    String fileName) {
         LoggerContext logCtx = loggerToConfigure.getLoggerContext();
-        BasicEncoder basicEncoder = new BasicEncoder();
+        // Several processes may write the same file, see SharedFileAppender
+        RollingFileAppender<ILoggingEvent> fileAppender =
+                sharedFile ? new SharedFileAppender<>() : new RollingFileAppender<>();
+        // Max History is needed along with total cap size.
+        int maxHistory = Math.toIntExact((totalLogStoreSizeKB * FileSize.KB_COEFFICIENT)
+                / (fileSizeKB * FileSize.KB_COEFFICIENT));
+        ManifestRollingPolicy<ILoggingEvent> logFilePolicy = new ManifestRollingPolicy<>();
+        logFilePolicy.setContext(logCtx);
+        logFilePolicy.setParent(fileAppender);
+        logFilePolicy.setDirectory(storeDirectory);
+        logFilePolicy.setFileName(fileName);
+        logFilePolicy.setExtension(extension);
+        logFilePolicy.setMaxFileSize(fileSizeKB * FileSize.KB_COEFFICIENT);
+        logFilePolicy.setTotalSizeCap(totalLogStoreSizeKB * FileSize.KB_COEFFICIENT);
+        logFilePolicy.setMaxHistory(maxHistory);
+        logFilePolicy.setRolloverMinutes(rolloverMinutes);
+        logFilePolicy.setShared(sharedFile);
+        logFilePolicy.setQuotaStore(DiskQuota.getInstance().newStore(Paths.get(loggerStoreName).toAbsolutePath(),
+                storeDirectory, fileName + "_", "." + extension, getQuotaPriority()));
+
+        BasicEncoder basicEncoder = new BasicEncoder(fileName, logFilePolicy);
         basicEncoder.setContext(logCtx);
         basicEncoder.start();
-        RollingFileAppender<ILoggingEvent> fileAppender = new RollingFileAppender<>();
         fileAppender.setContext(logCtx);
         fileAppender.setName(appenderName);
         fileAppender.setAppend(true);
         fileAppender.setFile(loggerStoreName);
         fileAppender.setEncoder(basicEncoder);
-
-        //TODO: Check how to make it rotate per x minutes.
-
-        // Max History is needed along with total cap size.
-        int maxHistory = Math.toIntExact((totalLogStoreSizeKB * FileSize.KB_COEFFICIENT)
-                / (fileSizeKB * FileSize.KB_COEFFICIENT));
-        SizeAndTimeBasedRollingPolicy<ILoggingEvent> logFilePolicy = new SizeAndTimeBasedRollingPolicy<>();
-        logFilePolicy.setContext(logCtx);
-        logFilePolicy.setParent(fileAppender);
-        logFilePolicy.setTotalSizeCap(new FileSize(totalLogStoreSizeKB * FileSize.KB_COEFFICIENT));
-        logFilePolicy.setFileNamePattern(storeDirectory.resolve(fileName + "_%d{yyyy_MM_dd_HH}_%i" + "." + extension)
-                .toString());
-        logFilePolicy.setMaxFileSize(new FileSize(fileSizeKB * FileSize.KB_COEFFICIENT));
-        logFilePolicy.setMaxHistory(maxHistory);
-        // TODO - consider letting customers configure how often GG should check logs for rollover / cleanup
-        // Check every 2.0 second for now
-        logFilePolicy.setCheckIncrement(Duration.buildBySeconds(2.0));
-        logFilePolicy.setCleanLogsByLastModifiedDate(true);
-        logFilePolicy.setCleanHistoryOnStart(true);
         logFilePolicy.start();
 
         fileAppender.setRollingPolicy(logFilePolicy);
@@ -370,11 +435,18 @@ public class PersistenceConfig {
         return fileAppender;
     }
 
-    protected ConsoleAppender<ILoggingEvent> getAppenderForConsole(Logger loggerToConfigure, String appenderName) {
+    protected Appender<ILoggingEvent> getAppenderForConsole(Logger loggerToConfigure, String appenderName) {
         LoggerContext logCtx = loggerToConfigure.getLoggerContext();
-        BasicEncoder basicEncoder = new BasicEncoder();
+        BasicEncoder basicEncoder = new BasicEncoder(store.name(), null);
         basicEncoder.setContext(logCtx);
         basicEncoder.start();
+        if (LogStore.CONSOLE_ASYNC.equals(store)) {
+            AsyncConsoleAppender asyncAppender = new AsyncConsoleAppender();
+            asyncAppender.setContext(logCtx);
+            asyncAppender.setName(appenderName);
+            asyncAppender.setEncoder(basicEncoder);
+            return asyncAppender;
+        }
         ConsoleAppender<ILoggingEvent> consoleAppender = new ConsoleAppender<>();
         consoleAppender.setContext(logCtx);
         consoleAppender.setName(appenderName);
@@ -382,7 +454,50 @@ public class PersistenceConfig {
         return consoleAppender;
     }
 
+    /**
+     * Create an appender streaming to the collector configured by the network properties of this config, spilling
+     * up to the total store size to the store directory while the collector is unreachable. The appender is not
+     * started.
+     */
+    protected NetworkAppender getAppenderForNetwork(Logger loggerToConfigure, String appenderName, String fileName,
+                                                    long totalLogStoreSizeKB) {
+        LoggerContext logCtx = loggerToConfigure.getLoggerContext();
+        BasicEncoder basicEncoder = new BasicEncoder(store.name(), null);
+        basicEncoder.setContext(logCtx);
+        basicEncoder.start();
+        InetSocketAddress address = new InetSocketAddress(
+                System.getProperty(extension + NETWORK_HOST_SUFFIX, NetworkAppender.DEFAULT_HOST),
+                Integer.getInteger(extension + NETWORK_PORT_SUFFIX, NetworkAppender.DEFAULT_PORT));
+        boolean syslog = Boolean.parseBoolean(System.getProperty(extension + NETWORK_SYSLOG_SUFFIX, "true"));
+        long bufferSizeKB = Long.getLong(extension + NETWORK_BUFFER_SIZE_SUFFIX, NetworkAppender.DEFAULT_BUFFER_KB);
+        NetworkAppender networkAppender = new NetworkAppender(address, syslog, bufferSizeKB * FileSize.KB_COEFFICIENT,
+                storeDirectory.resolve(fileName + "." + extension + NETWORK_SPILL_SUFFIX),
+                totalLogStoreSizeKB * FileSize.KB_COEFFICIENT);
+        networkAppender.setContext(logCtx);
+        networkAppender.setName(appenderName);
+        networkAppender.setAppName(fileName);
+        networkAppender.setEncoder(basicEncoder);
+        return networkAppender;
+    }
+
+    /**
+     * Get the priority with which the {@link DiskQuota} evicts the rolled files of the stores of this config.
+     *
+     * @return eviction priority
+     */
+    protected DiskQuotaPriority getQuotaPriority() {
+        return DiskQuotaPriority.NORMAL;
+    }
+
     private static class BasicEncoder extends EncoderBase<ILoggingEvent> {
+        private final LongAdder bytesWritten;
+        private final ManifestRollingPolicy<ILoggingEvent> rollingPolicy;
+
+        BasicEncoder(String storeName, ManifestRollingPolicy<ILoggingEvent> rollingPolicy) {
+            this.bytesWritten = LoggingInstrumentation.ENABLED ? LoggingInstrumentation.bytesWritten(storeName) : null;
+            this.rollingPolicy = rollingPolicy;
+        }
+
         @Override
         public byte[] headerBytes() {
             return new byte[0];
@@ -390,7 +505,14 @@ public class PersistenceConfig {
 
         @Override
         public byte[] encode(ILoggingEvent event) {
-            return (event.getFormattedMessage() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = (event.getFormattedMessage() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            if (LoggingInstrumentation.ENABLED) {
+                bytesWritten.add(bytes.length);
+            }
+            if (rollingPolicy != null) {
+                rollingPolicy.written(bytes.length);
+            }
+            return bytes;
         }
 
         @Override
@@ -0,0 +1,44 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.core.rolling.RollingFileAppender;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rolling file appender for an active file written by several processes at once.
+ *
+ * <p>The file is opened in append mode without any buffering, so each event is appended by a single write of its
+ * whole record at the end of the file, and records of different processes never interleave mid-line. Unlike the
+ * prudent mode of logback, writes take no lock: the {@link ManifestRollingPolicy} in shared mode only locks to
+ * coordinate rollovers.
+ *
+ * @param <E> event type
+ */
+public class SharedFileAppender<E> extends RollingFileAppender<E> {
+    @Override
+    public void openFile(String fileName) throws IOException {
+        streamWriteLock.lock();
+        try {
+            Path file = Paths.get(fileName).toAbsolutePath();
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            setOutputStream(Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import com.aws.greengrass.logging.impl.ContextMap;
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layout of messages in the {@link LogFormat#TEXT} format, compiled once from a pattern into an array of writers
+ * appending to a buffer reused by each thread.
+ *
+ * <p>A pattern is literal text with fields, written {@code %timestamp}, {@code %level}, {@code %thread},
+ * {@code %logger}, {@code %eventType}, {@code %message} or {@code %contexts}, and {@code %%} for a percent sign.
+ * {@code %join{separator}(field,...)} writes the given fields which aren't null or empty, separated by the separator,
+ * {@code ". "} when omitted. The stack trace of the cause, if any, always follows the pattern on the next line. The
+ * {@link #DEFAULT_PATTERN} writes, for example:
+ * {@code 2024-01-01T10:00:00.000Z [INFO] (main) com.example.Service: service-start. Started. {port=8080}}
+ */
+public final class TextLayout {
+    public static final String DEFAULT_PATTERN =
+            "%timestamp [%level] (%thread) %logger: %join{. }(eventType,message,contexts)";
+    public static final TextLayout DEFAULT = compile(DEFAULT_PATTERN);
+    private static final String DEFAULT_SEPARATOR = ". ";
+    private static final String JOIN = "join";
+    // Larger buffers are not kept for the next message
+    private static final int MAX_REUSED_CAPACITY = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String pattern;
+    private final FieldWriter[] writers;
+
+    private TextLayout(String pattern, FieldWriter[] writers) {
+        this.pattern = pattern;
+        this.writers = writers;
+    }
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern pattern, see {@link TextLayout}
+     * @return the layout
+     * @throws IllegalArgumentException if the pattern has an unknown field or an incomplete join
+     */
+    public static TextLayout compile(String pattern) {
+        List<FieldWriter> writers = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i < pattern.length() && pattern.charAt(i) == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+            int nameEnd = i;
+            while (nameEnd < pattern.length() && Character.isLetter(pattern.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            String name = pattern.substring(i, nameEnd);
+            i = nameEnd;
+            if (literal.length() > 0) {
+                writers.add(literal(literal.toString()));
+                literal.setLength(0);
+            }
+            if (!JOIN.equals(name)) {
+                writers.add(field(name, pattern));
+                continue;
+            }
+            String separator = DEFAULT_SEPARATOR;
+            if (i < pattern.length() && pattern.charAt(i) == '{') {
+                int end = closing(pattern, i, '}');
+                separator = pattern.substring(i + 1, end);
+                i = end + 1;
+            }
+            if (i >= pattern.length() || pattern.charAt(i) != '(') {
+                throw new IllegalArgumentException("Missing fields of %join in pattern " + pattern);
+            }
+            int end = closing(pattern, i, ')');
+            List<FieldWriter> fields = new ArrayList<>();
+            for (String field : pattern.substring(i + 1, end).split(",")) {
+                fields.add(field(field.trim(), pattern));
+            }
+            writers.add(join(separator, fields.toArray(new FieldWriter[0])));
+            i = end + 1;
+        }
+        if (literal.length() > 0) {
+            writers.add(literal(literal.toString()));
+        }
+        return new TextLayout(pattern, writers.toArray(new FieldWriter[0]));
+    }
+
+    private static int closing(String pattern, int open, char close) {
+        int end = pattern.indexOf(close, open);
+        if (end < 0) {
+            throw new IllegalArgumentException("Missing " + close + " in pattern " + pattern);
+        }
+        return end;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Format a message, followed by the stack trace of its cause if any.
+     *
+     * @param message message to format
+     * @return formatted message
+     */
+    public String format(GreengrassLogMessage message) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        for (FieldWriter writer : writers) {
+            writer.write(message, out);
+        }
+        Throwable cause = message.getCause();
+        if (cause != null) {
+            StringWriter stackTrace = new StringWriter();
+            try (PrintWriter printer = new PrintWriter(stackTrace)) {
+                cause.printStackTrace(printer);
+            }
+            out.append(System.lineSeparator()).append(stackTrace.getBuffer());
+        }
+        String formatted = out.toString();
+        if (out.capacity() > MAX_REUSED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return formatted;
+    }
+
+    private static FieldWriter literal(String text) {
+        return (message, out) -> out.append(text);
+    }
+
+    private static FieldWriter join(String separator, FieldWriter... fields) {
+        return (message, out) -> {
+            boolean first = true;
+            for (FieldWriter field : fields) {
+                int before = out.length();
+                if (!first) {
+                    out.append(separator);
+                }
+                int start = out.length();
+                field.write(message, out);
+                if (out.length() == start) {
+                    out.setLength(before);
+                } else {
+                    first = false;
+                }
+            }
+        };
+    }
+
+    private static FieldWriter field(String name, String pattern) {
+        switch (name) {
+            case "timestamp":
+                return (message, out) -> DateTimeFormatter.ISO_INSTANT.formatTo(
+                        Instant.ofEpochMilli(message.getTimestamp()), out);
+            case "level":
+                return (message, out) -> out.append(message.getLevel());
+            case "thread":
+                return (message, out) -> out.append(message.getThread());
+            case "logger":
+                return (message, out) -> out.append(message.getLoggerName());
+            case "eventType":
+                return (message, out) -> appendIfPresent(message.getEventType(), out);
+            case "message":
+                return (message, out) -> appendIfPresent(message.getMessage(), out);
+            case "contexts":
+                return TextLayout::appendContexts;
+            default:
+                throw new IllegalArgumentException("Unknown field %" + name + " in pattern " + pattern);
+        }
+    }
+
+    private static void appendIfPresent(String value, StringBuilder out) {
+        if (value != null) {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Append the contexts as {@link java.util.AbstractMap#toString()} would, without building the string first.
+     */
+    private static void appendContexts(GreengrassLogMessage message, StringBuilder out) {
+        Map<String, String> contexts = message.getContexts();
+        if (contexts == null) {
+            return;
+        }
+        if (contexts instanceof ContextMap) {
+            ((ContextMap) contexts).appendTo(out);
+            return;
+        }
+        out.append('{');
+        Iterator<Map.Entry<String, String>> entries = contexts.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, String> entry = entries.next();
+            out.append(entry.getKey()).append('=').append(entry.getValue());
+            if (entries.hasNext()) {
+                out.append(", ");
+            }
+        }
+        out.append('}');
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(GreengrassLogMessage message, StringBuilder out);
+    }
+}
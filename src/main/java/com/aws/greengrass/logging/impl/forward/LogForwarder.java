@@ -0,0 +1,425 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.forward;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.config.ManifestRollingPolicy;
+import com.aws.greengrass.logging.impl.config.PersistenceConfig;
+import lombok.Builder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Forwards the records of a file log store to a {@link LogSink}, following the store as it rolls.
+ *
+ * <p>A background thread reads the rolled files listed in the store's manifest, oldest first, then the active file,
+ * one line per record. Records are delivered in batches of up to {@code maxBatchBytes}, or once the oldest record
+ * of a batch has waited {@code maxBatchMillis}. After every delivery, the forwarder saves a checkpoint of the file
+ * and offset it has delivered up to, {@code <fileName>.<extension>.checkpoint} in the store directory, and resumes
+ * from it when started again. A failed batch is delivered again with an increasing delay, so delivery is at least
+ * once. Files are identified by their file key, or their creation time where the file system has no keys, so that
+ * the checkpoint keeps pointing at the right file after the active file is rolled.
+ *
+ * <p>Records still in files deleted by retention before they were forwarded are lost.
+ */
+public final class LogForwarder implements Closeable {
+    public static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    public static final int DEFAULT_MAX_BATCH_BYTES = 64 * 1024;
+    public static final long DEFAULT_MAX_BATCH_MILLIS = 1000;
+    public static final long DEFAULT_POLL_MILLIS = 200;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long JOIN_MILLIS = 5000;
+    // How long the file being read may be missing from the manifest after it rolled, before it is taken as deleted
+    private static final int MISSING_POLLS = 5;
+    private static final Logger logger = LogManager.getLogger(LogForwarder.class);
+
+    private final Path directory;
+    private final String fileName;
+    private final String extension;
+    private final LogSink sink;
+    private final int maxBatchBytes;
+    private final long maxBatchMillis;
+    private final long pollMillis;
+    private final Path activeFile;
+    private final Path checkpointFile;
+    private final Object wakeup = new Object();
+    private volatile boolean running;
+    private Thread thread;
+
+    // Only used by the forwarding thread
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final List<byte[]> batch = new ArrayList<>();
+    private FileChannel channel;
+    private String channelId;
+    private int missingPolls;
+    private int batchBytes;
+    private long batchStarted;
+    private String batchFileId;
+    private long batchOffset;
+
+    /**
+     * Create a forwarder, which starts reading when {@link #start()} is called.
+     *
+     * @param directory      directory of the store
+     * @param fileName       file name of the store, without extension
+     * @param extension      file extension of the store
+     * @param sink           destination of the records
+     * @param maxBatchBytes  bytes of records to deliver together; not positive for the default
+     * @param maxBatchMillis longest a record waits for its batch to fill up; not positive for the default
+     * @param pollMillis     interval to check the active file for new records; not positive for the default
+     * @throws IllegalArgumentException if the store or the sink is missing
+     */
+    @Builder
+    private LogForwarder(Path directory, String fileName, String extension, LogSink sink, int maxBatchBytes,
+                         long maxBatchMillis, long pollMillis) {
+        if (directory == null || fileName == null || extension == null || sink == null) {
+            throw new IllegalArgumentException("Log forwarder needs a store directory, file name, extension and sink");
+        }
+        this.directory = directory;
+        this.fileName = fileName;
+        this.extension = extension;
+        this.sink = sink;
+        this.maxBatchBytes = maxBatchBytes > 0 ? maxBatchBytes : DEFAULT_MAX_BATCH_BYTES;
+        this.maxBatchMillis = maxBatchMillis > 0 ? maxBatchMillis : DEFAULT_MAX_BATCH_MILLIS;
+        this.pollMillis = pollMillis > 0 ? pollMillis : DEFAULT_POLL_MILLIS;
+        this.activeFile = directory.resolve(fileName + "." + extension);
+        this.checkpointFile = directory.resolve(fileName + "." + extension + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Start forwarding in the background. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "gg-log-forwarder-" + fileName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop forwarding and close the sink. Records read but not delivered yet are read again after a restart.
+     *
+     * @throws IOException if closing the sink fails
+     */
+    @Override
+    public void close() throws IOException {
+        Thread stopping;
+        synchronized (this) {
+            running = false;
+            stopping = thread;
+            thread = null;
+        }
+        synchronized (wakeup) {
+            wakeup.notifyAll();
+        }
+        if (stopping != null) {
+            try {
+                stopping.join(JOIN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sink.close();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    if (channel == null) {
+                        resume();
+                    }
+                    if (!forward()) {
+                        pause(pollMillis);
+                    }
+                } catch (IOException e) {
+                    logger.atWarn().kv("file", activeFile).setCause(e)
+                            .log("Unable to read log file, resuming from the last checkpoint");
+                    reset();
+                    pause(pollMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Read from the current file, and move on to the next file once the current one is sealed and fully read.
+     *
+     * @return false if there was nothing to read
+     */
+    private boolean forward() throws IOException, InterruptedException {
+        if (channel == null) {
+            deliverIfDue();
+            return false;
+        }
+        if (read()) {
+            return true;
+        }
+        String activeId = fileId(activeFile);
+        if (channelId.equals(activeId)) {
+            deliverIfDue();
+            return false;
+        }
+        // The file has rolled, or was deleted. Anything written before that is readable now.
+        if (read()) {
+            return true;
+        }
+        if (pending.size() > 0) {
+            addRecord(channel.position());
+        }
+        if (!openNext()) {
+            deliverIfDue();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean read() throws IOException, InterruptedException {
+        readBuffer.clear();
+        long position = channel.position();
+        int read = channel.read(readBuffer);
+        if (read <= 0) {
+            return false;
+        }
+        byte[] bytes = readBuffer.array();
+        int start = 0;
+        for (int i = 0; i < read; i++) {
+            if (bytes[i] == '\n') {
+                pending.write(bytes, start, i - start);
+                addRecord(position + i + 1);
+                start = i + 1;
+            }
+        }
+        pending.write(bytes, start, read - start);
+        deliverIfDue();
+        return true;
+    }
+
+    private void addRecord(long endOffset) throws InterruptedException {
+        byte[] record = pending.toByteArray();
+        pending.reset();
+        int length = record.length;
+        if (length > 0 && record[length - 1] == '\r') {
+            length--;
+        }
+        batchFileId = channelId;
+        batchOffset = endOffset;
+        if (length == 0) {
+            return;
+        }
+        if (batch.isEmpty()) {
+            batchStarted = System.currentTimeMillis();
+        }
+        batch.add(length == record.length ? record : Arrays.copyOf(record, length));
+        batchBytes += length;
+        if (batchBytes >= maxBatchBytes) {
+            deliver();
+        }
+    }
+
+    private void deliverIfDue() throws InterruptedException {
+        if (!batch.isEmpty() && System.currentTimeMillis() - batchStarted >= maxBatchMillis) {
+            deliver();
+        }
+    }
+
+    /**
+     * Deliver the batch, retrying until it succeeds or the forwarder is closed, then save the checkpoint.
+     */
+    private void deliver() throws InterruptedException {
+        long retryMillis = pollMillis;
+        boolean failed = false;
+        while (true) {
+            if (!running) {
+                // Closed, the batch is read again from the checkpoint after a restart
+                throw new InterruptedException();
+            }
+            try {
+                sink.deliver(batch);
+                break;
+            } catch (IOException e) {
+                if (!failed) {
+                    logger.atWarn().kv("records", batch.size()).setCause(e)
+                            .log("Unable to deliver log records, retrying");
+                    failed = true;
+                }
+                pause(retryMillis);
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+        batch.clear();
+        batchBytes = 0;
+        writeCheckpoint();
+    }
+
+    /**
+     * Open the file and offset of the checkpoint, or the oldest file if there is no checkpoint or its file is gone.
+     */
+    private void resume() throws IOException {
+        String checkpointId = null;
+        long checkpointOffset = 0;
+        if (Files.exists(checkpointFile)) {
+            String checkpoint = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim();
+            int separator = checkpoint.lastIndexOf(' ');
+            try {
+                checkpointOffset = Long.parseLong(checkpoint.substring(separator + 1));
+                checkpointId = checkpoint.substring(0, Math.max(separator, 0));
+            } catch (NumberFormatException e) {
+                logger.atWarn().kv("file", checkpointFile).log("Ignoring unreadable log forwarding checkpoint");
+            }
+        }
+        List<Path> files = files();
+        for (Path file : files) {
+            String id = fileId(file);
+            if (id != null && id.equals(checkpointId) && Files.size(file) >= checkpointOffset) {
+                open(file, id, checkpointOffset);
+                return;
+            }
+        }
+        for (Path file : files) {
+            String id = fileId(file);
+            if (id != null) {
+                open(file, id, 0);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Open the file following the one just read.
+     *
+     * @return false if it isn't known yet
+     */
+    private boolean openNext() throws IOException {
+        List<Path> files = files();
+        List<String> ids = new ArrayList<>(files.size());
+        int current = -1;
+        for (Path file : files) {
+            String id = fileId(file);
+            if (channelId.equals(id)) {
+                current = ids.size();
+            }
+            ids.add(id);
+        }
+        if (current < 0 && ++missingPolls < MISSING_POLLS) {
+            // Rolled, but not in the manifest yet
+            return false;
+        }
+        for (int i = current + 1; i < files.size(); i++) {
+            if (ids.get(i) != null) {
+                closeChannel();
+                open(files.get(i), ids.get(i), 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>(ManifestRollingPolicy.readRolledFiles(directory, fileName, extension));
+        files.add(activeFile);
+        return files;
+    }
+
+    private void open(Path file, String id, long offset) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(offset);
+        channelId = id;
+        missingPolls = 0;
+        pending.reset();
+    }
+
+    private void writeCheckpoint() {
+        try {
+            Path temp = directory.resolve(checkpointFile.getFileName() + ".tmp");
+            Files.write(temp, (batchFileId + " " + batchOffset).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.atWarn().kv("file", checkpointFile).setCause(e).log("Unable to save log forwarding checkpoint");
+        }
+    }
+
+    /**
+     * Drop everything read but not delivered, to read it again from the checkpoint.
+     */
+    private void reset() {
+        closeChannel();
+        pending.reset();
+        batch.clear();
+        batchBytes = 0;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Only read from
+            }
+            channel = null;
+        }
+    }
+
+    private void pause(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        synchronized (wakeup) {
+            for (long left = millis; running && left > 0; left = deadline - System.currentTimeMillis()) {
+                wakeup.wait(left);
+            }
+        }
+    }
+
+    /**
+     * Identify a file across renames.
+     *
+     * @return the id, or null if the file doesn't exist
+     */
+    private static String fileId(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Object key = attributes.fileKey();
+            return key == null ? Long.toString(attributes.creationTime().toMillis()) : key.toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static class LogForwarderBuilder {
+        /**
+         * Forward the file store of the given configuration.
+         *
+         * @param config logging or telemetry configuration
+         * @return this builder
+         */
+        public LogForwarderBuilder store(PersistenceConfig config) {
+            return directory(config.getStoreDirectory()).fileName(config.getFileName())
+                    .extension(config.getExtension());
+        }
+    }
+}
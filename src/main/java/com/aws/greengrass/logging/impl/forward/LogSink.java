@@ -0,0 +1,24 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.forward;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the records a {@link LogForwarder} reads from a log store.
+ */
+public interface LogSink extends Closeable {
+    /**
+     * Deliver a batch of records. The forwarder only moves its checkpoint past the batch once this returns, and
+     * delivers the same batch again after a failure, so records may be delivered more than once.
+     *
+     * @param records records in the order they were logged, each one line of the log file without its line separator
+     * @throws IOException if the batch could not be delivered
+     */
+    void deliver(List<byte[]> records) throws IOException;
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.forward;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Sink writing records to a TCP collector, such as a local log agent, one record per line. The connection is opened
+ * on the first delivery and opened again on the delivery after a failure.
+ */
+public class SocketLogSink implements LogSink {
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private final int connectTimeoutMillis;
+    private Socket socket;
+    private OutputStream out;
+
+    public SocketLogSink(String host, int port) {
+        this(new InetSocketAddress(host, port), DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    public SocketLogSink(InetSocketAddress address, int connectTimeoutMillis) {
+        this.address = address;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public synchronized void deliver(List<byte[]> records) throws IOException {
+        try {
+            if (socket == null) {
+                socket = new Socket();
+                socket.connect(address, connectTimeoutMillis);
+                out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+            }
+            for (byte[] record : records) {
+                out.write(record);
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        Socket closing = socket;
+        socket = null;
+        out = null;
+        if (closing != null) {
+            closing.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.instrumentation;
+
+import com.aws.greengrass.logging.impl.config.LogFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.slf4j.event.Level;
+
+import java.util.Map;
+
+/**
+ * Point in time copy of the logging pipeline counters. All values are totals since the instrumentation was reset.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InstrumentationSnapshot {
+    /**
+     * Events written, by logger name and level.
+     */
+    private final Map<String, Map<Level, Long>> events;
+    /**
+     * Events discarded by a level check, by logger name.
+     */
+    private final Map<String, Long> suppressed;
+    /**
+     * Bytes encoded for output, by store name.
+     */
+    private final Map<String, Long> bytesWritten;
+    /**
+     * Time spent serializing messages, by format.
+     */
+    private final Map<LogFormat, TimerSnapshot> serialization;
+    /**
+     * Time spent dispatching messages to global listeners.
+     */
+    private final TimerSnapshot listenerDispatch;
+    /**
+     * Number and duration of log file rollovers.
+     */
+    private final TimerSnapshot rollover;
+    /**
+     * Events lost after they were logged, e.g. because a queue was full, by the name of the component dropping them.
+     */
+    private final Map<String, Long> dropped;
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.instrumentation;
+
+import com.aws.greengrass.logging.impl.config.LogFormat;
+import org.slf4j.event.Level;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers measuring the logging pipeline itself.
+ *
+ * <p>Instrumentation is enabled with the {@value #INSTRUMENTATION_KEY} system property. Every instrumentation point
+ * is guarded by the constant {@link #ENABLED}, so when it is off the JIT removes the instrumentation entirely. Hot
+ * paths resolve their counters once and keep them, recording into striped {@link LongAdder} cells.
+ */
+public final class LoggingInstrumentation {
+    public static final String INSTRUMENTATION_KEY = "log.instrumentation";
+    public static final boolean ENABLED = Boolean.getBoolean(INSTRUMENTATION_KEY);
+    private static final Level[] LEVELS = Level.values();
+
+    private static final Map<String, LoggerCounters> loggerCounters = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> bytesWritten = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> dropped = new ConcurrentHashMap<>();
+    private static final Map<LogFormat, StripedTimer> serialization = new EnumMap<>(LogFormat.class);
+    private static final StripedTimer listenerDispatch = new StripedTimer();
+    private static final StripedTimer rollover = new StripedTimer();
+
+    static {
+        for (LogFormat format : LogFormat.values()) {
+            serialization.put(format, new StripedTimer());
+        }
+    }
+
+    private LoggingInstrumentation() {
+    }
+
+    /**
+     * Get the counters of a logger. Loggers with the same name share their counters.
+     *
+     * @param loggerName name of the logger
+     * @return the counters
+     */
+    public static LoggerCounters loggerCounters(String loggerName) {
+        return loggerCounters.computeIfAbsent(loggerName, n -> new LoggerCounters());
+    }
+
+    /**
+     * Get the counter of bytes encoded for output to a store.
+     *
+     * @param storeName name of the store, e.g. the log file name
+     * @return the counter
+     */
+    public static LongAdder bytesWritten(String storeName) {
+        return bytesWritten.computeIfAbsent(storeName, n -> new LongAdder());
+    }
+
+    public static StripedTimer serialization(LogFormat format) {
+        return serialization.get(format);
+    }
+
+    public static StripedTimer listenerDispatch() {
+        return listenerDispatch;
+    }
+
+    public static StripedTimer rollover() {
+        return rollover;
+    }
+
+    /**
+     * Count events lost after they were logged.
+     *
+     * @param source name of the component dropping the events
+     * @param count  number of events dropped
+     */
+    public static void recordDropped(String source, long count) {
+        if (ENABLED) {
+            dropped.computeIfAbsent(source, n -> new LongAdder()).add(count);
+        }
+    }
+
+    /**
+     * Copy the current totals.
+     *
+     * @return the snapshot
+     */
+    public static InstrumentationSnapshot snapshot() {
+        Map<String, Map<Level, Long>> events = new HashMap<>();
+        Map<String, Long> suppressed = new HashMap<>();
+        loggerCounters.forEach((name, counters) -> {
+            Map<Level, Long> byLevel = new EnumMap<>(Level.class);
+            for (Level level : LEVELS) {
+                long count = counters.events[level.ordinal()].sum();
+                if (count > 0) {
+                    byLevel.put(level, count);
+                }
+            }
+            if (!byLevel.isEmpty()) {
+                events.put(name, Collections.unmodifiableMap(byLevel));
+            }
+            long suppressedCount = counters.suppressed.sum();
+            if (suppressedCount > 0) {
+                suppressed.put(name, suppressedCount);
+            }
+        });
+        Map<LogFormat, TimerSnapshot> serializationTimes = new EnumMap<>(LogFormat.class);
+        serialization.forEach((format, timer) -> serializationTimes.put(format, timer.snapshot()));
+        return new InstrumentationSnapshot(Collections.unmodifiableMap(events),
+                Collections.unmodifiableMap(suppressed), sums(bytesWritten),
+                Collections.unmodifiableMap(serializationTimes), listenerDispatch.snapshot(), rollover.snapshot(),
+                sums(dropped));
+    }
+
+    /**
+     * Set every counter back to zero. Counters handed out before stay valid.
+     */
+    public static void reset() {
+        loggerCounters.values().forEach(counters -> {
+            for (LongAdder adder : counters.events) {
+                adder.reset();
+            }
+            counters.suppressed.reset();
+        });
+        bytesWritten.values().forEach(LongAdder::reset);
+        dropped.values().forEach(LongAdder::reset);
+        serialization.values().forEach(StripedTimer::reset);
+        listenerDispatch.reset();
+        rollover.reset();
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new HashMap<>();
+        counters.forEach((name, adder) -> {
+            long sum = adder.sum();
+            if (sum > 0) {
+                sums.put(name, sum);
+            }
+        });
+        return Collections.unmodifiableMap(sums);
+    }
+
+    /**
+     * Event counters of one logger.
+     */
+    public static final class LoggerCounters {
+        private final LongAdder[] events = new LongAdder[LEVELS.length];
+        private final LongAdder suppressed = new LongAdder();
+
+        LoggerCounters() {
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new LongAdder();
+            }
+        }
+
+        public void recordEvent(Level level) {
+            events[level.ordinal()].increment();
+        }
+
+        public void recordSuppressed() {
+            suppressed.increment();
+        }
+    }
+}
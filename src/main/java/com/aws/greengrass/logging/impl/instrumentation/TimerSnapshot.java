@@ -0,0 +1,25 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.instrumentation;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Totals of a {@link StripedTimer} since the instrumentation was reset.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class TimerSnapshot {
+    public static final TimerSnapshot EMPTY = new TimerSnapshot(0, 0, 0);
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Scans line based files on a fork-join pool, one task per chunk of a file, and streams the records parsed from the
+ * lines in timestamp order.
+ *
+ * <p>A line belongs to the chunk its first byte is in. Each task sorts the records of its chunk, as concurrent writers
+ * may interleave slightly out of order records, and the sorted chunks are merged lazily: a file is only opened once
+ * the stream reaches the timestamp of its first record, and then has its current and next chunk in the merge, so
+ * rolled files, whose time ranges don't overlap, are read one after the other. Chunks are scanned ahead in the order
+ * they are expected to be read, at most twice the parallelism of the pool at a time, so memory is bounded by a few
+ * chunks per file being read rather than by the number of records.
+ *
+ * <p>Records which are only combined, not read in order, are collected with one container per chunk instead, see
+ * {@link #collect}.
+ */
+public final class ChunkedLineScanner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // How far into a file to look for the timestamp of its first record
+    private static final int PEEK_BYTES = 64 * 1024;
+
+    private ChunkedLineScanner() {
+    }
+
+    /**
+     * Stream the records of the given files in timestamp order. Close the stream to cancel the scans of chunks which
+     * weren't read yet.
+     *
+     * @param pool           pool to scan chunks on
+     * @param files          files to scan
+     * @param chunkSizeBytes files larger than this are split into chunks of about this size
+     * @param format         parses lines into records
+     * @param <T>            record type
+     * @return records in timestamp order; failures to read a chunk are thrown as {@link UncheckedIOException} while
+     *     streaming
+     * @throws IOException if a file cannot be read
+     */
+    public static <T> Stream<T> stream(ForkJoinPool pool, Collection<Path> files, long chunkSizeBytes,
+                                       LineFormat<T> format) throws IOException {
+        Merge<T> merge = new Merge<>(pool, format);
+        List<FileSource<T>> sources = new ArrayList<>();
+        for (Path file : files) {
+            long size = Files.size(file);
+            FileSource<T> source = new FileSource<>(file, firstTimestamp(file, format));
+            for (long start = 0; start < size; start += chunkSizeBytes) {
+                source.chunks.add(new Chunk<>(source, start, Math.min(size, start + chunkSizeBytes), format));
+            }
+            if (!source.chunks.isEmpty()) {
+                sources.add(source);
+            }
+        }
+        merge.start(sources);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merge,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(merge::close);
+    }
+
+    /**
+     * Get the timestamp of the first record near the start of a file, or {@link Long#MIN_VALUE} to open it right
+     * away if there is none.
+     */
+    private static long firstTimestamp(Path file, LineFormat<?> format) throws IOException {
+        try (LineReader reader = new LineReader(Files.newInputStream(file))) {
+            while (reader.position < PEEK_BYTES && reader.next()) {
+                long timestamp = format.lineTimestamp(reader.line, reader.length);
+                if (timestamp >= 0) {
+                    return timestamp;
+                }
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Collect the records of the given files in no particular order, scanning every chunk on the pool into its own
+     * container and combining the containers once all chunks are scanned.
+     *
+     * @param pool           pool to scan chunks on
+     * @param files          files to scan
+     * @param chunkSizeBytes files larger than this are split into chunks of about this size
+     * @param format         parses lines into records
+     * @param supplier       creates the container of a chunk
+     * @param accumulator    adds a record to a container
+     * @param combiner       combines two containers
+     * @param <T>            record type
+     * @param <A>            container type
+     * @return the combined container
+     * @throws IOException if a file cannot be read
+     */
+    public static <T, A> A collect(ForkJoinPool pool, Collection<Path> files, long chunkSizeBytes,
+                                   LineFormat<T> format, Supplier<A> supplier, BiConsumer<A, T> accumulator,
+                                   BinaryOperator<A> combiner) throws IOException {
+        List<ForkJoinTask<A>> tasks = new ArrayList<>();
+        for (Path file : files) {
+            long size = Files.size(file);
+            for (long start = 0; start < size; start += chunkSizeBytes) {
+                long chunkStart = start;
+                long chunkEnd = Math.min(size, start + chunkSizeBytes);
+                tasks.add(ForkJoinTask.adapt((Callable<A>) () -> {
+                    A container = supplier.get();
+                    try {
+                        scan(file, chunkStart, chunkEnd, format, record -> accumulator.accept(container, record));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return container;
+                }));
+            }
+        }
+        try {
+            return pool.submit(() -> ForkJoinTask.invokeAll(tasks).stream().map(ForkJoinTask::join)
+                    .reduce(supplier.get(), combiner)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Failed to scan files", cause);
+        }
+    }
+
+    /**
+     * Parse the records of the lines starting within [start, end) of a file, sorted by timestamp.
+     */
+    static <T> List<T> scan(Path file, long start, long end, LineFormat<T> format) throws IOException {
+        List<T> records = new ArrayList<>();
+        scan(file, start, end, format, records::add);
+        records.sort(Comparator.comparingLong(format::timestamp));
+        return records;
+    }
+
+    private static <T> void scan(Path file, long start, long end, LineFormat<T> format, Consumer<T> consumer)
+            throws IOException {
+        long position = Math.max(0, start - 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             LineReader reader = new LineReader(Channels.newInputStream(channel.position(position)))) {
+            // Skip the remainder of the line which started in the previous chunk
+            if (start > 0 && !reader.next()) {
+                return;
+            }
+            while (position + reader.position < end && reader.next()) {
+                T record = format.parse(file, reader.line, reader.length);
+                if (record != null) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the lines of files into records.
+     *
+     * @param <T> record type
+     */
+    public interface LineFormat<T> {
+        /**
+         * Parse a line.
+         *
+         * @param file   file the line is from
+         * @param line   buffer holding the line, without the line separator
+         * @param length number of bytes in the line
+         * @return the record, or null to skip the line
+         */
+        T parse(Path file, byte[] line, int length);
+
+        /**
+         * Get the timestamp of a record.
+         *
+         * @param record the record
+         * @return its timestamp
+         */
+        long timestamp(T record);
+
+        /**
+         * Get the timestamp of a line, whether or not it would be parsed into a record, to know when to open a file.
+         *
+         * @param line   buffer holding the line, without the line separator
+         * @param length number of bytes in the line
+         * @return the timestamp, or a negative value if the line isn't a record
+         */
+        long lineTimestamp(byte[] line, int length);
+    }
+
+    /**
+     * Reads the lines of a stream into a reused buffer.
+     */
+    private static final class LineReader implements AutoCloseable {
+        private final InputStream in;
+        private byte[] line = new byte[1024];
+        private int length;
+        // Bytes read so far, including line separators
+        private long position;
+
+        LineReader(InputStream in) {
+            this.in = new BufferedInputStream(in, BUFFER_SIZE);
+        }
+
+        /**
+         * Read the next line.
+         *
+         * @return false at the end of the stream
+         */
+        boolean next() throws IOException {
+            length = 0;
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[length++] = (byte) b;
+            }
+            position += length + (b == -1 ? 0 : 1);
+            return b != -1 || length > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class FileSource<T> {
+        private final Path file;
+        private final long firstTimestamp;
+        private final List<Chunk<T>> chunks = new ArrayList<>();
+        private int nextToMerge;
+
+        FileSource(Path file, long firstTimestamp) {
+            this.file = file;
+            this.firstTimestamp = firstTimestamp;
+        }
+    }
+
+    private static final class Chunk<T> implements Callable<List<T>> {
+        private final FileSource<T> source;
+        private final long start;
+        private final long end;
+        private final LineFormat<T> format;
+        private boolean submitted;
+        private ForkJoinTask<List<T>> task;
+
+        Chunk(FileSource<T> source, long start, long end, LineFormat<T> format) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.format = format;
+        }
+
+        @Override
+        public List<T> call() {
+            try {
+                return scan(source.file, start, end, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Head of a file in the merge: the next record of one of its chunks, or, before the file is opened, no record and
+     * the timestamp of its first record.
+     */
+    private static final class Head<T> {
+        private final FileSource<T> source;
+        private long timestamp;
+        private T record;
+        private Iterator<T> rest;
+
+        Head(FileSource<T> source, long timestamp) {
+            this.source = source;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * K-way merge of the sorted chunks by timestamp, scanning chunks ahead of the merge.
+     */
+    private static final class Merge<T> implements Iterator<T> {
+        // Files are opened before records with the same timestamp are read
+        private final PriorityQueue<Head<T>> heads = new PriorityQueue<>(Comparator.<Head<T>>comparingLong(
+                h -> h.timestamp).thenComparing(h -> h.record != null));
+        private final List<Chunk<T>> planned = new ArrayList<>();
+        private final ForkJoinPool pool;
+        private final LineFormat<T> format;
+        private final int maxScansAhead;
+        private int nextToPlan;
+        private int scansAhead;
+
+        Merge(ForkJoinPool pool, LineFormat<T> format) {
+            this.pool = pool;
+            this.format = format;
+            this.maxScansAhead = Math.max(2, pool.getParallelism() * 2);
+        }
+
+        void start(List<FileSource<T>> sources) {
+            sources.sort(Comparator.comparingLong(s -> s.firstTimestamp));
+            for (FileSource<T> source : sources) {
+                planned.addAll(source.chunks);
+                heads.add(new Head<>(source, source.firstTimestamp));
+            }
+            scanAhead();
+        }
+
+        @Override
+        public boolean hasNext() {
+            Head<T> head = heads.peek();
+            while (head != null && head.record == null) {
+                heads.poll();
+                // The current and next chunk of the file
+                mergeNextChunk(head.source);
+                mergeNextChunk(head.source);
+                head = heads.peek();
+            }
+            return head != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head<T> head = heads.poll();
+            T record = head.record;
+            if (head.rest.hasNext()) {
+                head.record = head.rest.next();
+                head.timestamp = format.timestamp(head.record);
+                heads.add(head);
+            } else {
+                mergeNextChunk(head.source);
+            }
+            return record;
+        }
+
+        /**
+         * Add the next chunk of a file with records to the merge.
+         */
+        private void mergeNextChunk(FileSource<T> source) {
+            while (source.nextToMerge < source.chunks.size()) {
+                Iterator<T> records = join(source.chunks.get(source.nextToMerge++)).iterator();
+                if (records.hasNext()) {
+                    Head<T> head = new Head<>(source, 0);
+                    head.record = records.next();
+                    head.timestamp = format.timestamp(head.record);
+                    head.rest = records;
+                    heads.add(head);
+                    return;
+                }
+            }
+        }
+
+        private List<T> join(Chunk<T> chunk) {
+            if (!chunk.submitted) {
+                submit(chunk);
+            }
+            final List<T> records = chunk.task.join();
+            chunk.task = null;
+            scansAhead--;
+            scanAhead();
+            return records;
+        }
+
+        private void scanAhead() {
+            while (scansAhead < maxScansAhead && nextToPlan < planned.size()) {
+                Chunk<T> chunk = planned.get(nextToPlan++);
+                if (!chunk.submitted) {
+                    submit(chunk);
+                }
+            }
+        }
+
+        private void submit(Chunk<T> chunk) {
+            chunk.submitted = true;
+            chunk.task = pool.submit((Callable<List<T>>) chunk);
+            scansAhead++;
+        }
+
+        void close() {
+            for (Chunk<T> chunk : planned) {
+                if (chunk.task != null) {
+                    chunk.task.cancel(false);
+                    chunk.task = null;
+                }
+            }
+            heads.clear();
+        }
+    }
+}
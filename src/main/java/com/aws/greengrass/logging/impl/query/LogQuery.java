@@ -0,0 +1,61 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.slf4j.event.Level;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Predicates for {@link LogQueryEngine}. Unset fields match every record; set fields must all match.
+ */
+@Builder
+@Getter
+@ToString
+public class LogQuery {
+    /**
+     * Levels to include. Empty matches all levels.
+     */
+    private final Set<Level> levels;
+    /**
+     * Exact logger name to match.
+     */
+    private final String loggerName;
+    /**
+     * Exact event type to match.
+     */
+    private final String eventType;
+    /**
+     * Inclusive lower bound of the record timestamp in epoch milliseconds.
+     */
+    private final Long fromTimestamp;
+    /**
+     * Exclusive upper bound of the record timestamp in epoch milliseconds.
+     */
+    private final Long toTimestamp;
+    /**
+     * Context key/value pairs which must all be present in the record.
+     */
+    private final Map<String, String> contexts;
+
+    public Set<Level> getLevels() {
+        return levels == null ? Collections.emptySet() : levels;
+    }
+
+    public Map<String, String> getContexts() {
+        return contexts == null ? Collections.emptyMap() : contexts;
+    }
+
+    boolean matchesTimestamp(long timestamp) {
+        return (fromTimestamp == null || timestamp >= fromTimestamp) && (toTimestamp == null
+                || timestamp < toTimestamp);
+    }
+}
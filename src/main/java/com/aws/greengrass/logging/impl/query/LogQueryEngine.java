@@ -0,0 +1,203 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Queries JSON formatted log files in parallel.
+ *
+ * <p>Every file, or every chunk of a large file, is scanned by its own fork-join task. Lines are parsed with a
+ * streaming parser which only decodes the fields the query has predicates on, and stops at the first predicate that
+ * fails, so most non-matching lines are never fully decoded. The sorted matches of each task are then merged lazily
+ * into a single stream ordered by timestamp, with a bounded number of chunks scanned ahead, see
+ * {@link ChunkedLineScanner}. Lines which aren't JSON log records are skipped.
+ */
+public class LogQueryEngine {
+    public static final long DEFAULT_CHUNK_SIZE_BYTES = 8L * 1024 * 1024;
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final LogQuery MATCH_ALL = LogQuery.builder().build();
+
+    private final ForkJoinPool pool;
+    private final long chunkSizeBytes;
+
+    public LogQueryEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE_BYTES);
+    }
+
+    /**
+     * Create a query engine.
+     *
+     * @param pool           pool to scan files on
+     * @param chunkSizeBytes files larger than this are split into chunks of about this size
+     */
+    public LogQueryEngine(ForkJoinPool pool, long chunkSizeBytes) {
+        if (chunkSizeBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    /**
+     * Query every {@code .log} file in a store directory, including rolled files. Close the stream to cancel the scans
+     * of chunks which weren't read yet.
+     *
+     * @param storeDirectory directory containing the log files
+     * @param query          the predicates to apply
+     * @return matching records in timestamp order, see {@link #query(Collection, LogQuery)}
+     * @throws IOException if the directory cannot be listed or a file cannot be read
+     */
+    public Stream<LogRecord> query(Path storeDirectory, LogQuery query) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(storeDirectory)) {
+            files = list.filter(p -> Files.isRegularFile(p) && String.valueOf(p.getFileName())
+                    .endsWith(LOG_FILE_SUFFIX)).collect(Collectors.toList());
+        }
+        return query(files, query);
+    }
+
+    /**
+     * Query the given log files. Close the stream to cancel the scans of chunks which weren't read yet.
+     *
+     * @param files the files to scan
+     * @param query the predicates to apply
+     * @return matching records in timestamp order; failures to read a chunk are thrown as
+     *     {@link java.io.UncheckedIOException} while streaming
+     * @throws IOException if a file cannot be read
+     */
+    public Stream<LogRecord> query(Collection<Path> files, LogQuery query) throws IOException {
+        return ChunkedLineScanner.stream(pool, files, chunkSizeBytes, new ChunkedLineScanner.LineFormat<LogRecord>() {
+            @Override
+            public LogRecord parse(Path file, byte[] line, int length) {
+                long timestamp = match(line, length, query);
+                return timestamp < 0 ? null
+                        : new LogRecord(file, timestamp, new String(line, 0, length, StandardCharsets.UTF_8).trim());
+            }
+
+            @Override
+            public long timestamp(LogRecord record) {
+                return record.getTimestamp();
+            }
+
+            @Override
+            public long lineTimestamp(byte[] line, int length) {
+                return match(line, length, MATCH_ALL);
+            }
+        });
+    }
+
+    /**
+     * Check a single JSON line against the query.
+     *
+     * @param line   buffer holding the line
+     * @param length number of bytes in the line
+     * @param query  the predicates
+     * @return the record timestamp if the line matches, otherwise -1
+     */
+    static long match(byte[] line, int length, LogQuery query) {
+        try (JsonParser parser = JSON_FACTORY.createParser(line, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            long timestamp = -1;
+            boolean loggerNameMatched = query.getLoggerName() == null;
+            boolean eventTypeMatched = query.getEventType() == null;
+            boolean levelMatched = query.getLevels().isEmpty();
+            int contextsMatched = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "timestamp":
+                        if (value != JsonToken.VALUE_NUMBER_INT) {
+                            return -1;
+                        }
+                        timestamp = parser.getLongValue();
+                        if (!query.matchesTimestamp(timestamp)) {
+                            return -1;
+                        }
+                        break;
+                    case "level":
+                        if (!levelMatched) {
+                            String level = getText(parser);
+                            for (Level l : query.getLevels()) {
+                                levelMatched |= l.name().equals(level);
+                            }
+                            if (!levelMatched) {
+                                return -1;
+                            }
+                        }
+                        break;
+                    case "loggerName":
+                        if (!loggerNameMatched) {
+                            if (!query.getLoggerName().equals(getText(parser))) {
+                                return -1;
+                            }
+                            loggerNameMatched = true;
+                        }
+                        break;
+                    case "eventType":
+                        if (!eventTypeMatched) {
+                            if (!query.getEventType().equals(getText(parser))) {
+                                return -1;
+                            }
+                            eventTypeMatched = true;
+                        }
+                        break;
+                    case "contexts":
+                        if (query.getContexts().isEmpty() || value != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String expected = query.getContexts().get(parser.getCurrentName());
+                            parser.nextToken();
+                            if (expected == null) {
+                                parser.skipChildren();
+                            } else if (expected.equals(getText(parser))) {
+                                contextsMatched++;
+                            } else {
+                                return -1;
+                            }
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            boolean matched = timestamp >= 0 && levelMatched && loggerNameMatched && eventTypeMatched
+                    && contextsMatched == query.getContexts().size();
+            return matched ? timestamp : -1;
+        } catch (IOException e) {
+            // Not a JSON log record
+            return -1;
+        }
+    }
+
+    private static String getText(JsonParser parser) {
+        try {
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A log record matched by a {@link LogQuery}, kept as its original JSON line.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class LogRecord {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(GreengrassLogMessage.class, IgnoreCauseMixin.class);
+
+    private final Path file;
+    private final long timestamp;
+    private final String json;
+
+    /**
+     * Decode the full record. The cause is not decoded since stack traces cannot be turned back into a
+     * {@link Throwable}; it remains available in {@link #getJson()}.
+     *
+     * @return the decoded log message
+     * @throws IOException if the record cannot be decoded
+     */
+    public GreengrassLogMessage toMessage() throws IOException {
+        return OBJECT_MAPPER.readValue(json, GreengrassLogMessage.class);
+    }
+
+    @JsonIgnoreProperties("cause")
+    private abstract static class IgnoreCauseMixin {
+    }
+}
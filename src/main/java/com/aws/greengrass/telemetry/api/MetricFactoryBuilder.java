@@ -16,4 +16,18 @@ public interface MetricFactoryBuilder {
      * Entry point for fluent APIs to emit metrics.
      */
     void putMetricData(Metric metric, Object value);
+
+    /**
+     * Emit a primitive value. Implementations override this to avoid boxing the value.
+     */
+    default void putMetricData(Metric metric, long value) {
+        putMetricData(metric, (Object) value);
+    }
+
+    /**
+     * Emit a primitive value. Implementations override this to avoid boxing the value.
+     */
+    default void putMetricData(Metric metric, double value) {
+        putMetricData(metric, (Object) value);
+    }
 }
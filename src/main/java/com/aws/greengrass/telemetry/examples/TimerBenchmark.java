@@ -0,0 +1,74 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.examples;
+
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.impl.MetricTimer;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead a {@link MetricTimer} adds to a timed section, for each way of timing it, against a section
+ * timed by hand with two {@link System#nanoTime()} calls. Run with an optional iteration count:
+ * {@code java TimerBenchmark [iterations]}.
+ */
+public final class TimerBenchmark {
+    private static final int ROUNDS = 5;
+    private static long sink;
+
+    private TimerBenchmark() {
+    }
+
+    /**
+     * Run the benchmark, printing the nanoseconds per timed section of the last round of every variant.
+     */
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        try (MetricFactory factory = new MetricFactory("TimerBenchmark", 1, TimeUnit.MINUTES)) {
+            MetricTimer timer = factory.timer("Benchmark", "Section", TelemetryAggregation.Histogram);
+            for (int round = 1; round <= ROUNDS; round++) {
+                boolean last = round == ROUNDS;
+                report(last, "nanoTime by hand", iterations, () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        long start = System.nanoTime();
+                        sink += System.nanoTime() - start;
+                    }
+                });
+                report(last, "startNanos/recordSince", iterations, () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        sink += timer.recordSince(timer.startNanos());
+                    }
+                });
+                report(last, "Sample closed in finally", iterations, () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        MetricTimer.Sample sample = timer.start();
+                        try {
+                            sink += i;
+                        } finally {
+                            sample.close();
+                        }
+                    }
+                });
+                report(last, "record(Runnable)", iterations, () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        timer.record(() -> sink++);
+                    }
+                });
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void report(boolean print, String variant, int iterations, Runnable loop) {
+        long start = System.nanoTime();
+        loop.run();
+        double nanosPerOp = (double) (System.nanoTime() - start) / iterations;
+        if (print) {
+            System.out.printf("%-28s %8.1f ns/op%n", variant, nanosPerOp);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of dimension names and values of a {@link Metric}, serialized as the {@code D} object.
+ *
+ * <p>Dimension sets are interned: creating a set equal to an existing one returns the existing instance. The hash
+ * and the JSON of the set are computed once at creation, so using a set as part of an aggregation key or writing it
+ * out doesn't hash or encode the dimensions again. Create the sets up front and reuse them when emitting.
+ */
+public final class Dimensions {
+    public static final Dimensions EMPTY = new Dimensions(new String[0], new String[0]);
+    // Interning is a cache, so a runaway number of distinct sets stops being interned instead of using more memory
+    private static final int MAX_INTERNED = 10_000;
+    private static final Map<Dimensions, Dimensions> interned = new ConcurrentHashMap<>();
+
+    private final String[] names;
+    private final String[] values;
+    private final int hash;
+    private final String jsonField;
+    private final Map<String, String> map;
+
+    private Dimensions(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+        this.hash = 31 * Arrays.hashCode(names) + Arrays.hashCode(values);
+        Map<String, String> entries = new LinkedHashMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            entries.put(names[i], values[i]);
+            sb.append(i == 0 ? ",\"D\":{" : ",");
+            MetricJsonWriter.appendString(sb, names[i]);
+            sb.append(':');
+            MetricJsonWriter.appendString(sb, values[i]);
+        }
+        this.jsonField = names.length == 0 ? "" : sb.append('}').toString();
+        this.map = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Get the dimension set with one dimension.
+     *
+     * @param name  dimension name
+     * @param value dimension value
+     * @return the interned set
+     * @throws IllegalArgumentException if the name is empty or the value is null
+     */
+    public static Dimensions of(String name, String value) {
+        return of(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Get the dimension set with the given dimensions. The order of the dimensions doesn't matter.
+     *
+     * @param dimensions dimension names and values
+     * @return the interned set, {@link #EMPTY} if there are no dimensions
+     * @throws IllegalArgumentException if a name is empty or a value is null
+     */
+    @JsonCreator
+    public static Dimensions of(Map<String, String> dimensions) {
+        Dimensions candidate = uninterned(dimensions);
+        if (candidate == EMPTY) {
+            return EMPTY;
+        }
+        Dimensions existing = interned.get(candidate);
+        if (existing != null) {
+            return existing;
+        }
+        if (interned.size() >= MAX_INTERNED) {
+            return candidate;
+        }
+        existing = interned.putIfAbsent(candidate, candidate);
+        return existing == null ? candidate : existing;
+    }
+
+    /**
+     * Create a dimension set without interning it, for sets which are only used for a while, such as the ones read
+     * back from telemetry files, so that they don't fill up the intern table. The set is equal to the interned one.
+     *
+     * @param dimensions dimension names and values
+     * @return a new set, {@link #EMPTY} if there are no dimensions
+     * @throws IllegalArgumentException if a name is empty or a value is null
+     */
+    public static Dimensions uninterned(Map<String, String> dimensions) {
+        if (dimensions == null || dimensions.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        dimensions.forEach((name, value) -> {
+            if (name == null || name.isEmpty() || value == null) {
+                throw new IllegalArgumentException("Dimension name cannot be empty and value cannot be null. "
+                        + name + "=" + value);
+            }
+            sorted.put(name, value);
+        });
+        return new Dimensions(sorted.keySet().toArray(new String[0]), sorted.values().toArray(new String[0]));
+    }
+
+    /**
+     * Get the dimensions as a map ordered by name.
+     *
+     * @return unmodifiable map of dimension names to values
+     */
+    @JsonValue
+    public Map<String, String> asMap() {
+        return map;
+    }
+
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    /**
+     * Get the encoded {@code D} field, including the leading comma, or an empty string for no dimensions.
+     */
+    String jsonField() {
+        return jsonField;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Dimensions)) {
+            return false;
+        }
+        Dimensions other = (Dimensions) o;
+        return hash == other.hash && Arrays.equals(names, other.names) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
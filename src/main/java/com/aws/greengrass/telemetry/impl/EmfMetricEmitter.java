@@ -0,0 +1,279 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes metrics in the CloudWatch embedded metric format (EMF) through {@link LogManager#getRawLogger(String, Path)}.
+ *
+ * <p>Values are buffered in memory and written once per flush interval. Metrics which share a namespace and
+ * dimensions are written together, up to {@value #MAX_METRICS_PER_DOCUMENT} metrics and
+ * {@value #MAX_VALUES_PER_METRIC} values per metric in one EMF document, so a busy component writes a few documents
+ * per interval instead of one per datapoint. Documents are produced by a streaming JSON generator into a buffer
+ * which is reused across flushes.
+ */
+public class EmfMetricEmitter implements Closeable {
+    public static final int MAX_METRICS_PER_DOCUMENT = 100;
+    public static final int MAX_VALUES_PER_METRIC = 100;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Setter(AccessLevel.PACKAGE)
+    @Getter(AccessLevel.PACKAGE)
+    private Logger logger;
+    private final Map<Group, Map<String, Series>> groups = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> flushFuture;
+    // Only used while holding the lock of this emitter, in flush
+    private final StringBuilderWriter buffer = new StringBuilderWriter();
+
+    /**
+     * Create an emitter writing to {@code <outputDir>/<name>.log}.
+     *
+     * @param name          name of the raw logger and its file
+     * @param outputDir     directory of the file
+     * @param flushInterval interval between writes
+     * @param unit          unit of the interval
+     */
+    @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
+    public EmfMetricEmitter(String name, Path outputDir, long flushInterval, TimeUnit unit) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.logger = LogManager.getRawLogger(name, outputDir);
+        this.flushFuture = TelemetryScheduler.get().scheduleAtFixedRate(this::flush, flushInterval, flushInterval,
+                unit);
+    }
+
+    /**
+     * Buffer a value until the next flush.
+     *
+     * @param namespace  CloudWatch namespace
+     * @param dimensions dimension names and values, may be empty
+     * @param name       metric name
+     * @param unit       metric unit; a metric keeps the unit it was first put with
+     * @param value      the value
+     */
+    public void put(String namespace, Map<String, String> dimensions, String name, TelemetryUnit unit,
+                    double value) {
+        Objects.requireNonNull(namespace);
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(unit);
+        Group group = new Group(namespace, dimensions == null ? Collections.emptySortedMap()
+                : new TreeMap<>(dimensions));
+        groups.computeIfAbsent(group, g -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> new Series(unit))
+                .add(value);
+    }
+
+    /**
+     * Write everything buffered so far.
+     */
+    public synchronized void flush() {
+        long timestamp = System.currentTimeMillis();
+        try {
+            for (Map.Entry<Group, Map<String, Series>> group : groups.entrySet()) {
+                List<Drained> drained = new ArrayList<>();
+                group.getValue().forEach((name, series) -> {
+                    double[] values = series.drain();
+                    if (values.length > 0) {
+                        drained.add(new Drained(name, series.unit, values));
+                    }
+                });
+                write(group.getKey(), drained, timestamp);
+            }
+        } catch (IOException e) {
+            // Writing into memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stop the periodic flush, writing out whatever has been buffered so far.
+     */
+    @Override
+    public void close() {
+        flushFuture.cancel(false);
+        flush();
+    }
+
+    private void write(Group group, List<Drained> metrics, long timestamp) throws IOException {
+        // Every document takes the next chunk of up to 100 values from up to 100 metrics which still have values
+        int[] offsets = new int[metrics.size()];
+        while (true) {
+            List<Integer> chunk = new ArrayList<>();
+            for (int i = 0; i < metrics.size() && chunk.size() < MAX_METRICS_PER_DOCUMENT; i++) {
+                if (offsets[i] < metrics.get(i).values.length) {
+                    chunk.add(i);
+                }
+            }
+            if (chunk.isEmpty()) {
+                return;
+            }
+            buffer.getBuilder().setLength(0);
+            try (JsonGenerator gen = JSON_FACTORY.createGenerator(buffer)) {
+                writeDocument(gen, group, metrics, chunk, offsets, timestamp);
+            }
+            logger.atInfo().log(buffer.getBuilder().toString());
+        }
+    }
+
+    private static void writeDocument(JsonGenerator gen, Group group, List<Drained> metrics, List<Integer> chunk,
+                                      int[] offsets, long timestamp) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("_aws");
+        gen.writeNumberField("Timestamp", timestamp);
+        gen.writeArrayFieldStart("CloudWatchMetrics");
+        gen.writeStartObject();
+        gen.writeStringField("Namespace", group.namespace);
+        gen.writeArrayFieldStart("Dimensions");
+        gen.writeStartArray();
+        for (String dimension : group.dimensions.keySet()) {
+            gen.writeString(dimension);
+        }
+        gen.writeEndArray();
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("Metrics");
+        for (int i : chunk) {
+            gen.writeStartObject();
+            gen.writeStringField("Name", metrics.get(i).name);
+            gen.writeStringField("Unit", emfUnit(metrics.get(i).unit));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeEndObject();
+
+        for (Map.Entry<String, String> dimension : group.dimensions.entrySet()) {
+            gen.writeStringField(dimension.getKey(), dimension.getValue());
+        }
+        for (int i : chunk) {
+            Drained metric = metrics.get(i);
+            int from = offsets[i];
+            int to = Math.min(metric.values.length, from + MAX_VALUES_PER_METRIC);
+            gen.writeFieldName(metric.name);
+            if (to - from == 1) {
+                gen.writeNumber(metric.values[from]);
+            } else {
+                gen.writeArray(metric.values, from, to - from);
+            }
+            offsets[i] = to;
+        }
+        gen.writeEndObject();
+    }
+
+    static String emfUnit(TelemetryUnit unit) {
+        switch (unit) {
+            case BytesPerSecond:
+                return "Bytes/Second";
+            case CountPerSecond:
+                return "Count/Second";
+            default:
+                return unit.name();
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class Group {
+        private final String namespace;
+        private final SortedMap<String, String> dimensions;
+
+        Group(String namespace, SortedMap<String, String> dimensions) {
+            this.namespace = namespace;
+            this.dimensions = dimensions;
+        }
+    }
+
+    private static final class Drained {
+        private final String name;
+        private final TelemetryUnit unit;
+        private final double[] values;
+
+        Drained(String name, TelemetryUnit unit, double[] values) {
+            this.name = name;
+            this.unit = unit;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Values of one metric in the current interval.
+     */
+    private static final class Series {
+        private final TelemetryUnit unit;
+        private double[] values = new double[8];
+        private int size;
+
+        Series(TelemetryUnit unit) {
+            this.unit = unit;
+        }
+
+        synchronized void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized double[] drain() {
+            double[] drained = Arrays.copyOf(values, size);
+            size = 0;
+            return drained;
+        }
+    }
+
+    /**
+     * Writer over a reusable {@link StringBuilder}.
+     */
+    private static final class StringBuilderWriter extends Writer {
+        @Getter
+        private final StringBuilder builder = new StringBuilder(4096);
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Value of a {@link com.aws.greengrass.telemetry.models.TelemetryAggregation#Histogram} metric: the distribution of
+ * the values recorded in one interval. Minimum, maximum and sum are exact, percentiles are accurate to within about
+ * 3% of the value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Histogram {
+    @JsonProperty("C")
+    private long count;
+    @JsonProperty("Min")
+    private double min;
+    @JsonProperty("Max")
+    private double max;
+    @JsonProperty("Sum")
+    private double sum;
+    @JsonProperty("P50")
+    private double p50;
+    @JsonProperty("P90")
+    private double p90;
+    @JsonProperty("P99")
+    private double p99;
+    @JsonProperty("P99.9")
+    private double p999;
+}
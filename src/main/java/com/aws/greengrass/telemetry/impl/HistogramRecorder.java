@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Fixed memory, lock-free recorder of a distribution of values.
+ *
+ * <p>Values are counted in logarithmic buckets: every power of two between {@link #LOWEST} and {@link #HIGHEST} is
+ * split into {@code 2^SUB_BUCKET_BITS} equal buckets. The bucket of a value is read straight from the exponent and
+ * the top mantissa bits of its IEEE 754 representation, so recording is a shift and an atomic increment. Values
+ * below the range, including zero and negative values, share the first bucket and values above it share the last;
+ * the exact minimum and maximum are tracked separately.
+ */
+final class HistogramRecorder {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SHIFT = 52 - SUB_BUCKET_BITS;
+    static final double LOWEST = 0x1p-30;
+    static final double HIGHEST = 0x1p40;
+    private static final int OFFSET = (int) (Double.doubleToRawLongBits(LOWEST) >>> SHIFT) - 1;
+    private static final int BUCKETS = (int) (Double.doubleToRawLongBits(HIGHEST) >>> SHIFT) - OFFSET + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+
+    /**
+     * Record a value. NaN is ignored.
+     *
+     * @param value the value
+     */
+    void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        max.accumulate(value);
+        min.accumulate(value);
+    }
+
+    /**
+     * Read and reset the recorded distribution.
+     *
+     * @return the distribution, or null if nothing was recorded since the previous call
+     */
+    Histogram snapshotAndReset() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.getAndSet(i, 0);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return null;
+        }
+        double lo = min.getThenReset();
+        double hi = max.getThenReset();
+        return new Histogram(count, lo, hi, sum.sumThenReset(), percentile(snapshot, count, 0.5, lo, hi),
+                percentile(snapshot, count, 0.9, lo, hi), percentile(snapshot, count, 0.99, lo, hi),
+                percentile(snapshot, count, 0.999, lo, hi));
+    }
+
+    static int index(double value) {
+        if (value < LOWEST) {
+            return 0;
+        }
+        if (value >= HIGHEST) {
+            return BUCKETS - 1;
+        }
+        return (int) (Double.doubleToRawLongBits(value) >>> SHIFT) - OFFSET;
+    }
+
+    private static double percentile(long[] snapshot, long count, double percentile, double min, double max) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        int i = 0;
+        for (; i < BUCKETS - 1; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                break;
+            }
+        }
+        if (i == 0) {
+            return min;
+        }
+        if (i == BUCKETS - 1) {
+            return max;
+        }
+        double lower = Double.longBitsToDouble((long) (i + OFFSET) << SHIFT);
+        double upper = Double.longBitsToDouble((long) (i + OFFSET + 1) << SHIFT);
+        // Middle of the bucket, but never outside of what was actually recorded
+        return Math.min(max, Math.max(min, (lower + upper) / 2));
+    }
+}
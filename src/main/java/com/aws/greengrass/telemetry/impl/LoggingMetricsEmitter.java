@@ -0,0 +1,104 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.logging.impl.instrumentation.InstrumentationSnapshot;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+import com.aws.greengrass.logging.impl.instrumentation.TimerSnapshot;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the {@link LoggingInstrumentation} counters to the {@value #STORE_NAME} telemetry store. Each
+ * emission writes how much every counter grew since the previous one, skipping counters which didn't change.
+ */
+public final class LoggingMetricsEmitter implements Closeable {
+    public static final String STORE_NAME = "LoggingMetrics";
+    public static final String NAMESPACE = "GreengrassLogging";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final MetricFactory metricFactory;
+    private final Map<String, MetricHandle> handles = new HashMap<>();
+    private final Map<String, Long> previous = new HashMap<>();
+    private ScheduledFuture<?> future;
+
+    LoggingMetricsEmitter(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
+    /**
+     * Start writing the logging pipeline metrics. Nothing is written when instrumentation isn't enabled with the
+     * {@value LoggingInstrumentation#INSTRUMENTATION_KEY} system property.
+     *
+     * @param interval interval between writes
+     * @param unit     unit of the interval
+     * @return the running emitter, close it to stop
+     */
+    public static LoggingMetricsEmitter start(long interval, TimeUnit unit) {
+        LoggingMetricsEmitter emitter = new LoggingMetricsEmitter(new MetricFactory(STORE_NAME));
+        if (LoggingInstrumentation.ENABLED) {
+            emitter.future = TelemetryScheduler.get().scheduleAtFixedRate(emitter::emit, interval, interval, unit);
+        }
+        return emitter;
+    }
+
+    /**
+     * Write how much every counter grew since the previous call.
+     */
+    synchronized void emit() {
+        InstrumentationSnapshot snapshot = LoggingInstrumentation.snapshot();
+        snapshot.getEvents().forEach((logger, byLevel) -> byLevel.forEach((level, count) ->
+                emitDelta("Events." + level + "." + logger, TelemetryUnit.Count, count)));
+        snapshot.getSuppressed().forEach((logger, count) ->
+                emitDelta("Suppressed." + logger, TelemetryUnit.Count, count));
+        snapshot.getBytesWritten().forEach((store, bytes) ->
+                emitDelta("BytesWritten." + store, TelemetryUnit.Bytes, bytes));
+        snapshot.getSerialization().forEach((format, timer) -> emitTimer("Serialization." + format, timer));
+        emitTimer("ListenerDispatch", snapshot.getListenerDispatch());
+        emitTimer("Rollover", snapshot.getRollover());
+        snapshot.getDropped().forEach((source, count) -> emitDelta("Dropped." + source, TelemetryUnit.Count, count));
+    }
+
+    private void emitTimer(String name, TimerSnapshot timer) {
+        emitDelta(name + ".Count", TelemetryUnit.Count, timer.getCount());
+        long nanos = delta(name + ".Time", timer.getTotalNanos());
+        if (nanos > 0) {
+            handle(name + ".Time", TelemetryUnit.Seconds).put(nanos / NANOS_PER_SECOND);
+        }
+    }
+
+    private void emitDelta(String name, TelemetryUnit unit, long total) {
+        long delta = delta(name, total);
+        if (delta > 0) {
+            handle(name, unit).put(delta);
+        }
+    }
+
+    private long delta(String name, long total) {
+        Long before = previous.put(name, total);
+        long delta = total - (before == null ? 0 : before);
+        // A negative delta means the counters were reset, then the total is the growth since the reset
+        return delta < 0 ? total : delta;
+    }
+
+    private MetricHandle handle(String name, TelemetryUnit unit) {
+        return handles.computeIfAbsent(name, n -> metricFactory.register(NAMESPACE, n, unit,
+                TelemetryAggregation.Sum));
+    }
+
+    @Override
+    public void close() {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+}
@@ -7,6 +7,7 @@ package com.aws.greengrass.telemetry.impl;
 
 import com.aws.greengrass.telemetry.models.TelemetryAggregation;
 import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
 /**
- * Metric is a class encapsulating the namespace, name, unit, aggregation,value and timestamp of the metric.
+ * Metric is a class encapsulating the namespace, name, unit, aggregation, dimensions, value and timestamp of the
+ * metric. Metrics without dimensions are serialized without the dimensions field.
  */
 @Builder
 @Getter
@@ -39,8 +41,16 @@ public class Metric {
     @NonNull
     @JsonProperty("A")
     private TelemetryAggregation aggregation;
+    @JsonProperty("D")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Dimensions dimensions;
     @JsonProperty("V")
     private Object value;
     @JsonProperty("TS")
     private Long timestamp;
+
+    public Metric(String namespace, String name, TelemetryUnit unit, TelemetryAggregation aggregation, Object value,
+                  Long timestamp) {
+        this(namespace, name, unit, aggregation, null, value, timestamp);
+    }
 }
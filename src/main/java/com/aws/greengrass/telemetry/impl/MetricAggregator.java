@@ -0,0 +1,291 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import lombok.EqualsAndHashCode;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Accumulates metric values in memory and turns them into one {@link Metric} per namespace, name, dimensions, unit
+ * and aggregation on every flush. Dimension sets are interned with a precomputed hash, so they add no hashing cost to
+ * the series lookup.
+ *
+ * <p>Values are recorded into striped {@link LongAdder}, {@link DoubleAdder} and {@link DoubleAccumulator} cells,
+ * or a {@link HistogramRecorder} for histograms, so concurrent writers never block each other. Each series has two
+ * sets of them: writers record into the active one, and a flush swaps in the other, waits for the writers still
+ * recording into the one it swapped out, then reads and resets it. The count, sum, maximum and minimum of an interval
+ * are therefore always of the same values.
+ *
+ * <p>A series which receives no value for {@value #IDLE_FLUSHES_BEFORE_EVICTION} flushes in a row is evicted, so
+ * series which are no longer used don't hold memory forever. Recording into the cell of an evicted series records
+ * into a new cell for it.
+ */
+class MetricAggregator {
+    static final int IDLE_FLUSHES_BEFORE_EVICTION = 3;
+    // Reusable per-thread probe so that looking up an existing series doesn't allocate
+    private static final ThreadLocal<Key> probe = ThreadLocal.withInitial(Key::new);
+    private final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Record a value for a series.
+     *
+     * @param namespace   validated namespace
+     * @param name        validated name
+     * @param dimensions  dimensions of the series
+     * @param unit        unit of the series
+     * @param aggregation how the values are combined
+     * @param value       value to aggregate
+     */
+    void record(String namespace, String name, Dimensions dimensions, TelemetryUnit unit,
+                TelemetryAggregation aggregation, double value) {
+        cell(namespace, name, dimensions, unit, aggregation).record(value);
+    }
+
+    /**
+     * Get the cell of a series, creating it if needed. Callers may keep the cell and record into it directly, as long
+     * as they keep the cell {@link Cell#record(double)} returns, which differs once the series was evicted.
+     *
+     * @param namespace   validated namespace
+     * @param name        validated name
+     * @param dimensions  dimensions of the series
+     * @param unit        unit of the series
+     * @param aggregation how the values are combined
+     * @return the cell of the series
+     */
+    Cell cell(String namespace, String name, Dimensions dimensions, TelemetryUnit unit,
+              TelemetryAggregation aggregation) {
+        Key key = probe.get().set(namespace, name, dimensions, unit, aggregation);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = cells.computeIfAbsent(new Key().set(namespace, name, dimensions, unit, aggregation),
+                    k -> new Cell(this, k));
+        }
+        return cell;
+    }
+
+    private Cell cell(Key key) {
+        Cell cell = cells.get(key);
+        return cell == null ? cells.computeIfAbsent(key, k -> new Cell(this, k)) : cell;
+    }
+
+    /**
+     * Emit one aggregated metric for every series which received values since the previous flush, and evict the
+     * series which stayed idle.
+     *
+     * @param emitter receives the aggregated metrics
+     */
+    void flush(Consumer<Metric> emitter) {
+        long timestamp = Instant.now().toEpochMilli();
+        for (Cell cell : cells.values()) {
+            Metric metric = cell.snapshotAndReset(timestamp);
+            if (metric == null && cell.isIdle()) {
+                cells.remove(cell.key, cell);
+                // Values recorded until writers see the eviction
+                metric = cell.evict(timestamp);
+            }
+            if (metric != null) {
+                emitter.accept(metric);
+            }
+        }
+    }
+
+    /**
+     * Get the number of series held in memory.
+     *
+     * @return the number of series
+     */
+    int size() {
+        return cells.size();
+    }
+
+    /**
+     * Series key. Keys stored in the map are never modified; only the per-thread probe is reused.
+     */
+    @EqualsAndHashCode
+    private static final class Key {
+        private String namespace;
+        private String name;
+        private Dimensions dimensions;
+        private TelemetryUnit unit;
+        private TelemetryAggregation aggregation;
+
+        Key set(String namespace, String name, Dimensions dimensions, TelemetryUnit unit,
+                TelemetryAggregation aggregation) {
+            this.namespace = namespace;
+            this.name = name;
+            this.dimensions = dimensions;
+            this.unit = unit;
+            this.aggregation = aggregation;
+            return this;
+        }
+    }
+
+    static final class Cell {
+        private final MetricAggregator owner;
+        private final Key key;
+        private final AtomicReference<Accumulator> active;
+        // Swapped out by the previous flush, swapped in by the next one
+        private Accumulator spare;
+        private int idleFlushes;
+        private volatile boolean evicted;
+
+        Cell(MetricAggregator owner, Key key) {
+            this.owner = owner;
+            this.key = key;
+            this.active = new AtomicReference<>(new Accumulator(key.aggregation));
+            this.spare = new Accumulator(key.aggregation);
+        }
+
+        /**
+         * Record a value, into a new cell of the series if this one was evicted.
+         *
+         * @param value value to aggregate
+         * @return the cell which recorded the value, to record into next time
+         */
+        Cell record(double value) {
+            Cell cell = this;
+            while (!cell.tryRecord(value)) {
+                cell = owner.cell(cell.key);
+            }
+            return cell;
+        }
+
+        private boolean tryRecord(double value) {
+            while (true) {
+                Accumulator accumulator = active.get();
+                accumulator.started.increment();
+                try {
+                    // Checked once counted in, so that a flush either waits for this writer or it sees the flush
+                    if (evicted) {
+                        return false;
+                    }
+                    if (active.get() == accumulator) {
+                        accumulator.record(key.aggregation, value);
+                        return true;
+                    }
+                } finally {
+                    accumulator.finished.increment();
+                }
+            }
+        }
+
+        synchronized Metric snapshotAndReset(long timestamp) {
+            Accumulator retired = active.getAndSet(spare);
+            retired.awaitWriters();
+            spare = retired;
+            Metric metric = retired.snapshotAndReset(key, timestamp);
+            idleFlushes = metric == null ? idleFlushes + 1 : 0;
+            return metric;
+        }
+
+        synchronized boolean isIdle() {
+            return idleFlushes >= IDLE_FLUSHES_BEFORE_EVICTION;
+        }
+
+        /**
+         * Make writers record into a new cell, and read what they recorded into this one until then.
+         */
+        Metric evict(long timestamp) {
+            evicted = true;
+            return snapshotAndReset(timestamp);
+        }
+    }
+
+    /**
+     * Values of one interval, recorded by any number of writers and read by a flush once none is recording.
+     */
+    private static final class Accumulator {
+        // Writers which started and finished recording; both only grow
+        private final LongAdder started = new LongAdder();
+        private final LongAdder finished = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        private final HistogramRecorder histogram;
+
+        Accumulator(TelemetryAggregation aggregation) {
+            this.histogram = aggregation == TelemetryAggregation.Histogram ? new HistogramRecorder() : null;
+        }
+
+        void record(TelemetryAggregation aggregation, double value) {
+            switch (aggregation) {
+                case Maximum:
+                    max.accumulate(value);
+                    break;
+                case Minimum:
+                    min.accumulate(value);
+                    break;
+                case Average:
+                case Sum:
+                    sum.add(value);
+                    break;
+                case Histogram:
+                    histogram.record(value);
+                    break;
+                case Count:
+                default:
+                    break;
+            }
+            count.increment();
+        }
+
+        /**
+         * Wait for the writers which started recording before this accumulator was swapped out.
+         */
+        void awaitWriters() {
+            // Finished is read first: as neither shrinks, reading it equal to started means none was in flight
+            // when it was read
+            while (finished.sum() != started.sum()) {
+                Thread.yield();
+            }
+        }
+
+        Metric snapshotAndReset(Key key, long timestamp) {
+            long n = count.sumThenReset();
+            if (n == 0) {
+                return null;
+            }
+            Object value;
+            switch (key.aggregation) {
+                case Maximum:
+                    value = max.getThenReset();
+                    break;
+                case Minimum:
+                    value = min.getThenReset();
+                    break;
+                case Average:
+                    value = sum.sumThenReset() / n;
+                    break;
+                case Sum:
+                    value = sum.sumThenReset();
+                    break;
+                case Histogram:
+                    value = histogram.snapshotAndReset();
+                    if (value == null) {
+                        return null;
+                    }
+                    break;
+                case Count:
+                default:
+                    value = n;
+                    break;
+            }
+            return new Metric(key.namespace, key.name, key.unit, key.aggregation,
+                    key.dimensions.isEmpty() ? null : key.dimensions, value, timestamp);
+        }
+    }
+}
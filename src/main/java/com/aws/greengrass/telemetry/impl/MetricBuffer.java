@@ -0,0 +1,158 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+import com.aws.greengrass.telemetry.models.TelemetryBufferPolicy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Bounded buffer of encoded metric lines between the threads emitting metrics and a background writer thread, so
+ * that emitting never waits for the telemetry file.
+ *
+ * <p>Offering is lock-free: the lines are kept in a {@link ConcurrentLinkedQueue} bounded by a separate atomic size.
+ * When the buffer is full the {@link TelemetryBufferPolicy} decides what is lost. With
+ * {@link TelemetryBufferPolicy#Aggregate}, numeric datapoints go into an overflow {@link MetricAggregator} instead,
+ * which the writer writes out every time it has emptied the buffer.
+ */
+final class MetricBuffer {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Supplier<Logger> logger;
+    private final String name;
+    private final int capacity;
+    private final TelemetryBufferPolicy policy;
+    private final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final MetricAggregator overflow;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder aggregated = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private MetricBuffer(Supplier<Logger> logger, String name, int capacity, TelemetryBufferPolicy policy) {
+        this.logger = logger;
+        this.name = name;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.overflow = policy == TelemetryBufferPolicy.Aggregate ? new MetricAggregator() : null;
+        this.writer = new Thread(this::run, "gg-telemetry-buffer-" + name);
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Create a buffer and start its writer thread.
+     *
+     * @param logger   supplies the telemetry logger to write the lines to
+     * @param name     name of the buffer, used for the writer thread and the dropped counter
+     * @param capacity maximum number of buffered lines
+     * @param policy   what to do when the buffer is full
+     * @return the running buffer
+     */
+    static MetricBuffer start(Supplier<Logger> logger, String name, int capacity, TelemetryBufferPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive");
+        }
+        MetricBuffer buffer = new MetricBuffer(logger, name, capacity, policy);
+        buffer.writer.start();
+        return buffer;
+    }
+
+    /**
+     * Get the aggregator for numeric datapoints which don't fit in the buffer. A datapoint must go there instead of
+     * being encoded when this returns non-null, and is counted as aggregated.
+     *
+     * @return the overflow aggregator, or null if the datapoint should be offered
+     */
+    MetricAggregator aggregateOverflow() {
+        if (overflow == null || size.get() < capacity) {
+            return null;
+        }
+        aggregated.increment();
+        return overflow;
+    }
+
+    /**
+     * Add an encoded line, applying the policy if the buffer is full.
+     *
+     * @param line the encoded metric
+     */
+    void offer(String line) {
+        while (!tryOffer(line)) {
+            if (policy != TelemetryBufferPolicy.DropOldest) {
+                drop();
+                return;
+            }
+            if (lines.poll() != null) {
+                size.decrementAndGet();
+                drop();
+            }
+        }
+    }
+
+    private boolean tryOffer(String line) {
+        int n = size.getAndIncrement();
+        if (n >= capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        lines.add(line);
+        if (n == 0) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private void drop() {
+        dropped.increment();
+        LoggingInstrumentation.recordDropped(name, 1);
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    long getAggregatedCount() {
+        return aggregated.sum();
+    }
+
+    private void run() {
+        while (!closed) {
+            drain();
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        drain();
+    }
+
+    private void drain() {
+        String line;
+        while ((line = lines.poll()) != null) {
+            size.decrementAndGet();
+            logger.get().trace(line);
+        }
+        if (overflow != null) {
+            overflow.flush(m -> logger.get().trace(new TelemetryLoggerMessage(m).getJSONMessage()));
+        }
+    }
+
+    /**
+     * Stop the writer once it has written everything buffered so far.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+}
@@ -9,23 +9,47 @@ import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.telemetry.api.MetricFactoryBuilder;
 import com.aws.greengrass.telemetry.impl.config.TelemetryConfig;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryBufferPolicy;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
 
+import java.io.Closeable;
 import java.time.Instant;
 import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An implementation of {@link MetricFactoryBuilder} to generate metrics events.
+ *
+ * <p>By default every datapoint is written as its own line. A factory created with an aggregation interval instead
+ * accumulates numeric datapoints in memory and writes one aggregated metric per namespace, name, dimensions, unit and
+ * aggregation each interval.
+ *
+ * <p>The number of distinct series, i.e. names with their dimensions, per namespace, and of namespaces, is capped at
+ * {@link TelemetryConfig#getMaxSeriesPerNamespace()}. Datapoints beyond the cap are written to the
+ * {@value SeriesLimiter#OVERFLOW} series instead, see {@link #getOverflowCount(String)}.
+ *
+ * <p>A factory created with a buffer never writes on the emitting thread. Encoded datapoints go into a bounded
+ * buffer written by a background thread, and a {@link TelemetryBufferPolicy} decides what happens when the buffer is
+ * full, see {@link #getDroppedCount()} and {@link #getAggregatedCount()}.
  */
-public class MetricFactory implements MetricFactoryBuilder {
+public class MetricFactory implements MetricFactoryBuilder, Closeable {
     public static final String METRIC_LOGGER_PREFIX = "Metrics-";
     private static final String GENERIC_LOG_STORE = "generic";
     private TelemetryConfig telemetryConfig;
     @Setter(AccessLevel.PACKAGE)
     @Getter(AccessLevel.PACKAGE)
     private transient Logger logger;
+    private MetricAggregator aggregator;
+    private SeriesLimiter limiter;
+    private MetricBuffer buffer;
+    private ScheduledFuture<?> flushFuture;
 
     public MetricFactory() {
         constructorHelper(null);
@@ -35,6 +59,39 @@ public class MetricFactory implements MetricFactoryBuilder {
         constructorHelper(storeName);
     }
 
+    /**
+     * Create a factory which aggregates numeric datapoints in memory and writes them once per interval.
+     *
+     * @param storeName           Creates a log file based on the store name passed. Set to "generic" if it is null
+     *                            or empty.
+     * @param aggregationInterval interval between writes of the aggregated metrics
+     * @param unit                unit of the interval
+     */
+    @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
+    public MetricFactory(String storeName, long aggregationInterval, TimeUnit unit) {
+        if (aggregationInterval <= 0) {
+            throw new IllegalArgumentException("Aggregation interval must be positive");
+        }
+        constructorHelper(storeName);
+        this.aggregator = new MetricAggregator();
+        this.flushFuture = TelemetryScheduler.get()
+                .scheduleAtFixedRate(this::flush, aggregationInterval, aggregationInterval, unit);
+    }
+
+    /**
+     * Create a factory which writes datapoints from a background thread through a bounded buffer.
+     *
+     * @param storeName      Creates a log file based on the store name passed. Set to "generic" if it is null or
+     *                       empty.
+     * @param bufferCapacity maximum number of datapoints waiting to be written
+     * @param policy         what to do with datapoints when the buffer is full
+     */
+    @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
+    public MetricFactory(String storeName, int bufferCapacity, @NonNull TelemetryBufferPolicy policy) {
+        constructorHelper(storeName);
+        this.buffer = MetricBuffer.start(this::getLogger, logger.getName(), bufferCapacity, policy);
+    }
+
     /**
      * Helper function for both the constructors.
      *
@@ -47,8 +104,9 @@ public class MetricFactory implements MetricFactoryBuilder {
         // TODO: get configurations from kernel config
         String loggerName = METRIC_LOGGER_PREFIX + storeName;
         this.telemetryConfig = TelemetryConfig.getInstance();
-        this.telemetryConfig.editConfigForLogger(loggerName);
+        this.telemetryConfig.getStore(loggerName);
         this.logger = LogManager.getTelemetryLogger(loggerName);
+        this.limiter = new SeriesLimiter(telemetryConfig.getMaxSeriesPerNamespace());
     }
 
     /**
@@ -61,6 +119,13 @@ public class MetricFactory implements MetricFactoryBuilder {
     public void putMetricData(Metric metric, Object value) throws IllegalArgumentException {
         if (telemetryConfig.isMetricsEnabled()) {
             Objects.requireNonNull(metric);
+            if (value instanceof Number) {
+                MetricAggregator target = aggregatorFor();
+                if (target != null) {
+                    record(target, metric, ((Number) value).doubleValue());
+                    return;
+                }
+            }
             synchronized (metric) {
                 metric.setValue(value);
                 metric.setTimestamp(Instant.now().toEpochMilli());
@@ -76,23 +141,325 @@ public class MetricFactory implements MetricFactoryBuilder {
      * @throws IllegalArgumentException This will throw an exception if namespace or name of the metric is not set.
      */
     public void putMetricData(Metric metric) throws IllegalArgumentException {
-        TelemetryLoggerMessage message = new TelemetryLoggerMessage(metric);
-        String name = formatString(metric.getName());
-        String namespace = formatString(metric.getNamespace());
-        if (name.length() == 0) {
-            throw new IllegalArgumentException("Metric name cannot be empty. " + message.getJSONMessage());
+        if (metric.getValue() instanceof Number) {
+            MetricAggregator target = aggregatorFor();
+            if (target != null) {
+                record(target, metric, ((Number) metric.getValue()).doubleValue());
+                return;
+            }
+        }
+        validate(metric);
+        SeriesLimiter.Namespace namespace = limiter.namespace(metric.getNamespace());
+        if (namespace.admit(metric.getName(), dimensions(metric))) {
+            if (namespace.getName().equals(metric.getNamespace())) {
+                logMetrics(new TelemetryLoggerMessage(metric));
+                return;
+            }
+            logMetrics(new TelemetryLoggerMessage(new Metric(namespace.getName(), metric.getName(), metric.getUnit(),
+                    metric.getAggregation(), metric.getDimensions(), metric.getValue(), metric.getTimestamp())));
+            return;
+        }
+        // Fold into the overflow series without renaming the caller's metric
+        logMetrics(new TelemetryLoggerMessage(new Metric(namespace.getName(), SeriesLimiter.OVERFLOW,
+                metric.getUnit(), metric.getAggregation(), metric.getValue(), metric.getTimestamp())));
+    }
+
+    /**
+     * Emit a value for the metric along with the current timestamp. Unlike {@link #putMetricData(Metric, Object)}
+     * the metric is neither modified nor locked, so a single metric can be shared by any number of threads, and the
+     * value is never boxed. An aggregating factory records the value without allocating, as does a buffered factory
+     * whose buffer is full and aggregates the overflow.
+     *
+     * @param metric the metric describing the value
+     * @param value  data value that has to be emitted
+     * @throws IllegalArgumentException if the namespace or name of the metric is empty
+     */
+    @Override
+    public void putMetricData(Metric metric, long value) throws IllegalArgumentException {
+        if (telemetryConfig.isMetricsEnabled()) {
+            MetricAggregator target = aggregatorFor();
+            if (target != null) {
+                record(target, metric, value);
+                return;
+            }
+            StringBuilder sb = appendPrefix(metric);
+            MetricJsonWriter.appendValue(sb, value);
+            write(MetricJsonWriter.appendTimestamp(sb, System.currentTimeMillis()).toString());
+        }
+    }
+
+    /**
+     * Emit a value for the metric along with the current timestamp. Unlike {@link #putMetricData(Metric, Object)}
+     * the metric is neither modified nor locked, so a single metric can be shared by any number of threads, and the
+     * value is never boxed. An aggregating factory records the value without allocating, as does a buffered factory
+     * whose buffer is full and aggregates the overflow.
+     *
+     * @param metric the metric describing the value
+     * @param value  data value that has to be emitted
+     * @throws IllegalArgumentException if the namespace or name of the metric is empty
+     */
+    @Override
+    public void putMetricData(Metric metric, double value) throws IllegalArgumentException {
+        if (telemetryConfig.isMetricsEnabled()) {
+            MetricAggregator target = aggregatorFor();
+            if (target != null) {
+                record(target, metric, value);
+                return;
+            }
+            StringBuilder sb = appendPrefix(metric);
+            MetricJsonWriter.appendValue(sb, value);
+            write(MetricJsonWriter.appendTimestamp(sb, System.currentTimeMillis()).toString());
+        }
+    }
+
+    /**
+     * Write the aggregated metrics now instead of waiting for the end of the interval. Does nothing for a factory
+     * which doesn't aggregate.
+     */
+    public void flush() {
+        if (aggregator != null) {
+            aggregator.flush(m -> logMetrics(new TelemetryLoggerMessage(m)));
+        }
+    }
+
+    /**
+     * Stop the periodic flush of an aggregating factory, writing out whatever has been aggregated so far.
+     */
+    @Override
+    public void close() {
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
         }
-        if (namespace.length() == 0) {
-            throw new IllegalArgumentException("Metric namespace cannot be empty. " + message.getJSONMessage());
+        flush();
+        if (buffer != null) {
+            try {
+                buffer.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+    }
+
+    /**
+     * Register a metric for repeated use. The namespace and name are validated and normalized once, and the handle
+     * keeps the encoded JSON of everything but the value and timestamp, so emitting through the handle only appends
+     * those two.
+     *
+     * @param namespace   metric namespace; whitespace is removed
+     * @param name        metric name; whitespace is removed
+     * @param unit        metric unit
+     * @param aggregation metric aggregation
+     * @return handle to emit values with
+     * @throws IllegalArgumentException if the namespace or name is empty
+     */
+    public MetricHandle register(@NonNull String namespace, @NonNull String name, @NonNull TelemetryUnit unit,
+                                 @NonNull TelemetryAggregation aggregation) throws IllegalArgumentException {
+        return register(namespace, name, Dimensions.EMPTY, unit, aggregation);
+    }
+
+    /**
+     * Register a metric with dimensions for repeated use. The namespace and name are validated and normalized once,
+     * and the handle keeps the encoded JSON of everything but the value and timestamp, so emitting through the
+     * handle only appends those two.
+     *
+     * @param namespace   metric namespace; whitespace is removed
+     * @param name        metric name; whitespace is removed
+     * @param dimensions  metric dimensions
+     * @param unit        metric unit
+     * @param aggregation metric aggregation
+     * @return handle to emit values with
+     * @throws IllegalArgumentException if the namespace or name is empty
+     */
+    public MetricHandle register(@NonNull String namespace, @NonNull String name, @NonNull Dimensions dimensions,
+                                 @NonNull TelemetryUnit unit, @NonNull TelemetryAggregation aggregation)
+            throws IllegalArgumentException {
+        Metric metric = new Metric(namespace, name, unit, aggregation);
+        SeriesLimiter.Namespace admitted = limiter.namespace(checkedNamespace(metric));
+        String checkedNamespace = admitted.getName();
+        String checkedName = checkedName(metric);
+        if (!admitted.admit(checkedName, dimensions)) {
+            checkedName = SeriesLimiter.OVERFLOW;
+            dimensions = Dimensions.EMPTY;
+        }
+        String prefix = MetricJsonWriter.appendPrefix(new StringBuilder(), checkedNamespace, checkedName, unit,
+                aggregation, dimensions).toString();
+        MetricAggregator.Cell cell = aggregator == null ? null
+                : aggregator.cell(checkedNamespace, checkedName, dimensions, unit, aggregation);
+        return new MetricHandle(this, checkedNamespace, checkedName, dimensions, unit, aggregation, prefix, cell);
+    }
+
+    /**
+     * Create a timer emitting durations in {@link TelemetryUnit#Milliseconds}.
+     *
+     * @param namespace   metric namespace; whitespace is removed
+     * @param name        metric name; whitespace is removed
+     * @param aggregation how the durations are aggregated, e.g. {@link TelemetryAggregation#Histogram}
+     * @return the timer
+     * @throws IllegalArgumentException if the namespace or name is empty
+     */
+    public MetricTimer timer(@NonNull String namespace, @NonNull String name,
+                             @NonNull TelemetryAggregation aggregation) throws IllegalArgumentException {
+        return timer(namespace, name, Dimensions.EMPTY, aggregation);
+    }
+
+    /**
+     * Create a timer with dimensions emitting durations in {@link TelemetryUnit#Milliseconds}.
+     *
+     * @param namespace   metric namespace; whitespace is removed
+     * @param name        metric name; whitespace is removed
+     * @param dimensions  metric dimensions
+     * @param aggregation how the durations are aggregated, e.g. {@link TelemetryAggregation#Histogram}
+     * @return the timer
+     * @throws IllegalArgumentException if the namespace or name is empty
+     */
+    public MetricTimer timer(@NonNull String namespace, @NonNull String name, @NonNull Dimensions dimensions,
+                             @NonNull TelemetryAggregation aggregation) throws IllegalArgumentException {
+        return new MetricTimer(register(namespace, name, dimensions, TelemetryUnit.Milliseconds, aggregation));
+    }
+
+    /**
+     * Get the number of datapoints folded into the {@value SeriesLimiter#OVERFLOW} series of a namespace because it
+     * had too many distinct names. Called with {@value SeriesLimiter#OVERFLOW} itself, get the number of datapoints
+     * folded into the overflow namespace because there were too many namespaces.
+     *
+     * @param namespace metric namespace without whitespace
+     * @return number of folded datapoints
+     */
+    public long getOverflowCount(String namespace) {
+        return limiter.getOverflowCount(namespace);
+    }
+
+    /**
+     * Get the number of datapoints a buffered factory dropped because its buffer was full.
+     *
+     * @return number of dropped datapoints, 0 for a factory without a buffer
+     */
+    public long getDroppedCount() {
+        return buffer == null ? 0 : buffer.getDroppedCount();
+    }
+
+    /**
+     * Get the number of datapoints a buffered factory with the {@link TelemetryBufferPolicy#Aggregate} policy
+     * aggregated because its buffer was full.
+     *
+     * @return number of aggregated datapoints, 0 for a factory without a buffer
+     */
+    public long getAggregatedCount() {
+        return buffer == null ? 0 : buffer.getAggregatedCount();
+    }
+
+    boolean isMetricsEnabled() {
+        return telemetryConfig.isMetricsEnabled();
+    }
+
+    /**
+     * Remove whitespace from the metric name and namespace, and check that neither is empty.
+     *
+     * @param metric the metric to validate
+     * @return the same metric
+     * @throws IllegalArgumentException if the namespace or name is empty
+     */
+    private Metric validate(Metric metric) throws IllegalArgumentException {
+        String name = checkedName(metric);
+        String namespace = checkedNamespace(metric);
         metric.setName(name);
         metric.setNamespace(namespace);
-        message = new TelemetryLoggerMessage(metric);
-        logMetrics(message);
+        return metric;
     }
 
-    private String formatString(String name) {
-        return name.replaceAll("\\s", "");
+    /**
+     * Remove whitespace, the same characters as the regex {@code \\s}. Returns the string itself, without allocating,
+     * when it has no whitespace, which is almost always the case.
+     */
+    private static String formatString(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isWhitespace(c)) {
+                if (sb == null) {
+                    sb = new StringBuilder(value.length()).append(value, 0, i);
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Get the aggregator a numeric datapoint must be recorded into instead of being written.
+     *
+     * @return the aggregator of an aggregating factory, the overflow aggregator of a full buffer which aggregates its
+     *     overflow, or null if the datapoint should be written
+     */
+    MetricAggregator aggregatorFor() {
+        if (aggregator != null) {
+            return aggregator;
+        }
+        return buffer == null ? null : buffer.aggregateOverflow();
+    }
+
+    /**
+     * Write an encoded datapoint, through the buffer if there is one.
+     *
+     * @param json the encoded datapoint
+     */
+    void write(String json) {
+        if (buffer == null) {
+            logger.trace(json);
+        } else {
+            buffer.offer(json);
+        }
+    }
+
+    private void record(MetricAggregator target, Metric metric, double value) {
+        SeriesLimiter.Namespace namespace = limiter.namespace(checkedNamespace(metric));
+        String name = checkedName(metric);
+        Dimensions dimensions = dimensions(metric);
+        if (namespace.admit(name, dimensions)) {
+            target.record(namespace.getName(), name, dimensions, metric.getUnit(), metric.getAggregation(), value);
+        } else {
+            target.record(namespace.getName(), SeriesLimiter.OVERFLOW, Dimensions.EMPTY, metric.getUnit(),
+                    metric.getAggregation(), value);
+        }
+    }
+
+    private StringBuilder appendPrefix(Metric metric) {
+        SeriesLimiter.Namespace namespace = limiter.namespace(checkedNamespace(metric));
+        String name = checkedName(metric);
+        Dimensions dimensions = dimensions(metric);
+        if (!namespace.admit(name, dimensions)) {
+            name = SeriesLimiter.OVERFLOW;
+            dimensions = Dimensions.EMPTY;
+        }
+        return MetricJsonWriter.appendPrefix(MetricJsonWriter.buffer(), namespace.getName(), name, metric.getUnit(),
+                metric.getAggregation(), dimensions);
+    }
+
+    private static Dimensions dimensions(Metric metric) {
+        return metric.getDimensions() == null ? Dimensions.EMPTY : metric.getDimensions();
+    }
+
+    private String checkedName(Metric metric) {
+        String name = formatString(metric.getName());
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Metric name cannot be empty. "
+                    + new TelemetryLoggerMessage(metric).getJSONMessage());
+        }
+        return name;
+    }
+
+    private String checkedNamespace(Metric metric) {
+        String namespace = formatString(metric.getNamespace());
+        if (namespace.isEmpty()) {
+            throw new IllegalArgumentException("Metric namespace cannot be empty. "
+                    + new TelemetryLoggerMessage(metric).getJSONMessage());
+        }
+        return namespace;
     }
 
     /**
@@ -101,6 +468,6 @@ public class MetricFactory implements MetricFactoryBuilder {
      * @param message message to be logged
      */
     public void logMetrics(TelemetryLoggerMessage message) {
-        logger.trace(message.getJSONMessage());
+        write(message.getJSONMessage());
     }
 }
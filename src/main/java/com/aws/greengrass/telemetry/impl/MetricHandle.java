@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A metric registered with {@link MetricFactory#register(String, String, TelemetryUnit, TelemetryAggregation)}.
+ * The namespace and name were validated at registration, and the JSON of everything but the value and timestamp is
+ * encoded once, so emitting a value doesn't look at the names again. Handles can be shared by any number of
+ * threads.
+ */
+@Getter
+public final class MetricHandle {
+    @Getter(AccessLevel.NONE)
+    private final MetricFactory factory;
+    private final String namespace;
+    private final String name;
+    private final Dimensions dimensions;
+    private final TelemetryUnit unit;
+    private final TelemetryAggregation aggregation;
+    @Getter(AccessLevel.NONE)
+    private final String jsonPrefix;
+    // Replaced by the new cell of the series once the aggregator evicted it
+    @Getter(AccessLevel.NONE)
+    private volatile MetricAggregator.Cell cell;
+
+    MetricHandle(MetricFactory factory, String namespace, String name, Dimensions dimensions, TelemetryUnit unit,
+                 TelemetryAggregation aggregation, String jsonPrefix, MetricAggregator.Cell cell) {
+        this.factory = factory;
+        this.namespace = namespace;
+        this.name = name;
+        this.dimensions = dimensions;
+        this.unit = unit;
+        this.aggregation = aggregation;
+        this.jsonPrefix = jsonPrefix;
+        this.cell = cell;
+    }
+
+    /**
+     * Emit a value with the current timestamp.
+     *
+     * @param value data value that has to be emitted
+     */
+    public void put(long value) {
+        if (factory.isMetricsEnabled()) {
+            MetricAggregator.Cell current = cell;
+            if (current != null) {
+                record(current, value);
+                return;
+            }
+            MetricAggregator overflow = factory.aggregatorFor();
+            if (overflow != null) {
+                overflow.record(namespace, name, dimensions, unit, aggregation, value);
+                return;
+            }
+            StringBuilder sb = MetricJsonWriter.buffer().append(jsonPrefix);
+            MetricJsonWriter.appendValue(sb, value);
+            write(sb);
+        }
+    }
+
+    /**
+     * Emit a value with the current timestamp.
+     *
+     * @param value data value that has to be emitted
+     */
+    public void put(double value) {
+        if (factory.isMetricsEnabled()) {
+            MetricAggregator.Cell current = cell;
+            if (current != null) {
+                record(current, value);
+                return;
+            }
+            MetricAggregator overflow = factory.aggregatorFor();
+            if (overflow != null) {
+                overflow.record(namespace, name, dimensions, unit, aggregation, value);
+                return;
+            }
+            StringBuilder sb = MetricJsonWriter.buffer().append(jsonPrefix);
+            MetricJsonWriter.appendValue(sb, value);
+            write(sb);
+        }
+    }
+
+    private void record(MetricAggregator.Cell current, double value) {
+        MetricAggregator.Cell recorded = current.record(value);
+        if (recorded != current) {
+            cell = recorded;
+        }
+    }
+
+    private void write(StringBuilder sb) {
+        factory.write(MetricJsonWriter.appendTimestamp(sb, System.currentTimeMillis()).toString());
+    }
+}
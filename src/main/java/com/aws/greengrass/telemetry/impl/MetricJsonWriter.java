@@ -0,0 +1,84 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Writes the JSON of a single {@link Metric} datapoint straight into a {@link StringBuilder}, producing the same
+ * output as serializing the {@link Metric} with Jackson, without creating the {@link Metric} or boxing the value.
+ */
+final class MetricJsonWriter {
+    private static final int MAX_RETAINED_CAPACITY = 1024;
+    private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private MetricJsonWriter() {
+    }
+
+    /**
+     * Get this thread's reusable buffer, emptied.
+     *
+     * @return an empty buffer
+     */
+    static StringBuilder buffer() {
+        StringBuilder sb = buffer.get();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            sb = new StringBuilder(256);
+            buffer.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * Append the opening brace, the namespace, name, unit, aggregation and dimensions fields, and the key of the
+     * value field.
+     *
+     * @param sb          buffer to append to
+     * @param namespace   metric namespace
+     * @param name        metric name
+     * @param unit        metric unit
+     * @param aggregation metric aggregation
+     * @param dimensions  metric dimensions, written only if not empty
+     * @return the buffer
+     */
+    static StringBuilder appendPrefix(StringBuilder sb, String namespace, String name, TelemetryUnit unit,
+                                      TelemetryAggregation aggregation, Dimensions dimensions) {
+        sb.append("{\"NS\":");
+        appendString(sb, namespace);
+        sb.append(",\"N\":");
+        appendString(sb, name);
+        sb.append(",\"U\":");
+        appendString(sb, unit.name());
+        sb.append(",\"A\":");
+        appendString(sb, aggregation.name());
+        return sb.append(dimensions.jsonField()).append(",\"V\":");
+    }
+
+    static StringBuilder appendValue(StringBuilder sb, long value) {
+        return sb.append(value);
+    }
+
+    static StringBuilder appendValue(StringBuilder sb, double value) {
+        // Same as Jackson, which writes non-finite numbers as strings by default
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return sb.append('"').append(value).append('"');
+        }
+        return sb.append(value);
+    }
+
+    static StringBuilder appendTimestamp(StringBuilder sb, long timestamp) {
+        return sb.append(",\"TS\":").append(timestamp).append('}');
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        JsonStringEncoder.getInstance().quoteAsString(value, sb);
+        sb.append('"');
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import java.util.function.Supplier;
+
+/**
+ * Measures the duration of operations with {@link System#nanoTime()} and emits them in
+ * {@link com.aws.greengrass.telemetry.models.TelemetryUnit#Milliseconds} through a {@link MetricHandle}. Created by
+ * {@link MetricFactory#timer(String, String, Dimensions, com.aws.greengrass.telemetry.models.TelemetryAggregation)}.
+ *
+ * <p>With an aggregating factory every duration is recorded into the lock-free aggregator and written once per
+ * interval. {@link #start()} allocates one {@link Sample} per measurement; hot loops should use {@link #startNanos()}
+ * and {@link #recordSince(long)} instead, which allocate nothing.
+ */
+public final class MetricTimer {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final MetricHandle handle;
+
+    MetricTimer(MetricHandle handle) {
+        this.handle = handle;
+    }
+
+    public MetricHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Start measuring, to be used with try-with-resources. The duration is recorded when the sample is closed.
+     *
+     * @return the running sample
+     */
+    public Sample start() {
+        return new Sample(System.nanoTime());
+    }
+
+    /**
+     * Get the start time of a measurement to pass to {@link #recordSince(long)}.
+     *
+     * @return the current {@link System#nanoTime()}
+     */
+    public long startNanos() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time elapsed since a measurement started.
+     *
+     * @param startNanos value of {@link #startNanos()} when the measurement started
+     * @return the elapsed nanoseconds
+     */
+    public long recordSince(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        recordNanos(nanos);
+        return nanos;
+    }
+
+    /**
+     * Record a duration measured elsewhere.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        handle.put(nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Run an operation and record how long it took, including when it throws.
+     *
+     * @param operation the operation to time
+     */
+    public void record(Runnable operation) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /**
+     * Run an operation and record how long it took, including when it throws.
+     *
+     * @param operation the operation to time
+     * @param <T>       result type
+     * @return the result of the operation
+     */
+    public <T> T record(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /**
+     * A running measurement. Closing it records the elapsed time once; closing it again does nothing.
+     */
+    public final class Sample implements AutoCloseable {
+        private final long startNanos;
+        private boolean stopped;
+
+        Sample(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Stop the measurement and record the elapsed time.
+         *
+         * @return the elapsed nanoseconds, or 0 if the sample was already stopped
+         */
+        public long stop() {
+            if (stopped) {
+                return 0;
+            }
+            stopped = true;
+            return recordSince(startNanos);
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of distinct series of a {@link MetricFactory}, so that a component generating metric names from
+ * unbounded data, such as request IDs, cannot grow the aggregator without limit.
+ *
+ * <p>Each namespace admits up to the configured number of distinct series, i.e. names with their dimensions, and at
+ * most that many namespaces are admitted. Datapoints of any further series are folded into the {@value #OVERFLOW}
+ * series, without dimensions, of their namespace, and those of any further namespace into the {@value #OVERFLOW}
+ * namespace, counting every folded datapoint. Admitted series are kept in sets bounded by the cap, so checking a
+ * series which was already admitted takes two lookups.
+ */
+final class SeriesLimiter {
+    static final String OVERFLOW = "__overflow__";
+    private static final Logger logger = LogManager.getLogger(SeriesLimiter.class);
+
+    private final int maxSeries;
+    private final Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+    private final AtomicInteger namespaceCount = new AtomicInteger();
+    private final Namespace overflowNamespace;
+
+    SeriesLimiter(int maxSeries) {
+        if (maxSeries <= 0) {
+            throw new IllegalArgumentException("Maximum number of series must be positive");
+        }
+        this.maxSeries = maxSeries;
+        this.overflowNamespace = new Namespace(OVERFLOW);
+    }
+
+    /**
+     * Get the admitted namespace for a validated namespace.
+     *
+     * @param namespace validated namespace
+     * @return the namespace itself, or the {@value #OVERFLOW} namespace if too many namespaces are in use
+     */
+    Namespace namespace(String namespace) {
+        Namespace admitted = namespaces.get(namespace);
+        if (admitted != null) {
+            return admitted;
+        }
+        if (!reserve(namespaceCount)) {
+            overflowNamespace.overflowed.increment();
+            overflowNamespace.warnOnce();
+            return overflowNamespace;
+        }
+        Namespace created = new Namespace(namespace);
+        admitted = namespaces.putIfAbsent(namespace, created);
+        if (admitted != null) {
+            // Another thread admitted it first
+            namespaceCount.decrementAndGet();
+            return admitted;
+        }
+        return created;
+    }
+
+    /**
+     * Get the number of datapoints folded into the {@value #OVERFLOW} series of a namespace, or into the
+     * {@value #OVERFLOW} namespace when called with that name.
+     *
+     * @param namespace validated namespace
+     * @return number of folded datapoints
+     */
+    long getOverflowCount(String namespace) {
+        Namespace admitted = OVERFLOW.equals(namespace) ? overflowNamespace : namespaces.get(namespace);
+        return admitted == null ? 0 : admitted.overflowed.sum();
+    }
+
+    private boolean reserve(AtomicInteger count) {
+        int n;
+        while ((n = count.get()) < maxSeries) {
+            if (count.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An admitted namespace and the series admitted in it.
+     */
+    final class Namespace {
+        private final String name;
+        // key: metric name, value: admitted dimension sets of the name
+        private final Map<String, Set<Dimensions>> series = new ConcurrentHashMap<>();
+        private final AtomicInteger seriesCount = new AtomicInteger();
+        private final LongAdder overflowed = new LongAdder();
+        private final AtomicBoolean warned = new AtomicBoolean();
+
+        Namespace(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Check whether a series may be written in this namespace. Datapoints of a series which isn't admitted must
+         * be written to the {@value #OVERFLOW} series without dimensions instead.
+         *
+         * @param metricName validated name
+         * @param dimensions dimensions of the series
+         * @return false if the namespace has too many series
+         */
+        boolean admit(String metricName, Dimensions dimensions) {
+            if (isAdmitted(metricName, dimensions)) {
+                return true;
+            }
+            if (reserve(seriesCount)) {
+                if (!series.computeIfAbsent(metricName, n -> ConcurrentHashMap.newKeySet()).add(dimensions)) {
+                    // Another thread admitted it first
+                    seriesCount.decrementAndGet();
+                }
+                return true;
+            }
+            if (isAdmitted(metricName, dimensions)) {
+                return true;
+            }
+            overflowed.increment();
+            warnOnce();
+            return false;
+        }
+
+        private boolean isAdmitted(String metricName, Dimensions dimensions) {
+            Set<Dimensions> admitted = series.get(metricName);
+            return admitted != null && admitted.contains(dimensions);
+        }
+
+        private void warnOnce() {
+            if (warned.compareAndSet(false, true)) {
+                logger.atWarn().kv("namespace", name).kv("maxSeries", maxSeries)
+                        .log("Too many distinct metrics, folding further metrics into " + OVERFLOW);
+            }
+        }
+    }
+}
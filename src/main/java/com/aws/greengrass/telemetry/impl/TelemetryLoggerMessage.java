@@ -14,8 +14,6 @@ import lombok.Data;
 
 @Data
 public class TelemetryLoggerMessage {
-    private static final ObjectMapper OBJECT_MAPPER =
-            new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
     private Object metricDataPoint;
 
     public TelemetryLoggerMessage(Object metricDataPoint) {
@@ -29,9 +27,17 @@ public class TelemetryLoggerMessage {
     @JsonIgnore
     public String getJSONMessage() {
         try {
-            return OBJECT_MAPPER.writeValueAsString(this.metricDataPoint);
+            return MapperHolder.OBJECT_MAPPER.writeValueAsString(this.metricDataPoint);
         } catch (JsonProcessingException e) {
             return "{\"error\": \"" + new String(JsonStringEncoder.getInstance().quoteAsString(e.getMessage())) + "\"}";
         }
     }
+
+    /**
+     * Holds the mapper so that it is only built when the first metric is serialized.
+     */
+    private static final class MapperHolder {
+        private static final ObjectMapper OBJECT_MAPPER =
+                new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single daemon scheduler shared by all periodic telemetry work, such as flushing aggregated metrics. It is created
+ * on first use and is independent of the logback contexts, which shut their own executors down when stopped.
+ */
+final class TelemetryScheduler {
+    private static final AtomicInteger threadNumber = new AtomicInteger(1);
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "gg-telemetry-" + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private TelemetryScheduler() {
+    }
+
+    static ScheduledExecutorService get() {
+        return SCHEDULER;
+    }
+}
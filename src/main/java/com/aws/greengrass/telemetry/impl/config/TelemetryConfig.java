@@ -9,6 +9,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.rolling.RollingFileAppender;
+import com.aws.greengrass.logging.impl.config.DiskQuotaPriority;
 import com.aws.greengrass.logging.impl.config.LogFormat;
 import com.aws.greengrass.logging.impl.config.LogStore;
 import com.aws.greengrass.logging.impl.config.PersistenceConfig;
@@ -21,26 +22,44 @@ import org.slf4j.impl.StaticMDCBinder;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.aws.greengrass.telemetry.impl.MetricFactory.METRIC_LOGGER_PREFIX;
 
+/**
+ * Configuration shared by all telemetry stores: the telemetry directory, the defaults of new stores and whether
+ * metrics are enabled. Every telemetry logger writes to its own {@link TelemetryStore}, created on first use.
+ * Reconfiguring replaces only the stores whose settings change; the other stores keep writing undisturbed.
+ */
 @Getter
 public class TelemetryConfig extends PersistenceConfig {
     // TODO: Replace the default log level from Kernel Configuration.
     public static final String CONFIG_PREFIX = "log";
     public static final String METRICS_SWITCH_KEY = "log.metricsEnabled";
+    public static final String METRICS_MAX_SERIES_KEY = "log.metricsMaxSeriesPerNamespace";
+    public static final int DEFAULT_MAX_SERIES_PER_NAMESPACE = 1000;
     public static final String TELEMETRY_DIRECTORY = "telemetry";
     public final Set<String> telemetryLoggerNamesSet = new HashSet<>();
     private static final Boolean DEFAULT_METRICS_SWITCH = true;
     private static final String DEFAULT_TELEMETRY_LOG_LEVEL = "TRACE";
     private static final TelemetryConfig INSTANCE = new TelemetryConfig();
     private final LoggerContext context = new LoggerContext();
-    private Path root = getRootStorePath().resolve(TELEMETRY_DIRECTORY);
+    // key: telemetry logger name
+    private final Map<String, TelemetryStore> stores = new ConcurrentHashMap<>();
+    private volatile Path root = getRootStorePath().resolve(TELEMETRY_DIRECTORY);
     @Setter
     private boolean metricsEnabled;
+    /**
+     * Maximum number of distinct metric names per namespace, and of namespaces, of metric factories created from now
+     * on.
+     */
+    @Setter
+    private volatile int maxSeriesPerNamespace;
 
     /**
      * Get default metrics configurations from system properties.
@@ -56,6 +75,7 @@ public class TelemetryConfig extends PersistenceConfig {
             metricsEnabled = Boolean.parseBoolean(enabledStr);
         }
         this.metricsEnabled = metricsEnabled;
+        this.maxSeriesPerNamespace = Integer.getInteger(METRICS_MAX_SERIES_KEY, DEFAULT_MAX_SERIES_PER_NAMESPACE);
         this.setLevel(Level.valueOf(DEFAULT_TELEMETRY_LOG_LEVEL));
         this.setFormat(LogFormat.JSON);
         startContext();
@@ -70,43 +90,75 @@ public class TelemetryConfig extends PersistenceConfig {
     }
 
     /**
-     * Sets up logger and store name.
+     * Make sure the store of a telemetry logger exists.
      *
      * @param loggerName This is used as the name of the telemetry logger.
+     * @deprecated use {@link #getStore(String)}, this no longer changes the shared configuration
      */
+    @Deprecated
     public void editConfigForLogger(String loggerName) {
-        this.logger = getLogger(loggerName);
-        this.setStorePath(Paths.get(getLogFileName(loggerName)));
+        getStore(loggerName);
     }
 
     /**
-     * Change the configured store path (only applies for file output).
+     * Get the store of a telemetry logger, creating it and attaching its appender on first use. Stores of different
+     * loggers are created concurrently without blocking each other.
      *
-     * @param path The path passed in must contain the file name to which the logs will be written.
+     * @param loggerName name of the telemetry logger, "Metrics-{storeName}"
+     * @return the store of the logger
      */
-    private void setStorePath(Path path) {
-        String newStoreName = deTilde(root.resolve(path).toString());
-        if (Objects.equals(this.storeName, newStoreName)) {
-            return;
+    public TelemetryStore getStore(String loggerName) {
+        if (!context.isStarted()) {
+            startContext();
         }
-        this.storeName = newStoreName;
-        setFileNameFromStoreName();
-        setStoreDirectoryFromStoreName();
-        reconfigure();
+        TelemetryStore store = stores.get(loggerName);
+        if (store != null) {
+            return store;
+        }
+        return stores.computeIfAbsent(loggerName, n -> open(n, root, fileSizeKB, totalLogStoreSizeKB));
+    }
+
+    /**
+     * Get all the stores created so far.
+     *
+     * @return read-only view of the stores by logger name
+     */
+    public Map<String, TelemetryStore> getStores() {
+        return Collections.unmodifiableMap(stores);
     }
 
     /**
-     * NOTE : Calling this method from elsewhere will NOT reconfigure the logger.
-     * This method is called only once from the setStorePath(..);
+     * Reconfigure the store of a single telemetry logger, leaving all other stores untouched.
+     *
+     * @param loggerName      name of the telemetry logger
+     * @param logConfigUpdate partial configuration; only the output directory and the file sizes are used
+     * @return true if the store exists
+     */
+    public boolean reconfigureStore(String loggerName, LogConfigUpdate logConfigUpdate) {
+        return stores.computeIfPresent(loggerName, (n, store) -> {
+            Path directory = store.getDirectory();
+            if (logConfigUpdate.getOutputDirectory() != null && !logConfigUpdate.getOutputDirectory().trim()
+                    .isEmpty()) {
+                directory = Paths.get(deTilde(logConfigUpdate.getOutputDirectory())).toAbsolutePath();
+            }
+            return reopen(store, directory, store.fileSizeKB(logConfigUpdate),
+                    store.totalLogStoreSizeKB(logConfigUpdate));
+        }) != null;
+    }
+
+    /**
+     * Apply the current default file sizes to every store.
      */
     @Override
     protected void reconfigure() {
-        reconfigure(logger);
+        reconfigure(LogConfigUpdate.builder().fileSizeKB(fileSizeKB).totalLogsSizeKB(totalLogStoreSizeKB).build(),
+                root);
     }
 
     /**
      * Reconfigures the logger based on the logger configuration provided. Overriding this since we don't want
-     * to change the telemetry directory or file name.
+     * to change the telemetry directory or file name. Only stores whose file settings actually change get a new
+     * appender.
      *
      * @param logConfigUpdate   The configuration for the logger.
      * @param storePath             Ths output directory path.
@@ -122,59 +174,77 @@ public class TelemetryConfig extends PersistenceConfig {
         if (logConfigUpdate.getTotalLogsSizeKB() != null) {
             totalLogStoreSizeKB = logConfigUpdate.getTotalLogsSizeKB();
         }
-        closeContext();
-        //Reconfigure all the telemetry loggers to use the store at new path.
-        for (Logger logger : context.getLoggerList()) {
-            if (!logger.getName().equals("ROOT") && telemetryLoggerNamesSet.contains(logger.getName())) {
-                editConfigForLogger(logger.getName());
-            }
-        }
-        startContext();
+        stores.replaceAll((name, store) -> reopen(store, store.getDirectory(), store.fileSizeKB(logConfigUpdate),
+                store.totalLogStoreSizeKB(logConfigUpdate)));
     }
 
-
     @Override
     protected synchronized void reconfigure(Logger loggerToConfigure) {
         Objects.requireNonNull(loggerToConfigure);
+        getStore(loggerToConfigure.getName());
+    }
+
+    private TelemetryStore reopen(TelemetryStore store, Path directory, long fileSizeKB, long totalLogStoreSizeKB) {
+        if (store.hasSettings(directory, fileSizeKB, totalLogStoreSizeKB)) {
+            return store;
+        }
+        if (!context.isStarted()) {
+            // Keep the settings only, the appender is attached by startContext
+            return new TelemetryStore(store.getLoggerName(), store.getFileName(), directory, fileSizeKB,
+                    totalLogStoreSizeKB, null);
+        }
+        return open(store.getLoggerName(), directory, fileSizeKB, totalLogStoreSizeKB);
+    }
+
+    /**
+     * Create a store and replace whatever appender the logger had with the appender of the store.
+     */
+    private TelemetryStore open(String loggerName, Path directory, long fileSizeKB, long totalLogStoreSizeKB) {
+        Logger loggerToConfigure = getLogger(loggerName);
         // Set sub-loggers to inherit this config
         loggerToConfigure.setAdditive(true);
         loggerToConfigure.setLevel(ch.qos.logback.classic.Level.TRACE);
 
-        String fileAppenderName = METRIC_LOGGER_PREFIX + getFileName();
-        RollingFileAppender<ILoggingEvent> logFileAppender = getAppenderForFile(loggerToConfigure, fileAppenderName,
-                storeName, totalLogStoreSizeKB, fileSizeKB, getFileName());
-        logFileAppender.start();
-        // Add the replacement
+        String fileName = loggerName.startsWith(METRIC_LOGGER_PREFIX)
+                ? loggerName.substring(METRIC_LOGGER_PREFIX.length()) : loggerName;
+        RollingFileAppender<ILoggingEvent> logFileAppender = getAppenderForFile(loggerToConfigure,
+                METRIC_LOGGER_PREFIX + fileName, directory.resolve(fileName + "." + CONFIG_PREFIX).toString(),
+                directory, totalLogStoreSizeKB, fileSizeKB, fileName);
+        // Stop the original before starting the replacement, two active appenders of the same file collide
         loggerToConfigure.detachAndStopAllAppenders();
+        logFileAppender.start();
         loggerToConfigure.addAppender(logFileAppender);
+        return new TelemetryStore(loggerName, fileName, directory, fileSizeKB, totalLogStoreSizeKB, logFileAppender);
     }
 
-    public Logger getLogger(String name) {
-        return context.getLogger(name);
+    @Override
+    protected DiskQuotaPriority getQuotaPriority() {
+        return DiskQuotaPriority.LOW;
     }
 
-    /**
-     * Gets the name of the log file from the logger name passed. Telemetry logger names have "Metrics-" as prefix.
-     *
-     * @param loggerName "Metrics-{namespace}"
-     * @return "{namespace}.log"
-     */
-    private String getLogFileName(String loggerName) {
-        return loggerName.substring(METRIC_LOGGER_PREFIX.length()) + "." + CONFIG_PREFIX;
+    public Logger getLogger(String name) {
+        return context.getLogger(name);
     }
 
     /**
-     * Stop the logger context.
+     * Stop the logger context. This stops and detaches the appenders of all stores, the stores themselves are kept so
+     * that {@link #startContext()} attaches them again to the loggers of existing metric factories.
      */
-    public void closeContext() {
+    public synchronized void closeContext() {
         context.stop();
     }
 
     /**
-     * Start the logger context.
+     * Start the logger context, and attach a new appender to the logger of every store, with the settings of the
+     * store.
      */
-    public void startContext() {
+    public synchronized void startContext() {
+        if (context.isStarted()) {
+            return;
+        }
         context.start();
+        stores.replaceAll((name, store) -> open(name, store.getDirectory(), store.getFileSizeKB(),
+                store.getTotalLogStoreSizeKB()));
     }
 
     /**
@@ -190,14 +260,10 @@ public class TelemetryConfig extends PersistenceConfig {
             }
             root = newPath;
             this.storeDirectory = root;
-            closeContext();
-            // Reconfigure all the telemetry loggers to use the store at new path.
-            for (Logger logger : context.getLoggerList()) {
-                if (!logger.getName().equals("ROOT") && telemetryLoggerNamesSet.contains(logger.getName())) {
-                    editConfigForLogger(logger.getName());
-                }
-            }
-            startContext();
+            Path directory = root;
+            // Move every store to the new path
+            stores.replaceAll((name, store) -> reopen(store, directory, store.getFileSizeKB(),
+                    store.getTotalLogStoreSizeKB()));
         }
     }
 
@@ -209,6 +275,8 @@ public class TelemetryConfig extends PersistenceConfig {
         this.storeDirectory = getRootStorePath().resolve(TELEMETRY_DIRECTORY);
         this.fileSizeKB = DEFAULT_MAX_FILE_SIZE_IN_KB;
         this.totalLogStoreSizeKB = DEFAULT_MAX_SIZE_IN_KB;
+        this.rolloverMinutes = DEFAULT_ROLLOVER_MINUTES;
+        this.sharedFile = false;
     }
 }
 
@@ -0,0 +1,69 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Immutable configuration of one telemetry store, i.e. the file written by the telemetry logger of one
+ * {@link com.aws.greengrass.telemetry.impl.MetricFactory} store name, together with the appender writing it.
+ * Changing the configuration of a store creates a new store which replaces this one. A store changed while the
+ * telemetry logger context is stopped has no appender until the context is started again.
+ */
+@Getter
+@ToString(exclude = "appender")
+public final class TelemetryStore {
+    private final String loggerName;
+    private final String fileName;
+    private final Path directory;
+    private final long fileSizeKB;
+    private final long totalLogStoreSizeKB;
+    @Getter(AccessLevel.PACKAGE)
+    private final RollingFileAppender<ILoggingEvent> appender;
+
+    TelemetryStore(String loggerName, String fileName, Path directory, long fileSizeKB, long totalLogStoreSizeKB,
+                   RollingFileAppender<ILoggingEvent> appender) {
+        this.loggerName = loggerName;
+        this.fileName = fileName;
+        this.directory = directory;
+        this.fileSizeKB = fileSizeKB;
+        this.totalLogStoreSizeKB = totalLogStoreSizeKB;
+        this.appender = appender;
+    }
+
+    /**
+     * Get the file the store is writing to.
+     *
+     * @return path of the active file
+     */
+    public Path getFile() {
+        return directory.resolve(fileName + "." + TelemetryConfig.CONFIG_PREFIX);
+    }
+
+    /**
+     * Whether this store already has the given settings, so that replacing it would change nothing.
+     */
+    boolean hasSettings(Path directory, long fileSizeKB, long totalLogStoreSizeKB) {
+        return Objects.equals(this.directory, directory) && this.fileSizeKB == fileSizeKB
+                && this.totalLogStoreSizeKB == totalLogStoreSizeKB;
+    }
+
+    long fileSizeKB(LogConfigUpdate update) {
+        return update.getFileSizeKB() == null ? fileSizeKB : update.getFileSizeKB();
+    }
+
+    long totalLogStoreSizeKB(LogConfigUpdate update) {
+        return update.getTotalLogsSizeKB() == null ? totalLogStoreSizeKB : update.getTotalLogsSizeKB();
+    }
+}
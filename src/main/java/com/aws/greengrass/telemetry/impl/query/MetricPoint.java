@@ -0,0 +1,37 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl.query;
+
+import com.aws.greengrass.telemetry.impl.Dimensions;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A numeric metric datapoint read back from a telemetry file, or one window of downsampled datapoints.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class MetricPoint {
+    private final String namespace;
+    private final String name;
+    private final TelemetryUnit unit;
+    private final TelemetryAggregation aggregation;
+    /**
+     * Dimensions of the datapoint, {@link Dimensions#EMPTY} if it has none.
+     */
+    private final Dimensions dimensions;
+    /**
+     * Epoch milliseconds of the datapoint, or the start of the window for downsampled datapoints.
+     */
+    private final long timestamp;
+    private final double value;
+}
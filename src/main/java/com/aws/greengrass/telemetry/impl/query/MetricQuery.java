@@ -0,0 +1,40 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl.query;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Predicates for {@link MetricReader}. Unset fields match every datapoint; set fields must all match.
+ */
+@Builder
+@Getter
+@ToString
+public class MetricQuery {
+    /**
+     * Exact namespace to match.
+     */
+    private final String namespace;
+    /**
+     * Exact metric name to match.
+     */
+    private final String name;
+    /**
+     * Inclusive lower bound of the datapoint timestamp in epoch milliseconds.
+     */
+    private final Long fromTimestamp;
+    /**
+     * Exclusive upper bound of the datapoint timestamp in epoch milliseconds.
+     */
+    private final Long toTimestamp;
+
+    boolean matchesTimestamp(long timestamp) {
+        return (fromTimestamp == null || timestamp >= fromTimestamp) && (toTimestamp == null
+                || timestamp < toTimestamp);
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl.query;
+
+import com.aws.greengrass.logging.impl.query.ChunkedLineScanner;
+import com.aws.greengrass.telemetry.impl.Dimensions;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.EqualsAndHashCode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads metric datapoints back from the telemetry files written by
+ * {@link com.aws.greengrass.telemetry.impl.MetricFactory}.
+ *
+ * <p>Files are scanned on a fork-join pool, one task per chunk of a file, by {@link ChunkedLineScanner}. Lines are
+ * parsed with a streaming parser, either as the metric JSON itself or as a log record whose {@code message} field
+ * holds the metric JSON, without binding them to objects. Lines which aren't metrics, and metrics whose value isn't a
+ * number, such as histograms, are skipped. Datapoints with different dimensions are different series, and are
+ * downsampled separately. The dimension sets read by a call share instances among themselves, but aren't interned, so
+ * reading old files doesn't fill up the intern table of {@link Dimensions}.
+ */
+public class MetricReader {
+    public static final long DEFAULT_CHUNK_SIZE_BYTES = 8L * 1024 * 1024;
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final MetricQuery MATCH_ALL = MetricQuery.builder().build();
+
+    private final ForkJoinPool pool;
+    private final long chunkSizeBytes;
+
+    public MetricReader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MetricReader(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE_BYTES);
+    }
+
+    /**
+     * Create a metric reader.
+     *
+     * @param pool           pool to scan files on
+     * @param chunkSizeBytes files larger than this are split into chunks of about this size
+     */
+    public MetricReader(ForkJoinPool pool, long chunkSizeBytes) {
+        if (chunkSizeBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    /**
+     * Read the matching datapoints of every {@code .log} file in a telemetry directory, including rolled files. Close
+     * the stream to cancel the scans of chunks which weren't read yet.
+     *
+     * @param directory directory containing the telemetry files
+     * @param query     the predicates to apply
+     * @return matching datapoints in timestamp order, see {@link #read(Collection, MetricQuery)}
+     * @throws IOException if the directory cannot be listed or a file cannot be read
+     */
+    public Stream<MetricPoint> read(Path directory, MetricQuery query) throws IOException {
+        return read(listFiles(directory), query);
+    }
+
+    /**
+     * Read the matching datapoints of the given files. Close the stream to cancel the scans of chunks which weren't
+     * read yet.
+     *
+     * @param files the files to read
+     * @param query the predicates to apply
+     * @return matching datapoints in timestamp order; failures to read a chunk are thrown as
+     *     {@link java.io.UncheckedIOException} while streaming
+     * @throws IOException if a file cannot be read
+     */
+    public Stream<MetricPoint> read(Collection<Path> files, MetricQuery query) throws IOException {
+        return ChunkedLineScanner.stream(pool, files, chunkSizeBytes, format(query));
+    }
+
+    /**
+     * Downsample the matching datapoints of every {@code .log} file in a telemetry directory into fixed windows.
+     *
+     * @param directory    directory containing the telemetry files
+     * @param query        the predicates to apply
+     * @param windowMillis length of the windows, which start at multiples of it since the epoch
+     * @return one datapoint per metric and window, ordered by window, namespace and name
+     * @throws IOException if the directory cannot be listed or a file cannot be read
+     */
+    public List<MetricPoint> downsample(Path directory, MetricQuery query, long windowMillis) throws IOException {
+        return downsample(listFiles(directory), query, windowMillis);
+    }
+
+    /**
+     * Downsample the matching datapoints of the given files into fixed windows. The datapoints of a metric in one
+     * window are combined according to the metric's aggregation: averages are averaged, sums and counts are added
+     * up, and the maximum and minimum are kept.
+     *
+     * @param files        the files to read
+     * @param query        the predicates to apply
+     * @param windowMillis length of the windows, which start at multiples of it since the epoch
+     * @return one datapoint per metric and window, ordered by window, namespace and name
+     * @throws IOException if a file cannot be read
+     */
+    public List<MetricPoint> downsample(Collection<Path> files, MetricQuery query, long windowMillis)
+            throws IOException {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        // Every task combines its own chunk, the partial windows are merged afterwards
+        Map<Window, Accumulator> merged = ChunkedLineScanner.collect(pool, files, chunkSizeBytes, format(query),
+                HashMap::new, (windows, p) -> windows.computeIfAbsent(new Window(p, windowMillis),
+                        w -> new Accumulator()).add(p.getValue()),
+                (windows, partial) -> {
+                    partial.forEach((window, acc) -> windows.merge(window, acc, Accumulator::merge));
+                    return windows;
+                });
+        return merged.entrySet().stream().map(e -> e.getKey().toPoint(e.getValue()))
+                .sorted(Comparator.comparingLong(MetricPoint::getTimestamp).thenComparing(MetricPoint::getNamespace)
+                        .thenComparing(MetricPoint::getName))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.filter(p -> Files.isRegularFile(p) && String.valueOf(p.getFileName())
+                    .endsWith(LOG_FILE_SUFFIX)).collect(Collectors.toList());
+        }
+    }
+
+    private static ChunkedLineScanner.LineFormat<MetricPoint> format(MetricQuery query) {
+        // Dimension sets read by this call, shared by the tasks
+        Map<Map<String, String>, Dimensions> dimensions = new ConcurrentHashMap<>();
+        return new ChunkedLineScanner.LineFormat<MetricPoint>() {
+            @Override
+            public MetricPoint parse(Path file, byte[] line, int length) {
+                return MetricReader.parse(line, length, query, dimensions);
+            }
+
+            @Override
+            public long timestamp(MetricPoint point) {
+                return point.getTimestamp();
+            }
+
+            @Override
+            public long lineTimestamp(byte[] line, int length) {
+                MetricPoint point = MetricReader.parse(line, length, MATCH_ALL, dimensions);
+                return point == null ? -1 : point.getTimestamp();
+            }
+        };
+    }
+
+    /**
+     * Parse one line of a telemetry file.
+     *
+     * @param line       buffer holding the line
+     * @param length     number of bytes in the line
+     * @param query      the predicates
+     * @param dimensions dimension sets read so far, to reuse and add to
+     * @return the datapoint, or null if the line isn't a numeric metric or doesn't match
+     */
+    static MetricPoint parse(byte[] line, int length, MetricQuery query,
+                             Map<Map<String, String>, Dimensions> dimensions) {
+        try (JsonParser parser = JSON_FACTORY.createParser(line, 0, length)) {
+            return parse(parser, query, dimensions, true);
+        } catch (IOException | IllegalArgumentException e) {
+            // Not a metric
+            return null;
+        }
+    }
+
+    private static MetricPoint parse(JsonParser parser, MetricQuery query,
+                                     Map<Map<String, String>, Dimensions> dimensionSets, boolean envelope)
+            throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String namespace = null;
+        String name = null;
+        TelemetryUnit unit = null;
+        TelemetryAggregation aggregation = null;
+        Dimensions dimensions = Dimensions.EMPTY;
+        Double value = null;
+        Long timestamp = null;
+        String message = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "NS":
+                    namespace = parser.getValueAsString();
+                    if (query.getNamespace() != null && !query.getNamespace().equals(namespace)) {
+                        return null;
+                    }
+                    break;
+                case "N":
+                    name = parser.getValueAsString();
+                    if (query.getName() != null && !query.getName().equals(name)) {
+                        return null;
+                    }
+                    break;
+                case "U":
+                    unit = TelemetryUnit.valueOf(parser.getValueAsString());
+                    break;
+                case "A":
+                    aggregation = TelemetryAggregation.valueOf(parser.getValueAsString());
+                    break;
+                case "D":
+                    if (token != JsonToken.START_OBJECT) {
+                        return null;
+                    }
+                    Map<String, String> dimensionMap = new HashMap<>();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String dimension = parser.getCurrentName();
+                        parser.nextToken();
+                        dimensionMap.put(dimension, parser.getValueAsString());
+                    }
+                    dimensions = dimensionSets.computeIfAbsent(dimensionMap, Dimensions::uninterned);
+                    break;
+                case "V":
+                    if (token.isNumeric()) {
+                        value = parser.getDoubleValue();
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        // Non-finite numbers are written as strings
+                        value = Double.valueOf(parser.getText());
+                    } else {
+                        return null;
+                    }
+                    break;
+                case "TS":
+                    if (token != JsonToken.VALUE_NUMBER_INT || !query.matchesTimestamp(parser.getLongValue())) {
+                        return null;
+                    }
+                    timestamp = parser.getLongValue();
+                    break;
+                case "message":
+                    if (envelope && token == JsonToken.VALUE_STRING) {
+                        message = parser.getText();
+                        break;
+                    }
+                    parser.skipChildren();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (namespace == null && message != null) {
+            try (JsonParser inner = JSON_FACTORY.createParser(message)) {
+                return parse(inner, query, dimensionSets, false);
+            }
+        }
+        if (namespace == null || name == null || unit == null || aggregation == null || value == null
+                || timestamp == null) {
+            return null;
+        }
+        return new MetricPoint(namespace, name, unit, aggregation, dimensions, timestamp, value);
+    }
+
+    @EqualsAndHashCode
+    private static final class Window {
+        private final String namespace;
+        private final String name;
+        private final TelemetryUnit unit;
+        private final TelemetryAggregation aggregation;
+        private final Dimensions dimensions;
+        private final long start;
+
+        Window(MetricPoint point, long windowMillis) {
+            this.namespace = point.getNamespace();
+            this.name = point.getName();
+            this.unit = point.getUnit();
+            this.aggregation = point.getAggregation();
+            this.dimensions = point.getDimensions();
+            this.start = Math.floorDiv(point.getTimestamp(), windowMillis) * windowMillis;
+        }
+
+        MetricPoint toPoint(Accumulator acc) {
+            double value;
+            switch (aggregation) {
+                case Average:
+                    value = acc.sum / acc.count;
+                    break;
+                case Maximum:
+                    value = acc.max;
+                    break;
+                case Minimum:
+                    value = acc.min;
+                    break;
+                case Sum:
+                case Count:
+                default:
+                    value = acc.sum;
+                    break;
+            }
+            return new MetricPoint(namespace, name, unit, aggregation, dimensions, start, value);
+        }
+    }
+
+    private static final class Accumulator {
+        private long count;
+        private double sum;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double min = Double.POSITIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+        }
+
+        Accumulator merge(Accumulator other) {
+            count += other.count;
+            sum += other.sum;
+            max = Math.max(max, other.max);
+            min = Math.min(min, other.min);
+            return this;
+        }
+    }
+}
@@ -10,5 +10,11 @@ public enum TelemetryAggregation {
     Maximum,
     Minimum,
     Count,
-    Sum
+    Sum,
+    /**
+     * Distribution of the values in the interval, reported as a {@link com.aws.greengrass.telemetry.impl.Histogram}.
+     * Only an aggregating {@link com.aws.greengrass.telemetry.impl.MetricFactory} builds the distribution; a factory
+     * which writes every datapoint writes the raw values instead.
+     */
+    Histogram
 }
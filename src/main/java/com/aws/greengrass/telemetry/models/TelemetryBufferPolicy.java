@@ -0,0 +1,26 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.models;
+
+/**
+ * What a buffered {@link com.aws.greengrass.telemetry.impl.MetricFactory} does with a datapoint when its buffer is
+ * full because the telemetry file can't be written fast enough.
+ */
+public enum TelemetryBufferPolicy {
+    /**
+     * Drop the oldest buffered datapoint to make room.
+     */
+    DropOldest,
+    /**
+     * Drop the new datapoint.
+     */
+    DropNewest,
+    /**
+     * Aggregate numeric datapoints in memory per series until the buffer has room again, then write one aggregated
+     * datapoint per series. Other datapoints are dropped as with {@link #DropNewest}.
+     */
+    Aggregate
+}
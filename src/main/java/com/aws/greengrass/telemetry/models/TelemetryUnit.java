@@ -16,6 +16,7 @@ public enum TelemetryUnit {
     Count,
     CountPerSecond,
     Megabytes,
+    Milliseconds,
     None,
     Percent,
     Seconds
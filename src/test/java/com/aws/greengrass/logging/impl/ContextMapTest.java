@@ -0,0 +1,172 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContextMapTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ContextMap typed() {
+        ContextMap contexts = new ContextMap(2);
+        contexts.put("name", "value");
+        contexts.putLong("count", 42);
+        contexts.putDouble("ratio", 0.5);
+        contexts.putBoolean("ok", true);
+        return contexts;
+    }
+
+    /**
+     * The contexts as they were logged before, in a HashMap.
+     */
+    private static Map<String, String> strings() {
+        Map<String, String> strings = new HashMap<>();
+        strings.put("name", "value");
+        strings.put("count", "42");
+        strings.put("ratio", "0.5");
+        strings.put("ok", "true");
+        return strings;
+    }
+
+    private static GreengrassLogMessage message(Map<String, String> contexts) {
+        return new GreengrassLogMessage("test", Level.INFO, null, "hi", contexts, null);
+    }
+
+    private static String text(ContextMap contexts) {
+        StringBuilder out = new StringBuilder();
+        contexts.appendTo(out);
+        return out.toString();
+    }
+
+    private static List<String> fieldNames(String json) throws IOException {
+        List<String> names = new ArrayList<>();
+        MAPPER.readTree(json).get("contexts").fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    @Test
+    void GIVEN_typed_contexts_WHEN_serialized_as_json_THEN_primitives_are_native_values() throws IOException {
+        JsonNode contexts = MAPPER.readTree(message(typed()).getJSONMessage()).get("contexts");
+
+        assertTrue(contexts.get("name").isTextual());
+        assertTrue(contexts.get("count").isLong() || contexts.get("count").isInt());
+        assertEquals(42, contexts.get("count").asLong());
+        assertTrue(contexts.get("ratio").isDouble());
+        assertEquals(0.5, contexts.get("ratio").asDouble());
+        assertTrue(contexts.get("ok").isBoolean());
+
+        // Still read back as strings
+        GreengrassLogMessage read =
+                MAPPER.readValue(message(typed()).getJSONMessage(), GreengrassLogMessage.class);
+        assertEquals(strings(), read.getContexts());
+    }
+
+    @Test
+    void GIVEN_typed_contexts_WHEN_read_as_map_or_text_THEN_same_as_string_values() {
+        ContextMap contexts = typed();
+
+        assertEquals(strings(), contexts);
+        assertEquals(contexts, strings());
+        assertEquals(strings().hashCode(), contexts.hashCode());
+        assertEquals("42", contexts.get("count"));
+        assertEquals(new ArrayList<>(strings().keySet()), new ArrayList<>(contexts.keySet()));
+        assertThat(message(contexts).getTextMessage(), endsWith("test: hi. " + strings()));
+    }
+
+    @Test
+    void GIVEN_colliding_or_many_contexts_WHEN_read_THEN_in_hash_map_order() throws IOException {
+        // Same hash code, so same bucket, which keeps insertion order
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (String[] keys : new String[][]{{"Aa", "BB", "x"}, {"BB", "Aa", "x"}}) {
+            ContextMap contexts = new ContextMap(1);
+            Map<String, String> expected = new HashMap<>();
+            for (String key : keys) {
+                contexts.putLong(key, 1);
+                expected.put(key, "1");
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(contexts.keySet()));
+        }
+
+        ContextMap contexts = new ContextMap(1);
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            contexts.putLong("key" + i, i);
+            expected.put("key" + i, String.valueOf(i));
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(contexts.keySet()));
+        }
+        assertEquals(expected.toString(), text(contexts));
+        assertEquals(new ArrayList<>(expected.keySet()), fieldNames(message(contexts).getJSONMessage()));
+    }
+
+    @Test
+    void GIVEN_logged_contexts_WHEN_read_from_threads_at_once_THEN_every_thread_reads_all_entries_in_order()
+            throws Exception {
+        ContextMap contexts = new ContextMap(1);
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            contexts.putLong("key" + i, i);
+            expected.put("key" + i, String.valueOf(i));
+        }
+        List<String> keys = new ArrayList<>(expected.keySet());
+        ExecutorService ses = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(ses.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    assertEquals(keys, new ArrayList<>(contexts.keySet()));
+                    assertEquals(expected.toString(), text(contexts));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        ses.shutdown();
+    }
+
+    @Test
+    void GIVEN_contexts_WHEN_replaced_removed_resolved_or_copied_THEN_map_follows() {
+        ContextMap contexts = new ContextMap(1);
+        contexts.putLong("a", 1);
+        contexts.putObject("b", (Supplier<String>) () -> "supplied");
+        contexts.putBoolean("a", false);
+        contexts.resolve(v -> String.valueOf(((Supplier<?>) v).get()));
+        ContextMap copy = new ContextMap(contexts);
+
+        assertEquals("false", contexts.put("a", "text"));
+        Iterator<String> keys = contexts.keySet().iterator();
+        keys.next();
+        keys.remove();
+
+        assertEquals(Collections.singletonMap("b", "supplied"), contexts);
+        Map<String, String> copied = new LinkedHashMap<>();
+        copied.put("a", "false");
+        copied.put("b", "supplied");
+        assertEquals(copied, copy);
+    }
+}
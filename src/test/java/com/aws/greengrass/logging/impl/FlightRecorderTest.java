@@ -0,0 +1,144 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlightRecorderTest {
+    @TempDir
+    Path dir;
+
+    private static GreengrassLogMessage message(Level level, String msg) {
+        return new GreengrassLogMessage("test", level, null, msg, Collections.emptyMap(), null);
+    }
+
+    private static List<String> messages(List<GreengrassLogMessage> events) {
+        return events.stream().map(GreengrassLogMessage::getMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    void GIVEN_more_events_than_slots_WHEN_drain_THEN_newest_events_returned_oldest_first() throws IOException {
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 3, 128)) {
+            for (int i = 0; i < 5; i++) {
+                recorder.record(message(Level.TRACE, "event " + i));
+            }
+
+            assertThat(messages(recorder.drain()), contains("event 2", "event 3", "event 4"));
+            assertThat(recorder.drain(), empty());
+
+            recorder.record(message(Level.DEBUG, "event 5"));
+            assertThat(messages(recorder.drain()), contains("event 5"));
+        }
+    }
+
+    @Test
+    void GIVEN_event_WHEN_recorded_THEN_fields_kept_and_long_strings_truncated() throws IOException {
+        Map<String, String> contexts = new HashMap<>();
+        contexts.put("key", "välue €");
+        GreengrassLogMessage event = new GreengrassLogMessage("com.example.Logger", Level.DEBUG, "event-type",
+                "message 😀", contexts, new IllegalStateException("bad state"));
+        StringBuilder longMessage = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            longMessage.append(i % 10);
+        }
+
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 4, 256)) {
+            recorder.record(event);
+            recorder.record(message(Level.INFO, longMessage.toString()));
+            List<GreengrassLogMessage> events = recorder.drain();
+
+            assertThat(events, hasSize(2));
+            GreengrassLogMessage recorded = events.get(0);
+            assertEquals(event.getTimestamp(), recorded.getTimestamp());
+            assertEquals("DEBUG", recorded.getLevel());
+            assertEquals("com.example.Logger", recorded.getLoggerName());
+            assertEquals(event.getThread(), recorded.getThread());
+            assertEquals("event-type", recorded.getEventType());
+            assertEquals("message 😀", recorded.getMessage());
+            assertThat(recorded.getContexts(), hasEntry("key", "välue €"));
+            assertThat(recorded.getContexts(),
+                    hasEntry(FlightRecorder.CAUSE_KEY, "java.lang.IllegalStateException: bad state"));
+
+            GreengrassLogMessage truncated = events.get(1);
+            assertThat(longMessage.toString(), startsWith(truncated.getMessage()));
+            assertNull(truncated.getEventType());
+            assertThat(truncated.getContexts(), anEmptyMap());
+        }
+    }
+
+    @Test
+    void GIVEN_recorded_file_WHEN_reopened_THEN_events_recovered_and_ring_cleared() throws IOException {
+        Path file = dir.resolve("greengrass.flight");
+        FlightRecorder recorder = FlightRecorder.open(file, 4, 128);
+        recorder.record(message(Level.TRACE, "before crash 1"));
+        recorder.record(message(Level.ERROR, "before crash 2"));
+        // Not closed, as if the process died
+
+        try (FlightRecorder reopened = FlightRecorder.open(file, 4, 128)) {
+            assertThat(messages(reopened.getRecovered()), contains("before crash 1", "before crash 2"));
+            assertThat(reopened.drain(), empty());
+        }
+        try (FlightRecorder resized = FlightRecorder.open(file, 8, 128)) {
+            assertThat(resized.getRecovered(), empty());
+        }
+        assertThrows(IllegalArgumentException.class, () -> FlightRecorder.open(file, 0, 128));
+    }
+
+    @Test
+    void GIVEN_errors_WHEN_dumps_claimed_THEN_at_most_one_per_interval_up_to_claimed_position() throws IOException {
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 8, 128)) {
+            recorder.record(message(Level.DEBUG, "before error 1"));
+            long position = recorder.claimErrorDump(0, 100);
+            recorder.record(message(Level.ERROR, "error 1"));
+            assertEquals(-1, recorder.claimErrorDump(99, 100));
+            recorder.record(message(Level.ERROR, "error 2"));
+
+            // Written later, without the errors recorded after the claim
+            assertThat(messages(recorder.drain(position)), contains("before error 1"));
+            long next = recorder.claimErrorDump(100, 100);
+            assertThat(messages(recorder.drain(next)), contains("error 1", "error 2"));
+            assertThat(recorder.drain(position), empty());
+        }
+    }
+
+    @Test
+    void GIVEN_disabled_level_WHEN_logged_through_recording_builder_THEN_recorded_with_contexts() throws IOException {
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 4, 256)) {
+            ContextMap contexts = new ContextMap(2);
+            contexts.putLong("count", 3);
+            contexts.put("name", "value");
+            recorder.record(42, Level.TRACE, "test", "main", "event-type", "recorded", null, contexts);
+
+            GreengrassLogMessage recorded = recorder.drain().get(0);
+            assertEquals(42, recorded.getTimestamp());
+            assertEquals("TRACE", recorded.getLevel());
+            assertEquals("recorded", recorded.getMessage());
+            assertThat(recorded.getContexts(), hasEntry("count", "3"));
+            assertThat(recorded.getContexts(), hasEntry("name", "value"));
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 package com.aws.greengrass.logging.impl;
 
+import com.aws.greengrass.logging.api.LogEventBuilder;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.config.LogConfig;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +21,7 @@ import org.slf4j.event.Level;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -368,6 +370,81 @@ class LoggerTest {
         assertThat(event2, containsString("{k1=suppliedDefault-1, k=supplied-1}"));
     }
 
+    @Test
+    void GIVEN_logger_WHEN_log_with_typed_context_THEN_context_is_typed_and_not_changed_by_reused_builder() {
+        Slf4jLogAdapter logger = (Slf4jLogAdapter) LogManager.getLogger("typed");
+        org.slf4j.Logger loggerSpy = setupLoggerSpy(logger);
+
+        LogEventBuilderImpl builder = (LogEventBuilderImpl) logger.atInfo().kv("count", 3).kv("ratio", 0.25)
+                .kv("ok", true);
+        builder.log();
+        verify(loggerSpy).info(any());
+        assertThat(message.getValue(), containsString("{count=3, ok=true, ratio=0.25}"));
+
+        builder.kv("count", 4L).log();
+        assertThat(message.getValue(), containsString("{count=4, ok=true, ratio=0.25}"));
+    }
+
+    @Test
+    void GIVEN_logger_WHEN_log_with_char_context_THEN_context_is_the_character() {
+        Slf4jLogAdapter logger = (Slf4jLogAdapter) LogManager.getLogger("typed_char");
+        setupLoggerSpy(logger);
+
+        logger.atInfo().kv("sep", ',').log();
+
+        assertThat(message.getValue(), containsString("{sep=,}"));
+    }
+
+    @Test
+    void GIVEN_builder_overriding_only_object_kv_WHEN_kv_with_primitives_THEN_boxed_values_are_received() {
+        Map<String, Object> received = new LinkedHashMap<>();
+        LogEventBuilder builder = new LogEventBuilder() {
+            @Override
+            public LogEventBuilder kv(String key, Object value) {
+                received.put(key, value);
+                return this;
+            }
+        };
+
+        builder.kv("int", 1).kv("long", 2L).kv("double", 0.5).kv("boolean", true).kv("char", ',');
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("int", 1L);
+        expected.put("long", 2L);
+        expected.put("double", 0.5);
+        expected.put("boolean", true);
+        expected.put("char", ',');
+        assertEquals(expected, received);
+    }
+
+    @Test
+    void GIVEN_prefix_level_rules_WHEN_rules_change_THEN_logger_levels_follow_rules() {
+        LogConfig.getRootLogConfig().setLevel(Level.INFO);
+        Logger nettyLogger = LogManager.getLogger("io.netty.channel.Channel");
+        Logger otherLogger = LogManager.getLogger("com.example.Other");
+        try {
+            assertTrue(nettyLogger.isInfoEnabled());
+
+            LogManager.setLevelRules("software.amazon.awssdk=WARN, io.netty=ERROR, com.example=TRACE");
+            assertFalse(nettyLogger.isWarnEnabled());
+            assertTrue(nettyLogger.isErrorEnabled());
+            assertTrue(otherLogger.isTraceEnabled());
+            assertTrue(nettyLogger.createChild().isErrorEnabled());
+            assertFalse(nettyLogger.createChild().isWarnEnabled());
+
+            // Individual level still takes precedence over the prefix rules
+            nettyLogger.setLevel("DEBUG");
+            assertTrue(nettyLogger.isDebugEnabled());
+            nettyLogger.setLevel(null);
+
+            LogManager.setLevelRules((String) null);
+            assertTrue(nettyLogger.isInfoEnabled());
+            assertFalse(otherLogger.isDebugEnabled());
+        } finally {
+            LogManager.setLevelRules((String) null);
+        }
+    }
+
     private org.slf4j.Logger setupLoggerSpy(Slf4jLogAdapter logger) {
         org.slf4j.Logger loggerSpy = spy(logger.getLogger());
         logger.setLogger(loggerSpy);
@@ -0,0 +1,86 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RecordingEventBuilderTest {
+    private static final Map<String, Object> LOGGER_CONTEXT = Collections.singletonMap("component", "test");
+
+    @TempDir
+    Path dir;
+
+    private static RecordingEventBuilder start(FlightRecorder recorder) {
+        return RecordingEventBuilder.start(recorder, "test", Level.TRACE, null, LOGGER_CONTEXT);
+    }
+
+    @Test
+    void GIVEN_builder_kept_after_log_WHEN_added_to_and_logged_again_THEN_recorded_without_mixing_into_next_event()
+            throws IOException {
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 8, 256)) {
+            RecordingEventBuilder kept = start(recorder);
+            kept.kv("first", 1).log("first");
+            kept.log("again");
+            kept.kv("late", true);
+
+            RecordingEventBuilder next = start(recorder);
+            assertNotSame(kept, next);
+            next.log("next");
+            kept.log("late");
+            // The builder of the thread is reused once its event is logged
+            assertSame(next, start(recorder));
+
+            List<GreengrassLogMessage> events = recorder.drain();
+            assertThat(events, hasSize(4));
+            assertEquals("again", events.get(1).getMessage());
+            assertThat(events.get(1).getContexts(), hasEntry("first", "1"));
+            assertEquals("next", events.get(2).getMessage());
+            assertThat(events.get(2).getContexts(), hasEntry("component", "test"));
+            assertThat(events.get(2).getContexts(), not(hasEntry("first", "1")));
+            assertThat(events.get(2).getContexts(), not(hasEntry("late", "true")));
+            assertEquals("late", events.get(3).getMessage());
+            assertThat(events.get(3).getContexts(), hasEntry("late", "true"));
+        }
+    }
+
+    @Test
+    void GIVEN_builder_never_logged_WHEN_next_events_started_THEN_thread_reuses_a_new_builder() throws IOException {
+        try (FlightRecorder recorder = FlightRecorder.open(dir.resolve("greengrass.flight"), 8, 256)) {
+            RecordingEventBuilder abandoned = start(recorder);
+            abandoned.kv("abandoned", 1);
+
+            RecordingEventBuilder replacement = start(recorder);
+            assertNotSame(abandoned, replacement);
+            replacement.log("first");
+            RecordingEventBuilder reused = start(recorder);
+            assertSame(replacement, reused);
+            reused.log("second");
+            abandoned.log("abandoned");
+
+            List<GreengrassLogMessage> events = recorder.drain();
+            assertThat(events, hasSize(3));
+            assertThat(events.get(1).getContexts(), not(hasEntry("abandoned", "1")));
+            assertEquals("abandoned", events.get(2).getMessage());
+            assertThat(events.get(2).getContexts(), hasEntry("abandoned", "1"));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncConsoleAppenderTest {
+    private final GatedChannel channel = new GatedChannel();
+    private AsyncConsoleAppender appender;
+
+    @AfterEach
+    void afterEach() {
+        channel.gate.countDown();
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    private AsyncConsoleAppender start(int capacity) {
+        appender = new AsyncConsoleAppender(capacity, channel);
+        appender.setContext(new LoggerContext());
+        appender.setName("test");
+        appender.setEncoder(new LineEncoder());
+        appender.start();
+        return appender;
+    }
+
+    private static ILoggingEvent event(Level level, String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage(message);
+        return event;
+    }
+
+    @Test
+    void GIVEN_blocked_console_WHEN_queue_full_THEN_info_dropped_without_blocking_and_rest_written_on_stop()
+            throws InterruptedException {
+        start(2);
+        appender.doAppend(event(Level.INFO, "a"));
+        assertTrue(channel.writing.await(5, TimeUnit.SECONDS));
+
+        appender.doAppend(event(Level.INFO, "b"));
+        appender.doAppend(event(Level.INFO, "c"));
+        appender.doAppend(event(Level.INFO, "d"));
+        assertEquals(1, appender.getDroppedCount());
+
+        channel.gate.countDown();
+        appender.stop();
+        assertThat(channel.written(), is("a\nb\nc\n"));
+    }
+
+    @Test
+    void GIVEN_queued_events_WHEN_error_logged_THEN_returns_after_everything_up_to_error_is_written() {
+        channel.gate.countDown();
+        start(16);
+        appender.doAppend(event(Level.INFO, "a"));
+        appender.doAppend(event(Level.WARN, "b"));
+        appender.doAppend(event(Level.ERROR, "e"));
+
+        assertThat(channel.written(), is("a\nb\ne\n"));
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void GIVEN_error_waiting_for_blocked_console_WHEN_appender_stopping_THEN_error_stops_waiting()
+            throws InterruptedException {
+        start(16);
+        appender.doAppend(event(Level.INFO, "a"));
+        assertTrue(channel.writing.await(5, TimeUnit.SECONDS));
+        Thread error = new Thread(() -> appender.doAppend(event(Level.ERROR, "e")));
+        error.start();
+        while (error.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(error.isAlive());
+            Thread.sleep(1);
+        }
+
+        Thread stop = new Thread(appender::stop);
+        stop.start();
+        error.join(AsyncConsoleAppender.ERROR_FLUSH_TIMEOUT_MILLIS / 2);
+        assertFalse(error.isAlive());
+
+        channel.gate.countDown();
+        stop.join(5000);
+        assertThat(channel.written(), is("a\ne\n"));
+    }
+
+    @Test
+    void GIVEN_event_larger_than_batch_buffer_WHEN_written_THEN_written_whole_and_in_order() {
+        channel.gate.countDown();
+        start(16);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < AsyncConsoleAppender.BUFFER_SIZE + 10; i++) {
+            large.append('x');
+        }
+        appender.doAppend(event(Level.INFO, "a"));
+        appender.doAppend(event(Level.INFO, large.toString()));
+        appender.doAppend(event(Level.INFO, "b"));
+        appender.stop();
+
+        assertThat(channel.written(), is("a\n" + large + "\nb\n"));
+    }
+
+    private static class LineEncoder extends EncoderBase<ILoggingEvent> {
+        @Override
+        public byte[] headerBytes() {
+            return new byte[0];
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return (event.getFormattedMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return new byte[0];
+        }
+    }
+
+    private static class GatedChannel implements WritableByteChannel {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        @Override
+        public int write(ByteBuffer src) {
+            writing.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int n = src.remaining();
+            synchronized (out) {
+                while (src.hasRemaining()) {
+                    out.write(src.get());
+                }
+            }
+            return n;
+        }
+
+        String written() {
+            synchronized (out) {
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
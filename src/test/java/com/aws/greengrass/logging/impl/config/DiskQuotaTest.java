@@ -0,0 +1,111 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskQuotaTest {
+    private static final int KB = 1024;
+
+    @TempDir
+    Path dir;
+
+    private Path file(String name, int kb, long modifiedMillis) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, new byte[kb * KB]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+        return file;
+    }
+
+    private DiskQuota.Store store(DiskQuota quota, String name, DiskQuotaPriority priority) {
+        return quota.newStore(dir.resolve(name + ".log"), dir, name + "_", ".log", priority);
+    }
+
+    @Test
+    void GIVEN_stores_of_different_priority_WHEN_rollover_exceeds_quota_THEN_oldest_of_lowest_priority_evicted()
+            throws IOException {
+        DiskQuota quota = new DiskQuota(3, 0, Runnable::run);
+        Path oldestLog = file("greengrass_2024_01_01_00_0.log", 1, 1000);
+        Path oldMetrics = file("metrics_2024_01_01_01_0.log", 1, 2000);
+        Path newMetrics = file("metrics_2024_01_01_02_0.log", 1, 3000);
+        DiskQuota.Store logs = store(quota, "greengrass", DiskQuotaPriority.NORMAL);
+        DiskQuota.Store metrics = store(quota, "metrics", DiskQuotaPriority.LOW);
+        logs.register();
+        metrics.register();
+        assertEquals(3 * KB, quota.getUsedBytes());
+        assertEquals(0, quota.getEvictedCount());
+
+        Path newLog = file("greengrass_2024_01_01_03_0.log", 1, 4000);
+        logs.rolled(newLog);
+
+        assertFalse(Files.exists(oldMetrics));
+        assertTrue(Files.exists(newMetrics));
+        assertTrue(Files.exists(oldestLog));
+        assertTrue(Files.exists(newLog));
+        assertEquals(1, quota.getEvictedCount());
+        assertEquals(3 * KB, quota.getUsedBytes());
+
+        Path newestMetrics = file("metrics_2024_01_01_04_0.log", 1, 5000);
+        metrics.rolled(newestMetrics);
+
+        assertFalse(Files.exists(newMetrics));
+        assertTrue(Files.exists(newestMetrics));
+        assertTrue(Files.exists(oldestLog));
+        assertEquals(2, quota.getEvictedCount());
+    }
+
+    @Test
+    void GIVEN_active_bytes_written_WHEN_quota_exceeded_THEN_only_rolled_files_evicted() throws IOException {
+        DiskQuota quota = new DiskQuota(2, 0, Runnable::run);
+        Path active = file("greengrass.log", 1, 1000);
+        Path rolled = file("greengrass_2024_01_01_00_0.log", 1, 1000);
+        Path otherStore = file("greengrass_extra.log", 1, 1000);
+        DiskQuota.Store logs = store(quota, "greengrass", DiskQuotaPriority.NORMAL);
+        logs.register();
+        assertEquals(2 * KB, quota.getUsedBytes());
+
+        logs.written(KB);
+
+        assertEquals(3 * KB, quota.getUsedBytes());
+        quota.setTotalQuotaKB(1);
+        assertFalse(Files.exists(rolled));
+        assertTrue(Files.exists(active));
+        assertTrue(Files.exists(otherStore));
+        assertEquals(2 * KB, quota.getUsedBytes());
+
+        logs.unregister();
+        assertEquals(0, quota.getUsedBytes());
+    }
+
+    @Test
+    void GIVEN_free_space_floor_not_met_WHEN_rollover_THEN_all_rolled_files_evicted() throws IOException {
+        DiskQuota quota = new DiskQuota(0, 0, Runnable::run);
+        Path active = file("greengrass.log", 1, 1000);
+        Path first = file("greengrass_2024_01_01_00_0.log", 1, 1000);
+        DiskQuota.Store logs = store(quota, "greengrass", DiskQuotaPriority.NORMAL);
+        logs.register();
+        assertTrue(Files.exists(first));
+
+        quota.setMinFreeSpaceKB(Long.MAX_VALUE / KB);
+        Path second = file("greengrass_2024_01_01_01_0.log", 1, 2000);
+        logs.rolled(second);
+
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(active));
+        assertEquals(2, quota.getEvictedCount());
+    }
+}
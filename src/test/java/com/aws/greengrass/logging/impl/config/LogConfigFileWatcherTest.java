@@ -0,0 +1,158 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.Slf4jLogAdapter;
+import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogConfigFileWatcherTest {
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void cleanup() {
+        LogManager.setLevelRules((String) null);
+        LogManager.setConfigFileLevelRules(null);
+        LogConfig.getRootLogConfig().reset();
+    }
+
+    @Test
+    void GIVEN_properties_and_json_files_WHEN_parse_THEN_updates_per_logger() throws IOException {
+        Path props = tempDir.resolve("logging.properties");
+        Files.write(props, ("io.netty.level=error\nROOT.format=JSON\nROOT.fileSizeKB=2048\n")
+                .getBytes(StandardCharsets.UTF_8));
+        Map<String, LogConfigUpdate> updates = LogConfigFileWatcher.parse(props);
+        assertEquals(Level.ERROR, updates.get("io.netty").getLevel());
+        assertEquals(LogFormat.JSON, updates.get("ROOT").getFormat());
+        assertEquals(2048L, updates.get("ROOT").getFileSizeKB());
+
+        Path json = tempDir.resolve("logging.json");
+        Files.write(json, "{\"software.amazon.awssdk\": {\"level\": \"WARN\", \"totalLogsSizeKB\": 100}}"
+                .getBytes(StandardCharsets.UTF_8));
+        updates = LogConfigFileWatcher.parse(json);
+        assertEquals(Level.WARN, updates.get("software.amazon.awssdk").getLevel());
+        assertEquals(100L, updates.get("software.amazon.awssdk").getTotalLogsSizeKB());
+
+        Files.write(props, "io.netty.color=red\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> LogConfigFileWatcher.parse(props));
+    }
+
+    @Test
+    void GIVEN_watched_file_WHEN_file_changes_THEN_only_affected_loggers_change() throws Exception {
+        LogConfig.getRootLogConfig().setLevel(Level.INFO);
+        String componentName = "component-" + UUID.randomUUID();
+        Logger component = LogManager.getLogger(componentName, LogConfigUpdate.builder().level(Level.INFO).build());
+        Logger netty = LogManager.getLogger("io.netty.Bootstrap");
+        Logger other = LogManager.getLogger("com.example.Other");
+
+        Path file = tempDir.resolve("logging.properties");
+        Files.write(file, "io.netty.level=ERROR\n".getBytes(StandardCharsets.UTF_8));
+        LogConfigFileWatcher watcher = LogConfigFileWatcher.start(file, 50);
+        try {
+            assertFalse(netty.isWarnEnabled());
+            assertTrue(other.isInfoEnabled());
+
+            Files.write(file, ("io.netty.level=DEBUG\n" + componentName + ".level=TRACE\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            waitFor(component::isTraceEnabled);
+            assertTrue(netty.isDebugEnabled());
+            assertFalse(other.isDebugEnabled());
+            assertEquals(Level.INFO, LogManager.getRootLogConfiguration().getLevel());
+
+            // An invalid file keeps the previous configuration
+            Files.write(file, "io.netty.level=NOISY\n".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+            assertTrue(netty.isDebugEnabled());
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void GIVEN_api_rules_and_watched_file_WHEN_entries_removed_THEN_previous_settings_restored() throws Exception {
+        LogManager.setLevelRules("io.netty=WARN, com.example=ERROR");
+        String componentName = "component-" + UUID.randomUUID();
+        Logger component = LogManager.getLogger(componentName, LogConfigUpdate.builder().level(Level.INFO).build());
+        LogConfig componentConfig = LogManager.getLogConfigurations().get(componentName);
+        LogFormat componentFormat = componentConfig.getFormat();
+        Logger netty = LogManager.getLogger("io.netty.Bootstrap");
+        Logger other = LogManager.getLogger("com.example.Other");
+        List<GreengrassLogMessage> warnings = new CopyOnWriteArrayList<>();
+        Consumer<GreengrassLogMessage> listener = m -> {
+            if ("WARN".equals(m.getLevel()) && LogConfigFileWatcher.class.getName().equals(m.getLoggerName())) {
+                warnings.add(m);
+            }
+        };
+        Slf4jLogAdapter.addGlobalListener(listener);
+
+        Path file = tempDir.resolve("logging.properties");
+        Files.write(file, ("io.netty.level=DEBUG\nio.netty.format=JSON\n" + componentName + ".level=TRACE\n"
+                + componentName + ".format=JSON\n").getBytes(StandardCharsets.UTF_8));
+        LogConfigFileWatcher watcher = LogConfigFileWatcher.start(file, 50);
+        try {
+            // The file's rule replaces the API rule for its prefix only
+            assertTrue(netty.isDebugEnabled());
+            assertFalse(other.isWarnEnabled());
+            assertTrue(component.isTraceEnabled());
+            assertEquals(LogFormat.JSON, componentConfig.getFormat());
+            // The format of a logger without its own config has nowhere to go
+            assertEquals(1, warnings.size());
+            assertEquals("io.netty", warnings.get(0).getContexts().get("logger"));
+
+            Files.write(file, ("com.example.level=INFO\n" + componentName + ".level=TRACE\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            waitFor(other::isInfoEnabled);
+            assertFalse(netty.isDebugEnabled());
+            assertTrue(netty.isWarnEnabled());
+            assertTrue(component.isTraceEnabled());
+            assertEquals(componentFormat, componentConfig.getFormat());
+
+            Files.write(file, "com.example.level=INFO\n".getBytes(StandardCharsets.UTF_8));
+            waitFor(() -> !component.isTraceEnabled());
+            assertTrue(component.isInfoEnabled());
+            assertEquals(Level.INFO, componentConfig.getLevel());
+
+            // Rules set through the API still apply under the file's
+            LogManager.setLevelRules("com.example=ERROR, io.netty=ERROR");
+            assertTrue(other.isInfoEnabled());
+            assertFalse(netty.isWarnEnabled());
+        } finally {
+            watcher.close();
+            Slf4jLogAdapter.removeGlobalListener(listener);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for configuration change");
+            Thread.sleep(20);
+        }
+    }
+}
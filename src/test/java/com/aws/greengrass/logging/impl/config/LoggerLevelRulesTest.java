@@ -0,0 +1,59 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoggerLevelRulesTest {
+
+    @Test
+    void GIVEN_prefix_rules_WHEN_get_level_THEN_most_specific_rule_wins() {
+        LoggerLevelRules rules = LoggerLevelRules.parse("software.amazon.awssdk=WARN, io.netty=error, "
+                + "software.amazon.awssdk.http=DEBUG");
+
+        assertEquals(Level.WARN, rules.getLevel("software.amazon.awssdk"));
+        assertEquals(Level.WARN, rules.getLevel("software.amazon.awssdk.core.Client"));
+        assertEquals(Level.DEBUG, rules.getLevel("software.amazon.awssdk.http.apache.ApacheHttpClient"));
+        assertEquals(Level.ERROR, rules.getLevel("io.netty.channel.nio.NioEventLoop"));
+        assertNull(rules.getLevel("software.amazon"));
+        assertNull(rules.getLevel("io.nettyx.Foo"));
+        assertNull(rules.getLevel("com.aws.greengrass.Kernel"));
+    }
+
+    @Test
+    void GIVEN_catch_all_rule_WHEN_get_level_THEN_applies_to_unmatched_names() {
+        LoggerLevelRules rules = LoggerLevelRules.parse("=ERROR,com.aws=INFO");
+
+        assertEquals(Level.ERROR, rules.getLevel("org.apache.Foo"));
+        assertEquals(Level.INFO, rules.getLevel("com.aws.Bar"));
+    }
+
+    @Test
+    void GIVEN_empty_or_invalid_spec_WHEN_parse_THEN_empty_or_exception() {
+        assertTrue(LoggerLevelRules.parse(null).isEmpty());
+        assertTrue(LoggerLevelRules.parse(" ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> LoggerLevelRules.parse("io.netty"));
+        assertThrows(IllegalArgumentException.class, () -> LoggerLevelRules.parse("io.netty=LOUD"));
+    }
+
+    @Test
+    void GIVEN_base_rules_WHEN_overridden_THEN_same_prefix_replaced_and_others_kept() {
+        LoggerLevelRules base = LoggerLevelRules.parse("io.netty=WARN, com.example=ERROR");
+        LoggerLevelRules merged = base.overriddenBy(LoggerLevelRules.parse("io.netty=DEBUG, org.apache=INFO"));
+
+        assertEquals(Level.DEBUG, merged.getLevel("io.netty.Bootstrap"));
+        assertEquals(Level.ERROR, merged.getLevel("com.example.Other"));
+        assertEquals(Level.INFO, merged.getLevel("org.apache.Foo"));
+        assertSame(base, base.overriddenBy(LoggerLevelRules.EMPTY));
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestRollingPolicyTest {
+    // Ten bytes per event
+    private static final String EVENT = "123456789";
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong clock = new AtomicLong(millis(LocalDateTime.of(2024, 1, 1, 10, 2)));
+    private final List<RollingFileAppender<ILoggingEvent>> appenders = new ArrayList<>();
+    private DiskQuota.Store quotaStore;
+
+    @AfterEach
+    void afterEach() {
+        appenders.forEach(RollingFileAppender::stop);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private RollingFileAppender<ILoggingEvent> start(long maxFileSize, long totalSizeCap, int rolloverMinutes) {
+        return start(maxFileSize, totalSizeCap, rolloverMinutes, false);
+    }
+
+    private RollingFileAppender<ILoggingEvent> start(long maxFileSize, long totalSizeCap, int rolloverMinutes,
+                                                     boolean shared) {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        RollingFileAppender<ILoggingEvent> appender =
+                shared ? new SharedFileAppender<>() : new RollingFileAppender<>();
+        ManifestRollingPolicy<ILoggingEvent> policy = new ManifestRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setDirectory(dir);
+        policy.setFileName("app");
+        policy.setExtension("log");
+        policy.setMaxFileSize(maxFileSize);
+        policy.setTotalSizeCap(totalSizeCap);
+        policy.setRolloverMinutes(rolloverMinutes);
+        policy.setClock(clock::get);
+        policy.setShared(shared);
+        if (quotaStore != null) {
+            policy.setQuotaStore(quotaStore);
+        }
+        appender.setContext(context);
+        appender.setName("app");
+        appender.setFile(dir.resolve("app.log").toString());
+        appender.setEncoder(new CountingEncoder(policy));
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.setTriggeringPolicy(policy);
+        appender.start();
+        appenders.add(appender);
+        return appender;
+    }
+
+    private static void append(RollingFileAppender<ILoggingEvent> appender, int events) {
+        Logger logger = ((LoggerContext) appender.getContext()).getLogger("test");
+        for (int i = 0; i < events; i++) {
+            appender.doAppend(new LoggingEvent(null, logger, Level.INFO, EVENT, null, null));
+        }
+    }
+
+    private long size(String name) throws IOException {
+        return Files.size(dir.resolve(name));
+    }
+
+    private List<String> manifest() throws IOException {
+        return Files.readAllLines(dir.resolve("app.log" + ManifestRollingPolicy.MANIFEST_SUFFIX));
+    }
+
+    @Test
+    void GIVEN_events_WHEN_active_file_reaches_max_size_THEN_rolls_before_next_event() throws IOException {
+        RollingFileAppender<ILoggingEvent> appender = start(100, 0, 60);
+
+        append(appender, 10);
+        assertEquals(100, size("app.log"));
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_0.log")));
+
+        append(appender, 1);
+
+        assertEquals(100, size("app_2024_01_01_10_0.log"));
+        assertEquals(10, size("app.log"));
+        assertThat(manifest(), contains(millis(LocalDateTime.of(2024, 1, 1, 10, 0)) + " 0 100"));
+    }
+
+    @Test
+    void GIVEN_minute_periods_WHEN_period_ends_THEN_rolls_with_index_counting_up_within_hour() throws IOException {
+        RollingFileAppender<ILoggingEvent> appender = start(1000, 0, 5);
+        append(appender, 2);
+
+        clock.set(millis(LocalDateTime.of(2024, 1, 1, 10, 6)));
+        append(appender, 3);
+        clock.set(millis(LocalDateTime.of(2024, 1, 1, 10, 11)));
+        append(appender, 1);
+
+        assertEquals(20, size("app_2024_01_01_10_0.log"));
+        assertEquals(30, size("app_2024_01_01_10_1.log"));
+        assertEquals(10, size("app.log"));
+
+        clock.set(millis(LocalDateTime.of(2024, 1, 1, 11, 2)));
+        append(appender, 1);
+        assertEquals(10, size("app_2024_01_01_10_2.log"));
+        assertEquals(10, size("app.log"));
+    }
+
+    @Test
+    void GIVEN_manifest_WHEN_over_total_size_cap_THEN_oldest_deleted_without_listing_directory()
+            throws IOException {
+        RollingFileAppender<ILoggingEvent> appender = start(100, 250, 60);
+        append(appender, 31);
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_0.log")));
+        assertTrue(Files.exists(dir.resolve("app_2024_01_01_10_1.log")));
+        assertThat(manifest(), hasSize(2));
+        appender.stop();
+
+        // Not in the manifest, so the restarted policy doesn't know about it
+        Path unknown = dir.resolve("app_2023_01_01_00_0.log");
+        Files.write(unknown, EVENT.getBytes(StandardCharsets.UTF_8));
+        appender = start(100, 250, 60);
+        append(appender, 10);
+
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_0.log")));
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_1.log")));
+        assertEquals(100, size("app_2024_01_01_10_2.log"));
+        assertEquals(100, size("app_2024_01_01_10_3.log"));
+        assertTrue(Files.exists(unknown));
+        assertThat(manifest(), hasSize(2));
+    }
+
+    @Test
+    void GIVEN_disk_quota_WHEN_quota_evicts_rolled_file_THEN_removed_from_manifest() throws IOException {
+        DiskQuota quota = new DiskQuota(1, 0, Runnable::run);
+        quotaStore = quota.newStore(dir.resolve("app.log"), dir, "app_", ".log", DiskQuotaPriority.NORMAL);
+        RollingFileAppender<ILoggingEvent> appender = start(300, 0, 60);
+        // Four rolled files of 300 bytes exceed the quota of 1 KB
+        append(appender, 150);
+
+        assertEquals(1, quota.getEvictedCount());
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_0.log")));
+        assertThat(manifest(), hasSize(3));
+        assertThat(ManifestRollingPolicy.readRolledFiles(dir, "app", "log"), contains(
+                dir.resolve("app_2024_01_01_10_1.log"), dir.resolve("app_2024_01_01_10_2.log"),
+                dir.resolve("app_2024_01_01_10_3.log")));
+    }
+
+    @Test
+    void GIVEN_store_size_cap_and_disk_quota_WHEN_cap_deletes_rolled_files_THEN_quota_counts_only_files_on_disk()
+            throws IOException {
+        DiskQuota quota = new DiskQuota(2, 0, Runnable::run);
+        Path metrics = dir.resolve("metrics_2024_01_01_00_0.log");
+        Files.write(metrics, new byte[1000]);
+        DiskQuota.Store metricsStore = quota.newStore(dir.resolve("metrics.log"), dir, "metrics_", ".log",
+                DiskQuotaPriority.LOW);
+        metricsStore.register();
+        quotaStore = quota.newStore(dir.resolve("app.log"), dir, "app_", ".log", DiskQuotaPriority.HIGH);
+        RollingFileAppender<ILoggingEvent> appender = start(100, 250, 60);
+        // Rolls ten files of 100 bytes, of which the size cap of the store keeps two
+        append(appender, 105);
+
+        assertThat(manifest(), hasSize(2));
+        long onDisk = Files.size(metrics) + size("app.log");
+        for (Path rolled : ManifestRollingPolicy.readRolledFiles(dir, "app", "log")) {
+            onDisk += Files.size(rolled);
+        }
+        assertEquals(1250, onDisk);
+        assertEquals(onDisk, quota.getUsedBytes());
+        assertTrue(Files.exists(metrics));
+        assertEquals(0, quota.getEvictedCount());
+    }
+
+    @Test
+    void GIVEN_two_writers_sharing_file_WHEN_one_rolls_THEN_other_follows_without_rolling_again()
+            throws IOException {
+        // Stand-ins for two processes, each with its own logger context
+        RollingFileAppender<ILoggingEvent> first = start(100, 0, 60, true);
+        RollingFileAppender<ILoggingEvent> second = start(100, 0, 60, true);
+        append(first, 6);
+        append(second, 4);
+        assertEquals(100, size("app.log"));
+
+        // Sees the bytes of the first writer too
+        append(second, 1);
+        assertEquals(100, size("app_2024_01_01_10_0.log"));
+        assertEquals(10, size("app.log"));
+
+        append(first, 1);
+        assertEquals(20, size("app.log"));
+        assertFalse(Files.exists(dir.resolve("app_2024_01_01_10_1.log")));
+        assertThat(manifest(), contains(millis(LocalDateTime.of(2024, 1, 1, 10, 0)) + " 0 100"));
+
+        append(first, 8);
+        append(second, 1);
+        assertEquals(100, size("app_2024_01_01_10_1.log"));
+        assertEquals(10, size("app.log"));
+        assertThat(manifest(), hasSize(2));
+    }
+
+    private static class CountingEncoder extends EncoderBase<ILoggingEvent> {
+        private final ManifestRollingPolicy<ILoggingEvent> policy;
+
+        CountingEncoder(ManifestRollingPolicy<ILoggingEvent> policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public byte[] headerBytes() {
+            return new byte[0];
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            byte[] bytes = (event.getFormattedMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+            policy.written(bytes.length);
+            return bytes;
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return new byte[0];
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkAppenderTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @TempDir
+    Path dir;
+
+    private final List<Closeable> closeables = new ArrayList<>();
+    private final List<NetworkAppender> appenders = new ArrayList<>();
+
+    @AfterEach
+    void afterEach() throws IOException {
+        appenders.forEach(NetworkAppender::stop);
+        for (Closeable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    private NetworkAppender start(int port, boolean syslog, long bufferBytes, long spillLimitBytes) {
+        NetworkAppender appender = new NetworkAppender(new InetSocketAddress("localhost", port), syslog, bufferBytes,
+                spillFile(), spillLimitBytes);
+        appender.setContext(new LoggerContext());
+        appender.setName("test");
+        appender.setAppName("app");
+        appender.setEncoder(new LineEncoder());
+        appender.start();
+        appenders.add(appender);
+        return appender;
+    }
+
+    private Path spillFile() {
+        return dir.resolve("app.log" + PersistenceConfig.NETWORK_SPILL_SUFFIX);
+    }
+
+    private FakeCollector collector(int port) throws IOException {
+        FakeCollector collector = new FakeCollector(port);
+        closeables.add(collector);
+        return collector;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static ILoggingEvent event(Level level, String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage(message);
+        event.setTimeStamp(1_700_000_000_123L);
+        return event;
+    }
+
+    @Test
+    void GIVEN_collector_WHEN_events_appended_THEN_received_as_octet_counted_syslog_messages() throws Exception {
+        FakeCollector collector = collector(0);
+        NetworkAppender appender = start(collector.getPort(), true, 1024, 1024);
+
+        appender.doAppend(event(Level.INFO, "first"));
+        appender.doAppend(event(Level.ERROR, "second line\nwith stack"));
+
+        assertThat(collector.next(), matchesPattern("<14>1 2023-11-14T22:13:20\\.123Z \\S+ app \\S+ - - first"));
+        assertThat(collector.next(),
+                matchesPattern("<11>1 2023-11-14T22:13:20\\.123Z \\S+ app \\S+ - - second line\nwith stack"));
+    }
+
+    @Test
+    void GIVEN_collector_down_WHEN_events_appended_THEN_spilled_to_disk_and_delivered_in_order_once_up()
+            throws Exception {
+        int port = freePort();
+        // Room for all the events, but the writer spills once half full
+        NetworkAppender appender = start(port, false, 256, 1024 * 1024);
+        for (int i = 0; i < 20; i++) {
+            appender.doAppend(event(Level.INFO, String.format("event-%02d", i)));
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (!(Files.exists(spillFile()) && Files.size(spillFile()) > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.size(spillFile()) > 0);
+
+        FakeCollector collector = collector(port);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(String.format("event-%02d", i), collector.next());
+        }
+        appender.doAppend(event(Level.INFO, "after"));
+        assertEquals("after", collector.next());
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void GIVEN_full_spill_file_WHEN_stopped_while_down_THEN_overflow_dropped_and_rest_sent_by_next_appender()
+            throws Exception {
+        int port = freePort();
+        NetworkAppender appender = start(port, false, 1024, 40);
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event(Level.INFO, "event-" + i));
+        }
+        appender.stop();
+        assertThat(appender.getDroppedCount(), greaterThan(0L));
+        assertTrue(Files.exists(spillFile()));
+
+        FakeCollector collector = collector(port);
+        start(port, false, 1024, 40);
+        long received = 5 - appender.getDroppedCount();
+        for (int i = 0; i < received; i++) {
+            assertEquals("event-" + i, collector.next());
+        }
+        assertNull(collector.records.poll(200, TimeUnit.MILLISECONDS));
+        assertFalse(Files.size(spillFile()) > 0);
+    }
+
+    @Test
+    void GIVEN_connection_dropped_in_middle_of_batch_WHEN_reconnected_THEN_every_frame_delivered_in_order()
+            throws Exception {
+        CountDownLatch appended = new CountDownLatch(1);
+        List<ByteArrayOutputStream> connections = new CopyOnWriteArrayList<>();
+        NetworkAppender appender = new NetworkAppender(new InetSocketAddress("localhost", 514), false, 1024 * 1024,
+                spillFile(), 1024 * 1024) {
+            @Override
+            WritableByteChannel open(InetSocketAddress collector) throws IOException {
+                try {
+                    appended.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+                connections.add(received);
+                // The first connection drops on its first write, once frames of the batch have been polled
+                return new RecordingChannel(connections.size() == 1 ? null : received);
+            }
+        };
+        appender.setContext(new LoggerContext());
+        appender.setName("test");
+        appender.setEncoder(new LineEncoder());
+        appender.start();
+        appenders.add(appender);
+        // Three of these fill the batch buffer, so the fourth makes the writer write out the batch
+        String padding = new String(new char[NetworkAppender.BUFFER_SIZE / 3 - 100]).replace('\0', 'x');
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.INFO, "event-" + i + " " + padding));
+        }
+        appended.countDown();
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add("event-" + i + " " + padding);
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (connections.size() < 2 || messages(connections.get(1)).size() < expected.size()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the frames to be sent again");
+            Thread.sleep(10);
+        }
+        assertEquals(expected, messages(connections.get(1)));
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    /**
+     * Parse the octet-counted messages received so far.
+     */
+    private static List<String> messages(ByteArrayOutputStream received) throws IOException {
+        byte[] bytes;
+        synchronized (received) {
+            bytes = received.toByteArray();
+        }
+        List<String> messages = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        while (in.available() > 0) {
+            int length = FakeCollector.readLength(in);
+            if (length < 0 || in.available() < length) {
+                break;
+            }
+            byte[] message = new byte[length];
+            in.readFully(message);
+            messages.add(new String(message, StandardCharsets.UTF_8).trim());
+        }
+        return messages;
+    }
+
+    /**
+     * Channel keeping what is written to it, or failing every write when it has nowhere to keep it.
+     */
+    private static class RecordingChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream received;
+
+        RecordingChannel(ByteArrayOutputStream received) {
+            this.received = received;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (received == null) {
+                throw new IOException("Connection reset");
+            }
+            int n = src.remaining();
+            synchronized (received) {
+                while (src.hasRemaining()) {
+                    received.write(src.get());
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class LineEncoder extends EncoderBase<ILoggingEvent> {
+        @Override
+        public byte[] headerBytes() {
+            return new byte[0];
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return (event.getFormattedMessage() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Collector accepting any number of connections and queueing the octet-counted messages received.
+     */
+    private static class FakeCollector implements Closeable {
+        private final ServerSocket server;
+        private final BlockingQueue<String> records = new LinkedBlockingQueue<>();
+        private final Thread acceptor = new Thread(this::accept);
+
+        FakeCollector(int port) throws IOException {
+            server = new ServerSocket(port);
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        String next() throws InterruptedException {
+            return records.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread reader = new Thread(() -> read(socket));
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void read(Socket socket) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                while (true) {
+                    int length = readLength(in);
+                    if (length < 0) {
+                        return;
+                    }
+                    byte[] message = new byte[length];
+                    in.readFully(message);
+                    records.add(new String(message, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+
+        private static int readLength(InputStream in) throws IOException {
+            int length = 0;
+            for (int c = in.read(); c != ' '; c = in.read()) {
+                if (c < 0) {
+                    return -1;
+                }
+                length = length * 10 + c - '0';
+            }
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
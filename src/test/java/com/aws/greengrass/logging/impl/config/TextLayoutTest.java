@@ -0,0 +1,86 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.config;
+
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TextLayoutTest {
+    private static GreengrassLogMessage message(String eventType, String msg, Map<String, String> contexts,
+                                                Throwable cause) {
+        GreengrassLogMessage message = new GreengrassLogMessage("com.example.Service", Level.INFO, eventType, msg,
+                contexts, cause);
+        message.setTimestamp(1_700_000_000_123L);
+        return message;
+    }
+
+    /**
+     * The layout the default pattern replaces.
+     */
+    private static String legacyTextMessage(GreengrassLogMessage m) {
+        String text = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(m.getTimestamp())) + " ["
+                + m.getLevel() + "] (" + m.getThread() + ") " + m.getLoggerName() + ": "
+                + Stream.of(m.getEventType(), m.getMessage(), m.getContexts()).filter(Objects::nonNull)
+                .map(Object::toString).filter(x -> !x.isEmpty()).collect(Collectors.joining(". "));
+        if (m.getCause() == null) {
+            return text;
+        }
+        StringWriter sw = new StringWriter();
+        m.getCause().printStackTrace(new PrintWriter(sw));
+        return text + System.lineSeparator() + sw;
+    }
+
+    @Test
+    void GIVEN_default_pattern_WHEN_formatted_THEN_same_as_legacy_layout() {
+        Map<String, String> contexts = new LinkedHashMap<>();
+        contexts.put("key", "value");
+        contexts.put("other", null);
+        List<GreengrassLogMessage> messages = Arrays.asList(
+                message("eventType", "message", contexts, null),
+                message(null, "message", null, null),
+                message("eventType", "", Collections.emptyMap(), null),
+                message("", null, contexts, new IllegalStateException("EX!")),
+                message(null, null, null, null));
+
+        for (GreengrassLogMessage message : messages) {
+            assertEquals(legacyTextMessage(message), TextLayout.DEFAULT.format(message));
+            assertEquals(legacyTextMessage(message), message.getTextMessage());
+        }
+    }
+
+    @Test
+    void GIVEN_custom_pattern_WHEN_formatted_THEN_fields_laid_out_as_given() {
+        TextLayout layout = TextLayout.compile("%level 100%% %logger - %join{ | }(message,eventType,contexts)");
+
+        assertEquals("INFO 100% com.example.Service - started | {port=80}",
+                layout.format(message(null, "started", Collections.singletonMap("port", "80"), null)));
+        assertEquals("INFO 100% com.example.Service - ", layout.format(message("", null, null, null)));
+    }
+
+    @Test
+    void GIVEN_invalid_pattern_WHEN_compiled_THEN_throws() {
+        assertThrows(IllegalArgumentException.class, () -> TextLayout.compile("%level %unknown"));
+        assertThrows(IllegalArgumentException.class, () -> TextLayout.compile("%join{. (message)"));
+        assertThrows(IllegalArgumentException.class, () -> TextLayout.compile("%join{. }"));
+    }
+}
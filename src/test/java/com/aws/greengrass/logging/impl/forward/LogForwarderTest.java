@@ -0,0 +1,204 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.forward;
+
+import com.aws.greengrass.logging.impl.config.ManifestRollingPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogForwarderTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @TempDir
+    Path dir;
+
+    private final List<Closeable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void afterEach() throws IOException {
+        for (Closeable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    private LogForwarder start(LogSink sink, int maxBatchBytes) {
+        LogForwarder forwarder = LogForwarder.builder().directory(dir).fileName("app").extension("log").sink(sink)
+                .maxBatchBytes(maxBatchBytes).maxBatchMillis(10).pollMillis(10).build();
+        closeables.add(forwarder);
+        forwarder.start();
+        return forwarder;
+    }
+
+    private FakeCollector collector() throws IOException {
+        FakeCollector collector = new FakeCollector();
+        closeables.add(collector);
+        return collector;
+    }
+
+    private void append(String name, String text) throws IOException {
+        Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void roll(int index) throws IOException {
+        long start = LocalDateTime.of(2024, 1, 1, 10, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Path rolled = dir.resolve("app_2024_01_01_10_" + index + ".log");
+        Files.move(dir.resolve("app.log"), rolled);
+        append("app.log" + ManifestRollingPolicy.MANIFEST_SUFFIX, start + " " + index + " " + Files.size(rolled) + "\n");
+    }
+
+    @Test
+    void GIVEN_rolled_and_active_files_WHEN_forwarded_THEN_records_delivered_in_order_and_resumed_from_checkpoint()
+            throws Exception {
+        append("app.log", "a\nb\n");
+        roll(0);
+        append("app.log", "c\nd");
+        FakeCollector collector = collector();
+        LogForwarder forwarder = start(new SocketLogSink("localhost", collector.getPort()), 1024);
+
+        assertEquals("a", collector.next());
+        assertEquals("b", collector.next());
+        assertEquals("c", collector.next());
+        // Waits for the line to be complete
+        assertNull(collector.records.poll(200, TimeUnit.MILLISECONDS));
+
+        append("app.log", "\ne\n");
+        assertEquals("d", collector.next());
+        assertEquals("e", collector.next());
+        forwarder.close();
+
+        FakeCollector restarted = collector();
+        start(new SocketLogSink("localhost", restarted.getPort()), 1024);
+        append("app.log", "f\n");
+        assertEquals("f", restarted.next());
+    }
+
+    @Test
+    void GIVEN_active_file_rolled_while_forwarding_THEN_rolled_file_finished_before_new_active_file()
+            throws Exception {
+        append("app.log", "a\n");
+        FakeCollector collector = collector();
+        start(new SocketLogSink("localhost", collector.getPort()), 1024);
+        assertEquals("a", collector.next());
+
+        append("app.log", "b\n");
+        roll(0);
+        append("app.log", "c\n");
+
+        assertEquals("b", collector.next());
+        assertEquals("c", collector.next());
+        assertNull(collector.records.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void GIVEN_sink_failing_once_WHEN_forwarded_THEN_batches_split_by_size_and_failed_batch_delivered_again()
+            throws Exception {
+        List<String> batches = new CopyOnWriteArrayList<>();
+        BlockingQueue<Boolean> delivered = new LinkedBlockingQueue<>();
+        LogSink sink = new LogSink() {
+            private boolean failed;
+
+            @Override
+            public void deliver(List<byte[]> records) throws IOException {
+                batches.add(records.stream().map(r -> new String(r, StandardCharsets.UTF_8))
+                        .collect(Collectors.joining(",")));
+                if (!failed) {
+                    failed = true;
+                    throw new IOException("Collector unavailable");
+                }
+                delivered.add(true);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        append("app.log", "aa\nbb\ncc\n");
+
+        start(sink, 4);
+
+        delivered.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        delivered.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(batches, contains("aa,bb", "aa,bb", "cc"));
+    }
+
+    /**
+     * Collector accepting any number of connections and queueing the lines received.
+     */
+    private static class FakeCollector implements Closeable {
+        private final ServerSocket server = new ServerSocket(0);
+        private final BlockingQueue<String> records = new LinkedBlockingQueue<>();
+        private final Thread acceptor = new Thread(this::accept);
+
+        FakeCollector() throws IOException {
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        String next() throws InterruptedException {
+            return records.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread reader = new Thread(() -> read(socket));
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void read(Socket socket) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    records.add(line);
+                }
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
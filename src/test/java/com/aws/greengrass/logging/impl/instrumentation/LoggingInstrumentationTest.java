@@ -0,0 +1,70 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.instrumentation;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.Slf4jLogAdapter;
+import com.aws.greengrass.logging.impl.config.LogFormat;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoggingInstrumentationTest {
+
+    @Test
+    void GIVEN_instrumentation_enabled_WHEN_events_logged_THEN_snapshot_counts_them() {
+        assertTrue(LoggingInstrumentation.ENABLED, "Tests run with " + LoggingInstrumentation.INSTRUMENTATION_KEY);
+        String name = "instrumented-" + UUID.randomUUID();
+        Logger logger = LogManager.getLogger(name);
+        logger.setLevel("INFO");
+        Consumer<GreengrassLogMessage> listener = m -> { };
+        Slf4jLogAdapter.addGlobalListener(listener);
+        try {
+            InstrumentationSnapshot before = LoggingInstrumentation.snapshot();
+            logger.atInfo().log("one");
+            logger.atError().log("two");
+            logger.error("three");
+            logger.atDebug().log("suppressed");
+            logger.trace("suppressed");
+
+            InstrumentationSnapshot after = LoggingInstrumentation.snapshot();
+            assertEquals(1L, after.getEvents().get(name).get(Level.INFO));
+            assertEquals(2L, after.getEvents().get(name).get(Level.ERROR));
+            assertNull(after.getEvents().get(name).get(Level.DEBUG));
+            assertEquals(2L, after.getSuppressed().get(name));
+            assertThat(after.getListenerDispatch().getCount() - before.getListenerDispatch().getCount(),
+                    greaterThanOrEqualTo(3L));
+            assertThat(after.getSerialization().get(LogFormat.TEXT).getCount(),
+                    greaterThan(before.getSerialization().get(LogFormat.TEXT).getCount()));
+            // The root store may be a file or the console depending on the tests which ran before
+            assertThat(totalBytes(after), greaterThan(totalBytes(before)));
+        } finally {
+            Slf4jLogAdapter.removeGlobalListener(listener);
+        }
+
+        LoggingInstrumentation.recordDropped("test-queue", 5);
+        assertEquals(5L, LoggingInstrumentation.snapshot().getDropped().get("test-queue"));
+        LoggingInstrumentation.reset();
+        InstrumentationSnapshot reset = LoggingInstrumentation.snapshot();
+        assertNull(reset.getEvents().get(name));
+        assertNull(reset.getDropped().get("test-queue"));
+    }
+
+    private static long totalBytes(InstrumentationSnapshot snapshot) {
+        return snapshot.getBytesWritten().values().stream().mapToLong(Long::longValue).sum();
+    }
+}
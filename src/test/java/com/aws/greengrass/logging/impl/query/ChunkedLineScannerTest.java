@@ -0,0 +1,119 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkedLineScannerTest {
+    private static final int FILES = 10;
+    private static final int LINES_PER_FILE = 20;
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    /**
+     * Lines are a timestamp followed by text; lines starting with # aren't records.
+     */
+    private final ChunkedLineScanner.LineFormat<Long> format = new ChunkedLineScanner.LineFormat<Long>() {
+        @Override
+        public Long parse(Path file, byte[] line, int length) {
+            parsed.incrementAndGet();
+            long timestamp = lineTimestamp(line, length);
+            return timestamp < 0 ? null : timestamp;
+        }
+
+        @Override
+        public long timestamp(Long record) {
+            return record;
+        }
+
+        @Override
+        public long lineTimestamp(byte[] line, int length) {
+            String text = new String(line, 0, length, StandardCharsets.UTF_8);
+            return text.isEmpty() || text.startsWith("#") ? -1 : Long.parseLong(text.split(" ")[0]);
+        }
+    };
+
+    private Path write(String name, long... timestamps) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# header");
+        for (long timestamp : timestamps) {
+            lines.add(timestamp + " some text to fill the line");
+        }
+        return Files.write(tempDir.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void GIVEN_rolled_files_WHEN_only_first_records_read_THEN_later_files_not_scanned() throws IOException {
+        List<Path> files = new ArrayList<>();
+        // Listed newest first, read oldest first
+        for (int f = FILES - 1; f >= 0; f--) {
+            long[] timestamps = new long[LINES_PER_FILE];
+            for (int i = 0; i < LINES_PER_FILE; i++) {
+                timestamps[i] = (long) f * LINES_PER_FILE + i;
+            }
+            files.add(write("file" + f, timestamps));
+        }
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            try (Stream<Long> stream = ChunkedLineScanner.stream(pool, files, 1024 * 1024, format)) {
+                List<Long> first = stream.limit(5).collect(Collectors.toList());
+                assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), first);
+            }
+            // The first file, and the two scanned ahead with a parallelism of 1
+            assertThat(parsed.get(), lessThanOrEqualTo(3 * (LINES_PER_FILE + 1)));
+
+            try (Stream<Long> stream = ChunkedLineScanner.stream(pool, files, 64, format)) {
+                List<Long> all = stream.collect(Collectors.toList());
+                assertEquals(FILES * LINES_PER_FILE, all.size());
+                for (int i = 0; i < all.size(); i++) {
+                    assertEquals(i, all.get(i).longValue());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void GIVEN_overlapping_files_with_out_of_order_lines_WHEN_streamed_THEN_merged_in_timestamp_order()
+            throws IOException {
+        List<Path> files = new ArrayList<>();
+        files.add(write("a", 1, 4, 3, 6, 9, 8, 12));
+        files.add(write("b", 2, 5, 7, 11, 10, 13));
+        files.add(write("empty"));
+
+        for (long chunkSize : new long[]{40, 100, 1024}) {
+            try (Stream<Long> stream = ChunkedLineScanner.stream(ForkJoinPool.commonPool(), files, chunkSize,
+                    format)) {
+                List<Long> expected = new ArrayList<>();
+                for (long i = 1; i <= 13; i++) {
+                    expected.add(i);
+                }
+                assertEquals(expected, stream.collect(Collectors.toList()));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.logging.impl.query;
+
+import com.aws.greengrass.logging.impl.GreengrassLogMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogQueryEngineTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void GIVEN_log_files_WHEN_query_THEN_matching_records_returned_in_timestamp_order() throws IOException {
+        // Two files with interleaved timestamps, plus a non-JSON line and a non-log file
+        writeLog("greengrass.log", 1, 3, 5, 7, 9);
+        writeLog("greengrass_2024_01_01_00_0.log", 2, 4, 6, 8, 10);
+        Files.write(tempDir.resolve("greengrass.log"), "not json\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        writeLog("ignored.txt", 11);
+
+        LogQueryEngine engine = new LogQueryEngine(ForkJoinPool.commonPool(), 256);
+
+        List<Long> all = engine.query(tempDir, LogQuery.builder().build()).map(LogRecord::getTimestamp)
+                .collect(Collectors.toList());
+        List<Long> expected = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, all);
+
+        List<LogRecord> errors = engine.query(tempDir, LogQuery.builder().levels(EnumSet.of(Level.ERROR))
+                .fromTimestamp(2L).toTimestamp(9L).contexts(Collections.singletonMap("parity", "even")).build()).collect(Collectors.toList());
+        assertEquals(2, errors.size());
+        assertEquals(4, errors.get(0).getTimestamp());
+        assertEquals(8, errors.get(1).getTimestamp());
+        GreengrassLogMessage message = errors.get(0).toMessage();
+        assertEquals("ERROR", message.getLevel());
+        assertEquals("message 4", message.getMessage());
+
+        List<LogRecord> byLogger = engine.query(tempDir, LogQuery.builder().loggerName("logger-1")
+                .eventType("event-1").build()).collect(Collectors.toList());
+        assertEquals(1, byLogger.size());
+        assertEquals(1, byLogger.get(0).getTimestamp());
+    }
+
+    @Test
+    void GIVEN_query_WHEN_line_is_checked_THEN_missing_fields_do_not_match() {
+        byte[] line = "{\"level\":\"INFO\",\"timestamp\":5,\"contexts\":{}}".getBytes(StandardCharsets.UTF_8);
+        assertEquals(5, LogQueryEngine.match(line, line.length, LogQuery.builder().build()));
+        assertEquals(-1, LogQueryEngine.match(line, line.length, LogQuery.builder().eventType("x").build()));
+        assertEquals(-1, LogQueryEngine.match(line, line.length, LogQuery.builder().contexts(Collections.singletonMap("k", "v")).build()));
+        assertTrue(LogQueryEngine.match(line, 3, LogQuery.builder().build()) < 0);
+    }
+
+    private void writeLog(String fileName, long... timestamps) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (long ts : timestamps) {
+            GreengrassLogMessage message = new GreengrassLogMessage("logger-" + ts, ts % 4 == 0 ? Level.ERROR
+                    : Level.INFO, "event-" + ts, "message " + ts,
+                    Collections.singletonMap("parity", ts % 2 == 0 ? "even" : "odd"), null);
+            message.setTimestamp(ts);
+            lines.add(message.getJSONMessage());
+        }
+        Files.write(tempDir.resolve(fileName), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmfMetricEmitterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void GIVEN_metrics_sharing_namespace_and_dimensions_WHEN_flush_THEN_batched_into_emf_documents()
+            throws Exception {
+        EmfMetricEmitter emitter = new EmfMetricEmitter("emf-test", tempDir, 1, TimeUnit.HOURS);
+        Map<String, String> dimensions = Collections.singletonMap("ComponentName", "Foo");
+        for (int i = 0; i < 150; i++) {
+            emitter.put("Components", dimensions, "Metric" + i, TelemetryUnit.Count, i);
+        }
+        for (int i = 1; i < 120; i++) {
+            emitter.put("Components", dimensions, "Metric0", TelemetryUnit.Count, i);
+        }
+        emitter.put("Other", null, "Throughput", TelemetryUnit.BytesPerSecond, 2.5);
+        emitter.close();
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> documents = new ArrayList<>();
+        for (String line : Files.readAllLines(tempDir.resolve("emf-test.log"))) {
+            documents.add(mapper.readTree(line));
+        }
+        // 150 metrics and 120 values of one metric need 2 documents, plus 1 for the other namespace
+        assertEquals(3, documents.size());
+
+        int metrics = 0;
+        int values = 0;
+        for (JsonNode document : documents) {
+            JsonNode definition = document.get("_aws").get("CloudWatchMetrics").get(0);
+            assertTrue(document.get("_aws").get("Timestamp").isIntegralNumber());
+            assertTrue(definition.get("Metrics").size() <= EmfMetricEmitter.MAX_METRICS_PER_DOCUMENT);
+            if ("Other".equals(definition.get("Namespace").asText())) {
+                assertEquals(0, definition.get("Dimensions").get(0).size());
+                assertEquals("Bytes/Second", definition.get("Metrics").get(0).get("Unit").asText());
+                assertEquals(2.5, document.get("Throughput").asDouble());
+                continue;
+            }
+            assertEquals("ComponentName", definition.get("Dimensions").get(0).get(0).asText());
+            assertEquals("Foo", document.get("ComponentName").asText());
+            for (JsonNode metric : definition.get("Metrics")) {
+                metrics++;
+                JsonNode value = document.get(metric.get("Name").asText());
+                values += value.isArray() ? value.size() : 1;
+            }
+        }
+        assertEquals(151, metrics);
+        assertEquals(269, values);
+    }
+}
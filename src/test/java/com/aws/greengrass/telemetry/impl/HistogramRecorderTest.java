@@ -0,0 +1,83 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramRecorderTest {
+
+    @Test
+    void GIVEN_values_recorded_from_threads_WHEN_snapshot_THEN_percentiles_are_within_bucket_precision()
+            throws Exception {
+        HistogramRecorder recorder = new HistogramRecorder();
+        ExecutorService ses = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            futures.add(ses.submit(() -> {
+                for (int i = 1 + offset; i <= 10000; i += 4) {
+                    recorder.record(i / 1000.0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        ses.shutdown();
+
+        Histogram histogram = recorder.snapshotAndReset();
+        assertEquals(10000, histogram.getCount());
+        assertEquals(0.001, histogram.getMin());
+        assertEquals(10.0, histogram.getMax());
+        assertThat(histogram.getSum(), closeTo(50005.0, 1e-6));
+        assertThat(histogram.getP50(), closeTo(5.0, 5.0 * 0.035));
+        assertThat(histogram.getP90(), closeTo(9.0, 9.0 * 0.035));
+        assertThat(histogram.getP99(), closeTo(9.9, 9.9 * 0.035));
+        assertTrue(histogram.getP999() <= 10.0);
+
+        // Reset after the snapshot
+        assertNull(recorder.snapshotAndReset());
+    }
+
+    @Test
+    void GIVEN_values_outside_bucket_range_WHEN_snapshot_THEN_exact_min_and_max_are_reported() {
+        HistogramRecorder recorder = new HistogramRecorder();
+        recorder.record(-5);
+        recorder.record(0);
+        recorder.record(Double.NaN);
+        recorder.record(HistogramRecorder.HIGHEST * 4);
+
+        Histogram histogram = recorder.snapshotAndReset();
+        assertEquals(3, histogram.getCount());
+        assertEquals(-5, histogram.getMin());
+        assertEquals(-5, histogram.getP50());
+        assertEquals(HistogramRecorder.HIGHEST * 4, histogram.getP99());
+        assertEquals(HistogramRecorder.HIGHEST * 4, histogram.getMax());
+    }
+
+    @Test
+    void GIVEN_increasing_values_THEN_bucket_index_is_monotonic() {
+        int previous = 0;
+        for (double v = HistogramRecorder.LOWEST / 2; v < HistogramRecorder.HIGHEST * 2; v *= 1.01) {
+            int index = HistogramRecorder.index(v);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+    }
+}
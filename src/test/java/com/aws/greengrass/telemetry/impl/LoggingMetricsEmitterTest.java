@@ -0,0 +1,85 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.logging.impl.instrumentation.LoggingInstrumentation;
+import com.aws.greengrass.telemetry.impl.config.TelemetryConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.spy;
+
+@ExtendWith(MockitoExtension.class)
+class LoggingMetricsEmitterTest {
+    @TempDir
+    protected Path tempRootDir;
+    @Captor
+    ArgumentCaptor<String> message;
+
+    @BeforeEach
+    public void setup() {
+        TelemetryConfig.getInstance().setRoot(tempRootDir);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        TelemetryConfig.getInstance().closeContext();
+    }
+
+    @Test
+    void GIVEN_instrumented_logging_WHEN_emit_THEN_counter_deltas_are_written_as_metrics() throws Exception {
+        MetricFactory mf = new MetricFactory(LoggingMetricsEmitter.STORE_NAME);
+        Logger loggerSpy = spy(mf.getLogger());
+        mf.setLogger(loggerSpy);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        LoggingMetricsEmitter emitter = new LoggingMetricsEmitter(mf);
+        emitter.emit();
+
+        Logger logger = LogManager.getLogger("emitter-test");
+        logger.atWarn().log("one");
+        logger.atWarn().log("two");
+        LoggingInstrumentation.recordDropped("emitter-test-queue", 3);
+        int written = message.getAllValues().size();
+        emitter.emit();
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Metric> metrics = new HashMap<>();
+        for (String line : message.getAllValues().subList(written, message.getAllValues().size())) {
+            Metric metric = mapper.readValue(line, Metric.class);
+            assertEquals(LoggingMetricsEmitter.NAMESPACE, metric.getNamespace());
+            metrics.put(metric.getName(), metric);
+        }
+        assertEquals(2, metrics.get("Events.WARN.emitter-test").getValue());
+        assertEquals(3, metrics.get("Dropped.emitter-test-queue").getValue());
+        assertTrue(metrics.containsKey("ListenerDispatch.Count"));
+
+        // Counters which didn't change since the previous emission are skipped
+        written = message.getAllValues().size();
+        emitter.emit();
+        for (String line : message.getAllValues().subList(written, message.getAllValues().size())) {
+            assertThat(line, not(containsString("emitter-test")));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl;
+
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MetricAggregatorTest {
+    private static final int THREADS = 4;
+    private static final int VALUES = 200_000;
+
+    @Test
+    void GIVEN_values_recorded_from_threads_WHEN_flushed_concurrently_THEN_every_interval_is_consistent()
+            throws Exception {
+        MetricAggregator aggregator = new MetricAggregator();
+        ExecutorService ses = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(ses.submit(() -> {
+                for (int i = 0; i < VALUES; i++) {
+                    for (TelemetryAggregation aggregation : new TelemetryAggregation[]{TelemetryAggregation.Average,
+                            TelemetryAggregation.Maximum, TelemetryAggregation.Minimum,
+                            TelemetryAggregation.Count}) {
+                        aggregator.record("NS", "Value", Dimensions.EMPTY, TelemetryUnit.Count, aggregation, 5);
+                    }
+                }
+            }));
+        }
+        long[] count = new long[1];
+        List<Metric> inconsistent = new ArrayList<>();
+        while (!done.get()) {
+            done.set(futures.stream().allMatch(Future::isDone));
+            aggregator.flush(m -> {
+                if (m.getAggregation() == TelemetryAggregation.Count) {
+                    count[0] += (Long) m.getValue();
+                } else if ((Double) m.getValue() != 5) {
+                    inconsistent.add(m);
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        ses.shutdown();
+
+        assertEquals(new ArrayList<>(), inconsistent);
+        assertEquals((long) THREADS * VALUES, count[0]);
+    }
+
+    @Test
+    void GIVEN_idle_series_WHEN_flushed_THEN_evicted_AND_kept_cell_records_into_new_cell() {
+        MetricAggregator aggregator = new MetricAggregator();
+        MetricAggregator.Cell kept = aggregator.cell("NS", "Kept", Dimensions.EMPTY, TelemetryUnit.Count,
+                TelemetryAggregation.Sum);
+        aggregator.record("NS", "Once", Dimensions.EMPTY, TelemetryUnit.Count, TelemetryAggregation.Sum, 1);
+        assertSame(kept, kept.record(2));
+        List<Metric> flushed = new ArrayList<>();
+        aggregator.flush(flushed::add);
+        assertEquals(2, flushed.size());
+
+        for (int i = 0; i < MetricAggregator.IDLE_FLUSHES_BEFORE_EVICTION - 1; i++) {
+            aggregator.flush(flushed::add);
+            assertEquals(2, aggregator.size());
+        }
+        aggregator.flush(flushed::add);
+        assertEquals(0, aggregator.size());
+        assertEquals(2, flushed.size());
+
+        MetricAggregator.Cell recorded = kept.record(3);
+        assertNotSame(kept, recorded);
+        assertSame(recorded, recorded.record(4));
+        assertEquals(1, aggregator.size());
+        flushed.clear();
+        aggregator.flush(flushed::add);
+        assertEquals(1, flushed.size());
+        assertEquals("Kept", flushed.get(0).getName());
+        assertEquals(7.0, flushed.get(0).getValue());
+    }
+}
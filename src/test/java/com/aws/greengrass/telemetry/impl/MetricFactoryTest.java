@@ -6,10 +6,14 @@
 package com.aws.greengrass.telemetry.impl;
 
 import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.config.model.LogConfigUpdate;
 import com.aws.greengrass.telemetry.impl.config.TelemetryConfig;
+import com.aws.greengrass.telemetry.impl.config.TelemetryStore;
 import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryBufferPolicy;
 import com.aws.greengrass.telemetry.models.TelemetryUnit;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,8 +30,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -36,14 +45,21 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -137,6 +153,41 @@ class MetricFactoryTest {
         assertFalse(message.getValue().contains("cpu usage"));
     }
 
+    @Test
+    void GIVEN_metricsFactory_WHEN_primitive_values_put_THEN_same_json_is_logged_AND_metric_is_not_modified()
+            throws IOException {
+        MetricFactory mf = new MetricFactory("PrimitiveMetrics");
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        Metric m = new Metric("System Metrics", "Cpu\"Usage", TelemetryUnit.Percent, TelemetryAggregation.Average);
+
+        mf.putMetricData(m, 42L);
+        mf.putMetricData(m, 0.25);
+        mf.putMetricData(m, Double.NaN);
+
+        // The shared metric is left untouched
+        assertEquals("System Metrics", m.getNamespace());
+        assertNull(m.getValue());
+        assertNull(m.getTimestamp());
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> lines = message.getAllValues();
+        assertThat(lines, hasSize(3));
+        Object[] values = {42, 0.25, "NaN"};
+        for (int i = 0; i < values.length; i++) {
+            Metric logged = mapper.readValue(lines.get(i), Metric.class);
+            Metric expected = new Metric("SystemMetrics", "Cpu\"Usage", TelemetryUnit.Percent,
+                    TelemetryAggregation.Average, values[i], logged.getTimestamp());
+            assertEquals(new TelemetryLoggerMessage(expected).getJSONMessage(), lines.get(i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> mf.putMetricData(
+                new Metric(" ", "A", TelemetryUnit.Count, TelemetryAggregation.Sum), 1L));
+        assertThrows(NullPointerException.class, () -> mf.putMetricData(
+                Metric.builder().namespace("A").unit(TelemetryUnit.Count).aggregation(TelemetryAggregation.Sum)
+                        .build(), 1.0));
+    }
+
     @Test
     void GIVEN_metricsFactory_WHEN_used_by_2_threads_THEN_both_threads_should_emit_metrics_AND_write_to_correct_files()
             throws InterruptedException, ExecutionException, TimeoutException, IOException {
@@ -295,6 +346,370 @@ class MetricFactoryTest {
         assertFalse(Files.exists(newTempRoot.resolve("com.log")));
     }
 
+    @Test
+    void GIVEN_aggregating_metricsFactory_WHEN_values_put_from_threads_THEN_one_aggregated_metric_per_key_is_logged()
+            throws Exception {
+        MetricFactory mf = new MetricFactory("AggregatedMetrics", 1, TimeUnit.HOURS);
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        Metric sum = new Metric("NS", "Requests", TelemetryUnit.Count, TelemetryAggregation.Sum);
+        Metric avg = new Metric("NS", "Latency", TelemetryUnit.Seconds, TelemetryAggregation.Average);
+        Metric max = new Metric("NS", "Queue", TelemetryUnit.Count, TelemetryAggregation.Maximum);
+        Metric count = new Metric("NS", "Calls", TelemetryUnit.Count, TelemetryAggregation.Count);
+
+        ExecutorService ses = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(ses.submit(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    mf.putMetricData(sum, 1);
+                    mf.putMetricData(avg, i % 2 == 0 ? 2.0 : 4.0);
+                    mf.putMetricData(max, i);
+                    mf.putMetricData(count, 7);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        ses.shutdown();
+        verify(loggerSpy, times(0)).trace(any());
+
+        mf.close();
+        verify(loggerSpy, times(4)).trace(any());
+        ObjectMapper mapper = new ObjectMapper();
+        for (String s : message.getAllValues()) {
+            Metric m = mapper.readValue(s, Metric.class);
+            double value = ((Number) m.getValue()).doubleValue();
+            switch (m.getName()) {
+                case "Requests":
+                    assertEquals(4000, value);
+                    break;
+                case "Latency":
+                    assertEquals(3.0, value);
+                    break;
+                case "Queue":
+                    assertEquals(1000, value);
+                    break;
+                case "Calls":
+                    assertEquals(4000, value);
+                    break;
+                default:
+                    fail("Unexpected metric " + s);
+            }
+        }
+
+        // Nothing more is written for an interval without values
+        mf.flush();
+        verify(loggerSpy, times(4)).trace(any());
+    }
+
+    @Test
+    void GIVEN_aggregating_metricsFactory_WHEN_histogram_metric_put_THEN_distribution_is_logged() throws Exception {
+        MetricFactory mf = new MetricFactory("HistogramMetrics", 1, TimeUnit.HOURS);
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        Metric latency = new Metric("NS", "Latency", TelemetryUnit.Seconds, TelemetryAggregation.Histogram);
+        for (int i = 1; i <= 100; i++) {
+            mf.putMetricData(latency, i);
+        }
+        mf.flush();
+
+        JsonNode value = new ObjectMapper().readTree(message.getValue()).get("V");
+        assertEquals(100, value.get("C").asLong());
+        assertEquals(1.0, value.get("Min").asDouble());
+        assertEquals(100.0, value.get("Max").asDouble());
+        assertEquals(5050.0, value.get("Sum").asDouble());
+        assertThat(value.get("P50").asDouble(), closeTo(50, 2));
+        assertThat(value.get("P99").asDouble(), closeTo(99, 3));
+        mf.close();
+    }
+
+    @Test
+    void GIVEN_registered_metric_handle_WHEN_values_put_THEN_normalized_metrics_are_logged() throws Exception {
+        MetricFactory mf = new MetricFactory("RegisteredMetrics");
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        MetricHandle handle = mf.register(" System Metrics", "Cpu Usage\t", TelemetryUnit.Percent,
+                TelemetryAggregation.Average);
+        assertEquals("SystemMetrics", handle.getNamespace());
+        assertEquals("CpuUsage", handle.getName());
+
+        handle.put(80);
+        handle.put(12.5);
+        ObjectMapper mapper = new ObjectMapper();
+        Metric logged = mapper.readValue(message.getAllValues().get(0), Metric.class);
+        Metric expected = new Metric("SystemMetrics", "CpuUsage", TelemetryUnit.Percent,
+                TelemetryAggregation.Average, 80, logged.getTimestamp());
+        assertEquals(new TelemetryLoggerMessage(expected).getJSONMessage(), message.getAllValues().get(0));
+        assertEquals(12.5, mapper.readValue(message.getValue(), Metric.class).getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> mf.register(" ", "A", TelemetryUnit.Count,
+                TelemetryAggregation.Sum));
+        assertThrows(NullPointerException.class, () -> mf.register("A", null, TelemetryUnit.Count,
+                TelemetryAggregation.Sum));
+
+        MetricFactory aggregating = new MetricFactory("RegisteredMetrics", 1, TimeUnit.HOURS);
+        loggerSpy = setupLoggerSpy(aggregating);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        MetricHandle sum = aggregating.register("NS", "Requests", TelemetryUnit.Count, TelemetryAggregation.Sum);
+        for (int i = 0; i < 10; i++) {
+            sum.put(2);
+        }
+        aggregating.putMetricData(new Metric("NS", "Requests", TelemetryUnit.Count, TelemetryAggregation.Sum), 5);
+        aggregating.close();
+        assertEquals(25.0, mapper.readValue(message.getValue(), Metric.class).getValue());
+    }
+
+    @Test
+    void GIVEN_factories_created_concurrently_WHEN_one_store_reconfigured_THEN_other_stores_are_untouched()
+            throws Exception {
+        ExecutorService ses = Executors.newFixedThreadPool(8);
+        List<Future<MetricFactory>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String storeName = "ConcurrentStore" + i;
+            futures.add(ses.submit(() -> new MetricFactory(storeName)));
+        }
+        List<MetricFactory> factories = new ArrayList<>();
+        for (Future<MetricFactory> future : futures) {
+            factories.add(future.get(5, TimeUnit.SECONDS));
+        }
+        ses.shutdown();
+        TelemetryConfig config = TelemetryConfig.getInstance();
+        for (int i = 0; i < 16; i++) {
+            TelemetryStore store = config.getStore("Metrics-ConcurrentStore" + i);
+            assertEquals(TelemetryConfig.getTelemetryDirectory().resolve("ConcurrentStore" + i + ".log"),
+                    store.getFile());
+            factories.get(i).putMetricData(new Metric("NS", "Store" + i, TelemetryUnit.Count,
+                    TelemetryAggregation.Sum), i);
+            assertThat(new String(Files.readAllBytes(store.getFile())), containsString("Store" + i));
+        }
+
+        TelemetryStore untouched = config.getStore("Metrics-ConcurrentStore1");
+        Path otherDirectory = tempRootDir.resolve("other");
+        assertTrue(config.reconfigureStore("Metrics-ConcurrentStore0", LogConfigUpdate.builder()
+                .outputDirectory(otherDirectory.toString()).fileSizeKB(2048L).build()));
+        assertFalse(config.reconfigureStore("Metrics-Unknown", LogConfigUpdate.builder().build()));
+
+        TelemetryStore reconfigured = config.getStore("Metrics-ConcurrentStore0");
+        assertEquals(otherDirectory.resolve("ConcurrentStore0.log"), reconfigured.getFile());
+        assertEquals(2048L, reconfigured.getFileSizeKB());
+        assertSame(untouched, config.getStore("Metrics-ConcurrentStore1"));
+        factories.get(0).putMetricData(new Metric("NS", "Moved", TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        assertThat(new String(Files.readAllBytes(reconfigured.getFile())), containsString("Moved"));
+    }
+
+    @Test
+    void GIVEN_existing_factory_WHEN_context_closed_moved_and_started_THEN_factory_writes_to_new_store()
+            throws Exception {
+        MetricFactory mf = new MetricFactory("RestartedStore");
+        TelemetryConfig config = TelemetryConfig.getInstance();
+        config.closeContext();
+        Path otherRoot = tempRootDir.resolve("restarted");
+        config.setRoot(otherRoot);
+        config.startContext();
+
+        TelemetryStore store = config.getStore("Metrics-RestartedStore");
+        assertEquals(TelemetryConfig.getTelemetryDirectory().resolve("RestartedStore.log"), store.getFile());
+        mf.putMetricData(new Metric("NS", "AfterRestart", TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        assertThat(new String(Files.readAllBytes(store.getFile())), containsString("AfterRestart"));
+    }
+
+    @Test
+    void GIVEN_series_cap_WHEN_too_many_names_put_THEN_extra_names_folded_into_overflow_series() throws Exception {
+        TelemetryConfig config = TelemetryConfig.getInstance();
+        int maxSeries = config.getMaxSeriesPerNamespace();
+        config.setMaxSeriesPerNamespace(3);
+        MetricFactory mf;
+        try {
+            mf = new MetricFactory("CappedMetrics", 1, TimeUnit.HOURS);
+        } finally {
+            config.setMaxSeriesPerNamespace(maxSeries);
+        }
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        for (int i = 0; i < 10; i++) {
+            mf.putMetricData(new Metric("Requests", "Request" + i, TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        }
+        mf.putMetricData(new Metric("Requests", "Request0", TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        MetricHandle handle = mf.register("Requests", "Request11", TelemetryUnit.Count, TelemetryAggregation.Sum);
+        assertEquals(SeriesLimiter.OVERFLOW, handle.getName());
+        handle.put(1);
+        for (int i = 0; i < 5; i++) {
+            mf.putMetricData(new Metric("NS" + i, "Name", TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        }
+        mf.close();
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<Metric> logged = new ArrayList<>();
+        for (String json : message.getAllValues()) {
+            logged.add(mapper.readValue(json, Metric.class));
+        }
+        // 3 admitted names, 1 overflow name, the first 2 other namespaces, and the overflow namespace
+        assertThat(logged, hasSize(7));
+        for (Metric metric : logged) {
+            if ("Requests".equals(metric.getNamespace()) && SeriesLimiter.OVERFLOW.equals(metric.getName())) {
+                assertEquals(8.0, metric.getValue());
+            } else if ("Request0".equals(metric.getName())) {
+                assertEquals(2.0, metric.getValue());
+            } else if (SeriesLimiter.OVERFLOW.equals(metric.getNamespace())) {
+                assertEquals(3.0, metric.getValue());
+            }
+        }
+        assertEquals(8, mf.getOverflowCount("Requests"));
+        assertEquals(3, mf.getOverflowCount(SeriesLimiter.OVERFLOW));
+        assertEquals(0, mf.getOverflowCount("NS0"));
+
+        // A non-aggregating factory writes the folded datapoint without renaming the metric
+        config.setMaxSeriesPerNamespace(1);
+        try {
+            mf = new MetricFactory("CappedMetrics");
+        } finally {
+            config.setMaxSeriesPerNamespace(maxSeries);
+        }
+        loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        mf.putMetricData(new Metric("Requests", "A", TelemetryUnit.Count, TelemetryAggregation.Sum), 1);
+        Metric second = new Metric("Requests", "B", TelemetryUnit.Count, TelemetryAggregation.Sum);
+        mf.putMetricData(second, (Object) 1);
+        assertEquals(SeriesLimiter.OVERFLOW, mapper.readValue(message.getValue(), Metric.class).getName());
+        assertEquals("B", second.getName());
+    }
+
+    @Test
+    void GIVEN_metrics_with_dimensions_WHEN_put_THEN_dimensions_logged_AND_aggregated_per_dimension_set()
+            throws Exception {
+        Map<String, String> dims = new HashMap<>();
+        dims.put("Core", "0");
+        dims.put("Component", "Foo");
+        Dimensions core0 = Dimensions.of(dims);
+        assertSame(core0, Dimensions.of(new TreeMap<>(dims)));
+        assertSame(Dimensions.EMPTY, Dimensions.of(Collections.emptyMap()));
+        assertThrows(IllegalArgumentException.class, () -> Dimensions.of("", "A"));
+        assertThrows(IllegalArgumentException.class, () -> Dimensions.of("A", null));
+
+        MetricFactory mf = new MetricFactory("DimensionMetrics");
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        MetricHandle handle = mf.register("System", "Cpu", core0, TelemetryUnit.Percent,
+                TelemetryAggregation.Average);
+        assertSame(core0, handle.getDimensions());
+        handle.put(50);
+        ObjectMapper mapper = new ObjectMapper();
+        Metric logged = mapper.readValue(message.getValue(), Metric.class);
+        assertSame(core0, logged.getDimensions());
+        assertEquals(new TelemetryLoggerMessage(logged).getJSONMessage(), message.getValue());
+        assertThat(message.getValue(), containsString("\"D\":{\"Component\":\"Foo\",\"Core\":\"0\"}"));
+
+        mf.putMetricData(new Metric("System", "Cpu", TelemetryUnit.Percent, TelemetryAggregation.Average), 10);
+        assertThat(message.getValue(), not(containsString("\"D\"")));
+
+        MetricFactory aggregating = new MetricFactory("DimensionMetrics", 1, TimeUnit.HOURS);
+        loggerSpy = setupLoggerSpy(aggregating);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        Dimensions core1 = Dimensions.of("Core", "1");
+        for (int i = 0; i < 4; i++) {
+            aggregating.putMetricData(Metric.builder().namespace("System").name("Cpu").dimensions(core1)
+                    .unit(TelemetryUnit.Percent).aggregation(TelemetryAggregation.Sum).build(), 2);
+            aggregating.putMetricData(new Metric("System", "Cpu", TelemetryUnit.Percent,
+                    TelemetryAggregation.Sum), 1);
+        }
+        aggregating.close();
+        Map<Dimensions, Object> sums = new HashMap<>();
+        for (String json : message.getAllValues().subList(2, message.getAllValues().size())) {
+            Metric metric = mapper.readValue(json, Metric.class);
+            sums.put(metric.getDimensions() == null ? Dimensions.EMPTY : metric.getDimensions(), metric.getValue());
+        }
+        assertEquals(2, sums.size());
+        assertEquals(8.0, sums.get(core1));
+        assertEquals(4.0, sums.get(Dimensions.EMPTY));
+    }
+
+    @Test
+    void GIVEN_metric_timer_WHEN_sections_timed_THEN_durations_aggregated_in_milliseconds() throws Exception {
+        MetricFactory mf = new MetricFactory("TimerMetrics", 1, TimeUnit.HOURS);
+        Logger loggerSpy = setupLoggerSpy(mf);
+        doCallRealMethod().when(loggerSpy).trace(message.capture());
+        MetricTimer timer = mf.timer("Component", "Latency", TelemetryAggregation.Maximum);
+        assertEquals(TelemetryUnit.Milliseconds, timer.getHandle().getUnit());
+
+        MetricTimer.Sample slept = timer.start();
+        try {
+            Thread.sleep(20);
+        } finally {
+            slept.close();
+        }
+        assertEquals("result", timer.record(() -> "result"));
+        assertThrows(IllegalStateException.class, () -> timer.record((Runnable) () -> {
+            throw new IllegalStateException();
+        }));
+        timer.recordSince(timer.startNanos());
+        MetricTimer.Sample sample = timer.start();
+        assertTrue(sample.stop() > 0);
+        assertEquals(0, sample.stop());
+        mf.close();
+
+        Metric logged = new ObjectMapper().readValue(message.getValue(), Metric.class);
+        assertEquals("Latency", logged.getName());
+        assertEquals(TelemetryUnit.Milliseconds, logged.getUnit());
+        assertThat((Double) logged.getValue(), greaterThanOrEqualTo(20.0));
+    }
+
+    @Test
+    void GIVEN_buffered_metricsFactory_WHEN_writer_blocked_THEN_full_buffer_handled_by_policy() throws Exception {
+        Metric metric = new Metric("Buffer", "Value", TelemetryUnit.Count, TelemetryAggregation.Sum);
+        ObjectMapper mapper = new ObjectMapper();
+
+        List<String> lines = emitWhileWriterBlocked(TelemetryBufferPolicy.DropNewest, metric);
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0), valuesOf(mapper, lines));
+
+        lines = emitWhileWriterBlocked(TelemetryBufferPolicy.DropOldest, metric);
+        assertEquals(Arrays.asList(0.0, 7.0, 8.0, 9.0, 10.0), valuesOf(mapper, lines));
+
+        lines = emitWhileWriterBlocked(TelemetryBufferPolicy.Aggregate, metric);
+        // 0 went to the writer, 1 to 4 filled the buffer and 5 to 10 were summed up
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0, 45.0), valuesOf(mapper, lines));
+    }
+
+    private List<String> emitWhileWriterBlocked(TelemetryBufferPolicy policy, Metric metric) throws Exception {
+        MetricFactory mf = new MetricFactory("BufferedMetrics", 4, policy);
+        Logger loggerSpy = setupLoggerSpy(mf);
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            lines.add(invocation.getArgument(0));
+            return null;
+        }).when(loggerSpy).trace(anyString());
+
+        mf.putMetricData(metric, 0L);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        MetricHandle handle = mf.register(metric.getNamespace(), metric.getName(), metric.getUnit(),
+                metric.getAggregation());
+        for (int i = 1; i <= 10; i++) {
+            if (i % 2 == 0) {
+                handle.put(i);
+            } else {
+                mf.putMetricData(metric, (double) i);
+            }
+        }
+        assertEquals(policy == TelemetryBufferPolicy.Aggregate ? 0 : 6, mf.getDroppedCount());
+        assertEquals(policy == TelemetryBufferPolicy.Aggregate ? 6 : 0, mf.getAggregatedCount());
+        release.countDown();
+        mf.close();
+        return lines;
+    }
+
+    private static List<Double> valuesOf(ObjectMapper mapper, List<String> lines) throws IOException {
+        List<Double> values = new ArrayList<>();
+        for (String line : lines) {
+            values.add(((Number) mapper.readValue(line, Metric.class).getValue()).doubleValue());
+        }
+        return values;
+    }
+
     private Logger setupLoggerSpy(MetricFactory mf) {
         Logger loggerSpy = spy(mf.getLogger());
         mf.setLogger(loggerSpy);
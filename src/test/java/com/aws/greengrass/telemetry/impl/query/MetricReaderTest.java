@@ -0,0 +1,132 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.impl.query;
+
+import com.aws.greengrass.telemetry.impl.Dimensions;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private static String metric(String ns, String name, String agg, String value, long ts) {
+        return "{\"NS\":\"" + ns + "\",\"N\":\"" + name + "\",\"U\":\"Count\",\"A\":\"" + agg + "\",\"V\":" + value
+                + ",\"TS\":" + ts + "}";
+    }
+
+    private static String envelope(String metric) {
+        return "{\"thread\":\"main\",\"level\":\"TRACE\",\"eventType\":null,\"message\":\""
+                + metric.replace("\"", "\\\"") + "\",\"contexts\":{},\"loggerName\":\"Metrics-test\","
+                + "\"timestamp\":1,\"cause\":null}";
+    }
+
+    private void writeFiles() throws Exception {
+        Files.write(tempDir.resolve("Metrics.log"), Arrays.asList(
+                envelope(metric("System", "Cpu", "Average", "10", 1000)),
+                envelope(metric("System", "Cpu", "Average", "20", 1500)),
+                metric("System", "Cpu", "Average", "90,\"D\":{\"Core\":\"1\"}", 1300),
+                envelope(metric("System", "Requests", "Sum", "3", 1200)),
+                "not a metric",
+                envelope(metric("System", "Latency", "Histogram", "{\"C\":1}", 1200))), StandardCharsets.UTF_8);
+        Files.write(tempDir.resolve("Metrics_2024.log"), Arrays.asList(
+                metric("System", "Cpu", "Average", "60", 1900),
+                metric("System", "Cpu", "Average", "5", 2100),
+                metric("System", "Requests", "Sum", "4", 1800),
+                metric("Other", "Cpu", "Maximum", "7", 1100)), StandardCharsets.UTF_8);
+        Files.write(tempDir.resolve("ignored.txt"), Arrays.asList(
+                metric("System", "Cpu", "Average", "99", 1000)), StandardCharsets.UTF_8);
+    }
+
+    private static MetricPoint point(String ns, String name, TelemetryAggregation agg, long ts, double value) {
+        return new MetricPoint(ns, name, TelemetryUnit.Count, agg, Dimensions.EMPTY, ts, value);
+    }
+
+    @Test
+    void GIVEN_telemetry_files_WHEN_read_with_query_THEN_matching_points_in_timestamp_order() throws Exception {
+        writeFiles();
+        // Small chunks split the files between lines and within lines
+        for (MetricReader reader : new MetricReader[]{new MetricReader(), new MetricReader(ForkJoinPool.commonPool(),
+                100)}) {
+            List<MetricPoint> points;
+            try (Stream<MetricPoint> stream = reader.read(tempDir, MetricQuery.builder().namespace("System")
+                    .name("Cpu").fromTimestamp(1000L).toTimestamp(2100L).build())) {
+                points = stream.collect(Collectors.toList());
+            }
+
+            assertEquals(4, points.size());
+            assertEquals(point("System", "Cpu", TelemetryAggregation.Average, 1000, 10), points.get(0));
+            assertEquals(Dimensions.of("Core", "1"), points.get(1).getDimensions());
+            assertEquals(1500, points.get(2).getTimestamp());
+            assertEquals(60, points.get(3).getValue());
+        }
+    }
+
+    @Test
+    void GIVEN_points_with_dimensions_WHEN_read_THEN_sets_shared_within_read_AND_not_interned() throws Exception {
+        Files.write(tempDir.resolve("Metrics.log"), Arrays.asList(
+                metric("System", "Cpu", "Average", "1,\"D\":{\"Core\":\"2\",\"Host\":\"a\"}", 1000),
+                metric("System", "Cpu", "Average", "2,\"D\":{\"Host\":\"a\",\"Core\":\"2\"}", 1001)),
+                StandardCharsets.UTF_8);
+        List<MetricPoint> points;
+        try (Stream<MetricPoint> stream = new MetricReader().read(tempDir, MetricQuery.builder().build())) {
+            points = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, points.size());
+        assertSame(points.get(0).getDimensions(), points.get(1).getDimensions());
+        Map<String, String> expected = new HashMap<>();
+        expected.put("Core", "2");
+        expected.put("Host", "a");
+        Dimensions interned = Dimensions.of(expected);
+        assertEquals(interned, points.get(0).getDimensions());
+        assertNotSame(interned, points.get(0).getDimensions());
+    }
+
+    @Test
+    void GIVEN_telemetry_files_WHEN_downsample_THEN_points_combined_per_window_by_aggregation() throws Exception {
+        writeFiles();
+        List<MetricPoint> points = new MetricReader(ForkJoinPool.commonPool(), 100).downsample(tempDir,
+                MetricQuery.builder().build(), 1000);
+
+        assertEquals(5, points.size());
+        assertEquals(point("Other", "Cpu", TelemetryAggregation.Maximum, 1000, 7), points.get(0));
+        assertTrue(points.contains(point("System", "Cpu", TelemetryAggregation.Average, 1000, 30)));
+        assertTrue(points.contains(new MetricPoint("System", "Cpu", TelemetryUnit.Count,
+                TelemetryAggregation.Average, Dimensions.of("Core", "1"), 1000, 90)));
+        assertEquals(point("System", "Requests", TelemetryAggregation.Sum, 1000, 7), points.get(3));
+        assertEquals(point("System", "Cpu", TelemetryAggregation.Average, 2000, 5), points.get(4));
+    }
+
+    @Test
+    void GIVEN_non_metric_lines_WHEN_parse_THEN_null() {
+        MetricQuery all = MetricQuery.builder().build();
+        for (String line : new String[]{"", "[]", "{\"message\":\"hello\"}", envelope("{\"NS\":\"a\"}"),
+                metric("System", "Cpu", "Unknown", "1", 1)}) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            assertNull(MetricReader.parse(bytes, bytes.length, all, new HashMap<>()), line);
+        }
+    }
+}